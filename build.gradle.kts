@@ -28,6 +28,7 @@ plugins {
 	id("idea")
 	id("com.gradle.plugin-publish") version "0.20.0"
 	id("pl.droidsonroids.jacoco.testkit") version "1.0.7"
+	id("me.champeau.jmh") version "0.6.6"
 	id("signing")
 }
 
@@ -96,6 +97,12 @@ dependencies {
 	testImplementation("org.spockframework:spock-core")
 }
 
+jmh {
+	warmupIterations.set(2)
+	iterations.set(5)
+	fork.set(1)
+}
+
 tasks.withType<Test> {
 	useJUnitPlatform()
 	testLogging {
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle
+
+import org.gradle.testkit.runner.GradleRunner
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static org.gradle.testkit.runner.TaskOutcome.FROM_CACHE
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS
+
+/**
+ * Verifies angular compilation is restored from build cache populated
+ * by a build in different location. Angular CLI executed by build script
+ * of package.json is replaced by plain node script, so the test requires
+ * NodeJS and npm only.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+@Requires({ AngularCompileBuildCacheFunctionalTests.npmAvailable() })
+class AngularCompileBuildCacheFunctionalTests extends Specification {
+
+	Path testDir
+
+	Path cacheDir
+
+	def setup() {
+		testDir = Files.createTempDirectory("junit")
+		cacheDir = testDir.resolve("build-cache")
+	}
+
+	def cleanup() {
+		if (testDir != null) {
+			testDir.toFile().deleteDir()
+		}
+	}
+
+	def "can restore compilation from build cache in other location"() {
+		given:
+		def original = workspace(testDir.resolve("original"))
+		def relocated = workspace(testDir.resolve("relocated"))
+
+		when:
+		def result = compile(original)
+
+		then:
+		result.task(":compileAngular").outcome == SUCCESS
+		original.resolve("build/angular/main/index.html").toFile().text == "sample-app"
+
+		when:
+		result = compile(relocated)
+
+		then:
+		result.task(":compileAngular").outcome == FROM_CACHE
+		relocated.resolve("build/angular/main/index.html").toFile().text == "sample-app"
+
+		when: "Project source changes"
+		relocated.resolve("src/main.ts").toFile() << "console.log('changed');"
+		result = compile(relocated)
+
+		then:
+		result.task(":compileAngular").outcome == SUCCESS
+
+	}
+
+	private Path workspace(Path dir) {
+		Files.createDirectories(dir.resolve("src"))
+		dir.resolve("src/main.ts").toFile() << "console.log('sample');"
+		dir.resolve("settings.gradle").toFile() << """
+			rootProject.name = 'sample-app'
+			buildCache {
+				local {
+					directory = new File('${cacheDir.toString().replace('\\', '/')}')
+				}
+			}
+		"""
+		dir.resolve("build.gradle").toFile() << """
+			plugins {
+				id 'com.palawanframe.angular'
+			}
+
+			group = 'com.palawanframe.sample'
+			version = '1.0.0-SNAPSHOT'
+
+			angular {
+				node {
+					download = false
+				}
+			}
+		"""
+		dir.resolve("package.json").toFile() << """
+			{
+			  "name": "sample-app",
+			  "version": "1.0.0",
+			  "private": true,
+			  "scripts": { "build": "node node_modules/@angular/cli/bin/ng.js build sample-app" },
+			  "devDependencies": { "@angular/cli": "file:tools/angular-cli" }
+			}
+		"""
+		dir.resolve("angular.json").toFile() << """
+			{
+			  "version": 1,
+			  "defaultProject": "sample-app",
+			  "projects": {
+			    "sample-app": {
+			      "projectType": "application",
+			      "root": "",
+			      "sourceRoot": "src",
+			      "architect": { "build": { "options": { "outputPath": "dist/sample-app", "tsConfig": "tsconfig.app.json" } } }
+			    }
+			  }
+			}
+		"""
+		dir.resolve("tsconfig.json").toFile() << '{ "compilerOptions": { "strict": true } }'
+		dir.resolve("tsconfig.app.json").toFile() << '{ "extends": "./tsconfig.json" }'
+		Files.createDirectories(dir.resolve("tools/angular-cli/bin"))
+		dir.resolve("tools/angular-cli/package.json").toFile() << '{ "name": "@angular/cli", "version": "12.2.17" }'
+		dir.resolve("tools/angular-cli/bin/ng.js").toFile() << '''
+			const fs = require('fs');
+			const path = require('path');
+			const [command, name] = process.argv.slice(2);
+			const project = JSON.parse(fs.readFileSync('angular.json')).projects[name];
+			const output = project.architect.build.options.outputPath;
+			fs.mkdirSync(output, { recursive: true });
+			fs.writeFileSync(path.join(output, 'index.html'), 'sample-app');
+		'''
+		return dir
+	}
+
+	private static def compile(Path dir) {
+		return GradleRunner.create()
+				.withProjectDir(dir.toFile())
+				.withArguments('compileAngular', '--build-cache')
+				.withPluginClasspath()
+				.build()
+	}
+
+	static boolean npmAvailable() {
+		try {
+			def command = System.getProperty("os.name").toLowerCase().contains("windows") ? ["cmd", "/c", "npm", "--version"] : ["npm", "--version"]
+			def process = command.execute()
+			process.waitFor()
+			return process.exitValue() == 0
+		} catch (IOException ignored) {
+			return false
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle
+
+import org.gradle.testkit.runner.GradleRunner
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Verifies the plugin registers its tasks lazily, so tasks outside
+ * of the task graph are never realized.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class AngularPluginTaskRealizationFunctionalTests extends Specification {
+
+	Path testProjectDir
+
+	def setup() {
+		testProjectDir = Files.createTempDirectory("junit")
+		testProjectDir.resolve("settings.gradle").toFile() << """
+			rootProject.name = 'sample-app'
+		"""
+		testProjectDir.resolve("angular.json").toFile() << """
+			{
+			  "version": 1,
+			  "newProjectRoot": "projects",
+			  "defaultProject": "sample-app",
+			  "projects": {
+			    "sample-app": {
+			      "projectType": "application",
+			      "root": "",
+			      "sourceRoot": "src",
+			      "architect": { "build": { "options": { "outputPath": "dist/sample-app" } } }
+			    },
+			    "components": {
+			      "projectType": "library",
+			      "root": "projects/components",
+			      "sourceRoot": "projects/components/src",
+			      "architect": { "build": { "options": { "outputPath": "dist/components" } } }
+			    }
+			  }
+			}
+		"""
+		testProjectDir.resolve("build.gradle").toFile() << """
+			plugins {
+				id 'com.palawanframe.angular' apply false
+			}
+
+			group = 'com.palawanframe.sample'
+			version = '1.0.0-SNAPSHOT'
+
+			def realized = []
+			tasks.configureEach { realized << it.name }
+
+			// tasks of gradle and plugins applied by the angular plugin
+			apply plugin: 'base'
+			apply plugin: com.palawan.gradle.NodePlugin
+			def existing = tasks.names.toSet()
+			apply plugin: 'com.palawanframe.angular'
+			def registered = tasks.names - existing
+
+			gradle.taskGraph.whenReady {
+				println "Plugin tasks (\${registered.size()}): \${registered.sort().join(',')}"
+				println "Realized tasks (\${realized.size()}): \${realized.sort().join(',')}"
+			}
+		"""
+	}
+
+	def cleanup() {
+		if (testProjectDir != null) {
+			testProjectDir.toFile().deleteDir()
+		}
+	}
+
+	def "help does not realize plugin tasks"() {
+		when:
+		def result = GradleRunner.create()
+				.withProjectDir(testProjectDir.toFile())
+				.withArguments('help')
+				.withPluginClasspath()
+				.build()
+
+		then:
+		def realized = realizedTasks(result.output)
+		realized.contains('help')
+		realized.intersect(pluginTasks(result.output)).isEmpty()
+
+	}
+
+	def "library compile realizes only its own plugin tasks"() {
+		when:
+		def result = GradleRunner.create()
+				.withProjectDir(testProjectDir.toFile())
+				.withArguments('componentsDistZip', '--dry-run')
+				.withPluginClasspath()
+				.build()
+
+		then:
+		def realized = realizedTasks(result.output)
+		realized.containsAll(['componentsDistZip', 'compileComponentsAngular', 'extractComponentsNodeLibraries'])
+		realized.intersect(pluginTasks(result.output)) as Set == ['componentsDistZip', 'compileComponentsAngular', 'extractComponentsNodeLibraries'] as Set
+
+	}
+
+	def "plugin tasks are derived from registered task names"() {
+		when:
+		def result = GradleRunner.create()
+				.withProjectDir(testProjectDir.toFile())
+				.withArguments('help')
+				.withPluginClasspath()
+				.build()
+
+		then:
+		pluginTasks(result.output).containsAll([
+				'compileAngular', 'compileComponentsAngular',
+				'watchAngular', 'watchComponentsAngular',
+				'extractNodeLibraries', 'extractComponentsNodeLibraries',
+				'distZip', 'componentsDistZip',
+				'publishToNodeModules', 'publishComponentsToNodeModules',
+				'buildAffectedAngular', 'ngInstall', 'ngInit', 'ng'
+		])
+
+	}
+
+	private static List<String> realizedTasks(String output) {
+		return taskList(output, "Realized tasks")
+	}
+
+	private static List<String> pluginTasks(String output) {
+		return taskList(output, "Plugin tasks")
+	}
+
+	private static List<String> taskList(String output, String prefix) {
+		def line = output.readLines().find { it.startsWith(prefix) }
+		assert line != null
+		def names = line.substring(line.indexOf(':') + 1).trim()
+		return names.isEmpty() ? [] : names.split(',') as List
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle
+
+import org.gradle.testkit.runner.GradleRunner
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS
+import static org.gradle.testkit.runner.TaskOutcome.UP_TO_DATE
+
+/**
+ * Verifies compile and publish to node_modules tasks are compatible
+ * with configuration cache. Angular CLI is replaced by plain node
+ * script, so the compilation requires NodeJS and npm only.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class ConfigurationCacheFunctionalTests extends Specification {
+
+	Path testProjectDir
+
+	def setup() {
+		testProjectDir = Files.createTempDirectory("junit")
+		Files.createDirectories(testProjectDir.resolve("src"))
+		testProjectDir.resolve("src/main.ts").toFile() << "console.log('sample');"
+		testProjectDir.resolve("settings.gradle").toFile() << """
+			rootProject.name = 'sample-app'
+		"""
+		testProjectDir.resolve("build.gradle").toFile() << """
+			plugins {
+				id 'com.palawanframe.angular'
+			}
+
+			group = 'com.palawanframe.sample'
+			version = '1.0.0-SNAPSHOT'
+
+			angular {
+				node {
+					download = false
+				}
+			}
+		"""
+		testProjectDir.resolve("package.json").toFile() << """
+			{
+			  "name": "sample-app",
+			  "version": "1.0.0",
+			  "private": true,
+			  "devDependencies": { "@angular/cli": "file:tools/angular-cli" }
+			}
+		"""
+		testProjectDir.resolve("angular.json").toFile() << """
+			{
+			  "version": 1,
+			  "newProjectRoot": "projects",
+			  "defaultProject": "sample-app",
+			  "projects": {
+			    "sample-app": {
+			      "projectType": "application",
+			      "root": "",
+			      "sourceRoot": "src",
+			      "architect": { "build": { "options": { "outputPath": "dist/sample-app", "tsConfig": "tsconfig.app.json" } } }
+			    },
+			    "components": {
+			      "projectType": "library",
+			      "root": "projects/components",
+			      "sourceRoot": "projects/components/src",
+			      "architect": { "build": { "options": { "outputPath": "dist/components" } } }
+			    }
+			  }
+			}
+		"""
+		testProjectDir.resolve("tsconfig.json").toFile() << '{ "compilerOptions": { "strict": true } }'
+		testProjectDir.resolve("tsconfig.app.json").toFile() << '{ "extends": "./tsconfig.json" }'
+		Files.createDirectories(testProjectDir.resolve("tools/angular-cli/bin"))
+		testProjectDir.resolve("tools/angular-cli/package.json").toFile() << '{ "name": "@angular/cli", "version": "12.2.17" }'
+		testProjectDir.resolve("tools/angular-cli/bin/ng.js").toFile() << '''
+			const fs = require('fs');
+			const path = require('path');
+			const [command, name] = process.argv.slice(2);
+			const project = JSON.parse(fs.readFileSync('angular.json')).projects[name];
+			const output = project.architect.build.options.outputPath;
+			fs.mkdirSync(output, { recursive: true });
+			fs.writeFileSync(path.join(output, 'index.html'), 'sample-app');
+		'''
+	}
+
+	def cleanup() {
+		if (testProjectDir != null) {
+			testProjectDir.toFile().deleteDir()
+		}
+	}
+
+	@Requires({ AngularCompileBuildCacheFunctionalTests.npmAvailable() })
+	def "can compile with configuration cache"() {
+		when:
+		def result = run('compileAngular')
+
+		then:
+		result.task(":compileAngular").outcome == SUCCESS
+		result.output.contains("Configuration cache entry stored")
+		testProjectDir.resolve("build/angular/main/index.html").toFile().text == "sample-app"
+
+		when:
+		testProjectDir.resolve("build/angular/main").toFile().deleteDir()
+		result = run('compileAngular')
+
+		then:
+		result.output.contains("Reusing configuration cache")
+		result.task(":compileAngular").outcome == SUCCESS
+		testProjectDir.resolve("build/angular/main/index.html").toFile().text == "sample-app"
+
+	}
+
+	def "can publish to node_modules with configuration cache"() {
+		given: "Library compiled by the test"
+		def library = Files.createDirectories(testProjectDir.resolve("build/angular/components"))
+		library.resolve("package.json").toFile() << '{"name":"components","version":"1.0.0"}'
+		def published = testProjectDir.resolve("node_modules/com.palawanframe.sample/components")
+
+		when:
+		def result = run('publishComponentsToNodeModules', '-x', 'compileComponentsAngular')
+
+		then:
+		result.task(":publishComponentsToNodeModules").outcome == SUCCESS
+		result.output.contains("Configuration cache entry stored")
+		published.resolve("package.json").toFile().text == '{"name":"components","version":"1.0.0"}'
+
+		when:
+		result = run('publishComponentsToNodeModules', '-x', 'compileComponentsAngular')
+
+		then:
+		result.output.contains("Reusing configuration cache")
+		result.task(":publishComponentsToNodeModules").outcome == UP_TO_DATE
+
+	}
+
+	private def run(String... tasks) {
+		return GradleRunner.create()
+				.withProjectDir(testProjectDir.toFile())
+				.withArguments(tasks.toList() + ['--configuration-cache'])
+				.withPluginClasspath()
+				.build()
+	}
+
+}
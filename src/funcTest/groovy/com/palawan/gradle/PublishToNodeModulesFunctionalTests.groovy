@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle
+
+import org.gradle.testkit.runner.GradleRunner
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS
+import static org.gradle.testkit.runner.TaskOutcome.UP_TO_DATE
+
+/**
+ * Verifies publishing of compiled library into node_modules by link.
+ * Compiled library is prepared by the test, so no NodeJS is required.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class PublishToNodeModulesFunctionalTests extends Specification {
+
+	Path testProjectDir
+
+	Path library
+
+	Path published
+
+	def setup() {
+		testProjectDir = Files.createTempDirectory("junit")
+		testProjectDir.resolve("settings.gradle").toFile() << """
+			rootProject.name = 'sample-app'
+		"""
+		testProjectDir.resolve("angular.json").toFile() << """
+			{
+			  "version": 1,
+			  "newProjectRoot": "projects",
+			  "defaultProject": "sample-app",
+			  "projects": {
+			    "sample-app": {
+			      "projectType": "application",
+			      "root": "",
+			      "sourceRoot": "src",
+			      "architect": { "build": { "options": { "outputPath": "dist/sample-app" } } }
+			    },
+			    "components": {
+			      "projectType": "library",
+			      "root": "projects/components",
+			      "sourceRoot": "projects/components/src",
+			      "architect": { "build": { "options": { "outputPath": "dist/components" } } }
+			    }
+			  }
+			}
+		"""
+		testProjectDir.resolve("build.gradle").toFile() << """
+			plugins {
+				id 'com.palawanframe.angular'
+			}
+
+			group = 'com.palawanframe.sample'
+			version = '1.0.0-SNAPSHOT'
+
+			angular {
+				publishMode = 'link'
+			}
+		"""
+
+		library = Files.createDirectories(testProjectDir.resolve("build/angular/components"))
+		library.resolve("package.json").toFile() << '{"name":"components","version":"1.0.0"}'
+		published = testProjectDir.resolve("node_modules/com.palawanframe.sample/components")
+	}
+
+	def cleanup() {
+		if (testProjectDir != null) {
+			testProjectDir.toFile().deleteDir()
+		}
+	}
+
+	def "can publish to node_modules by link"() {
+		when:
+		def result = publish()
+
+		then:
+		result.task(":publishComponentsToNodeModules").outcome == SUCCESS
+		published.resolve("package.json").toFile().text == '{"name":"components","version":"1.0.0"}'
+
+		when: "Library is compiled again"
+		library.resolve("index.js").toFile() << "export {};"
+		result = publish()
+
+		then: "Linked library reflects the new content, symbolic link is kept"
+		result.task(":publishComponentsToNodeModules").outcome == (Files.isSymbolicLink(published) ? UP_TO_DATE : SUCCESS)
+		published.resolve("index.js").toFile().exists()
+		!Files.isSymbolicLink(published) || Files.readSymbolicLink(published) == library.toAbsolutePath()
+
+		when:
+		result = publish()
+
+		then:
+		result.task(":publishComponentsToNodeModules").outcome == UP_TO_DATE
+
+		and: "Link is recorded by marker file"
+		!testProjectDir.resolve("build/tmp/publishComponentsToNodeModules/link.gradle").text.isEmpty()
+
+		when: "Link is removed from node_modules"
+		if (Files.isSymbolicLink(published)) {
+			Files.delete(published)
+		} else {
+			published.toFile().deleteDir()
+		}
+		result = publish()
+
+		then: "Library is linked again"
+		result.task(":publishComponentsToNodeModules").outcome == SUCCESS
+		published.resolve("index.js").toFile().exists()
+
+	}
+
+	private def publish() {
+		return GradleRunner.create()
+				.withProjectDir(testProjectDir.toFile())
+				.withArguments('publishComponentsToNodeModules', '-x', 'compileComponentsAngular')
+				.withPluginClasspath()
+				.build()
+	}
+
+}
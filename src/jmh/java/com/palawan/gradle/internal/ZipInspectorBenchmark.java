@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compares reading of library fingerprint from zip archive using
+ * {@link ZipInspector} against extraction of the whole archive, which
+ * is what {@code zipTree(archive).getFiles()} does.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ZipInspectorBenchmark {
+
+    private static final String LIBRARY_DIR = "library-1.0.0/";
+
+    /** Approximate size of the archive content in MB */
+    @Param({"4", "40"})
+    public int sizeMb;
+
+    private Path temp;
+    private File archive;
+
+    @Setup(Level.Trial)
+    public void createArchive() throws IOException {
+        temp = Files.createTempDirectory("zip-benchmark");
+        archive = temp.resolve("library.zip").toFile();
+
+        Random random = new Random(42);
+        byte[] content = new byte[64 * 1024];
+        int files = sizeMb * 16;
+
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry(LIBRARY_DIR + "package.json"));
+            zip.write("{\"name\":\"library\",\"version\":\"1.0.0\"}".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < files; i++) {
+                random.nextBytes(content);
+                zip.putNextEntry(new ZipEntry(LIBRARY_DIR + "fesm2015/chunk-" + i + ".js"));
+                zip.write(content);
+            }
+            zip.putNextEntry(new ZipEntry(LIBRARY_DIR + ContentFingerprint.FILE_NAME));
+            zip.write("sha256:0000\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArchive() throws IOException {
+        delete(temp);
+    }
+
+    @Benchmark
+    public Optional<String> centralDirectory() throws IOException {
+        try (ZipInspector zip = new ZipInspector(archive)) {
+            Optional<ZipEntry> manifest = zip.findShallowest(ContentFingerprint.FILE_NAME);
+            if (manifest.isPresent()) {
+                return ContentFingerprint.readDigest(zip.open(manifest.get()));
+            }
+            return Optional.empty();
+        }
+    }
+
+    @Benchmark
+    public Optional<String> fullExtraction() throws IOException {
+        Path target = temp.resolve("expanded");
+        delete(target);
+
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive.toPath()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                Path file = target.resolve(entry.getName());
+                Files.createDirectories(file.getParent());
+                copy(zip, file);
+            }
+        }
+
+        return ContentFingerprint.readDigest(target.resolve(LIBRARY_DIR));
+    }
+
+    private static void copy(InputStream in, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            in.transferTo(out);
+        }
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.exists(path)) {
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+}
@@ -23,6 +23,9 @@
 package com.palawan.gradle;
 
 import com.palawan.gradle.dsl.NodeExtension;
+import com.palawan.gradle.internal.DescriptorCacheService;
+import com.palawan.gradle.internal.ProjectHierarchyIndex;
+import com.palawan.gradle.internal.VersionSpec;
 import com.palawan.gradle.tasks.AngularInstall;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
@@ -37,6 +40,7 @@ import com.palawan.gradle.util.AngularJsonHelper;
 import com.palawan.gradle.util.ProjectUtil;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.util.Optional;
 
 /**
@@ -67,6 +71,7 @@ public class AngularBasePlugin implements Plugin<Project> {
 
     @Override
     public void apply(Project project) {
+        ProjectHierarchyIndex.get(project).pluginApplied(project);
         applyPlugins(project);
         addExtension(project);
 
@@ -84,7 +89,11 @@ public class AngularBasePlugin implements Plugin<Project> {
 
     private void addExtension(Project project) {
         NodeExtension nodeExtension = project.getExtensions().getByType(NodeExtension.class);
-        Optional<AngularJson> angularJson = AngularJsonHelper.getInstance().getAngularJson(project);
+        File angularJsonFile = ProjectUtil.getTopLevelProject(project).file(AngularJsonHelper.ANGULAR_JSON_FILE_NAME);
+        DescriptorCacheService descriptors = DescriptorCacheService.register(project).get();
+        Optional<AngularJson> angularJson = descriptors.getAngularJson(angularJsonFile);
+        // descriptors updated by evaluation of any project are written at once
+        project.getGradle().projectsEvaluated(g -> descriptors.commit());
         project.getExtensions().create(EXTENSION_NAME, AngularExtension.class,
                                        nodeExtension,
                                        angularJson.orElse(null),
@@ -103,6 +112,8 @@ public class AngularBasePlugin implements Plugin<Project> {
             project.getTasks().register(INSTALL_TASK, AngularInstall.class, t -> {
                 t.setGroup(ANGULAR_GROUP);
                 t.setDescription("Installs Angular using preferred package manager");
+                t.getAngularVersion().set(project.provider(() -> AngularExtension.get(project).getVersion()).orElse(VersionSpec.LATEST));
+                t.getNodeModules().fileProvider(project.provider(() -> ProjectUtil.getNodeModules(project).toFile()));
             });
         }
     }
@@ -23,13 +23,27 @@
 package com.palawan.gradle;
 
 import com.palawan.gradle.dsl.AngularExtension;
+import com.palawan.gradle.dsl.AngularJson;
 import com.palawan.gradle.dsl.AngularJsonProject;
+import com.palawan.gradle.dsl.NodeExtension;
 import com.palawan.gradle.dsl.SourceSet;
+import com.palawan.gradle.internal.AffectedProjects;
+import com.palawan.gradle.internal.CliCache;
+import com.palawan.gradle.internal.CompileInputs;
+import com.palawan.gradle.internal.DescriptorCacheService;
+import com.palawan.gradle.internal.GitChangedFiles;
+import com.palawan.gradle.internal.NodeBuildService;
+import com.palawan.gradle.internal.NodeDependency;
+import com.palawan.gradle.internal.PackagerInternal;
+import com.palawan.gradle.internal.UnzipNodeLibrary;
+import com.palawan.gradle.internal.WorkspaceGraph;
+import com.palawan.gradle.tasks.AngularCompile;
+import com.palawan.gradle.tasks.AngularWatch;
+import com.palawan.gradle.tasks.ExtractNodeLibraries;
 import com.palawan.gradle.tasks.NodeInstallTask;
 import com.palawan.gradle.tasks.NodeSetupTask;
 import com.palawan.gradle.tasks.PackagerSetupTask;
-import com.palawan.gradle.tasks.PackagerTask;
-import com.palawan.gradle.util.AngularJsonHelper;
+import com.palawan.gradle.tasks.PublishToNodeModules;
 import com.palawan.gradle.util.ProjectUtil;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
@@ -40,8 +54,6 @@ import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.ConfigurationPublications;
 import org.gradle.api.artifacts.PublishArtifact;
-import org.gradle.api.artifacts.ResolvedArtifact;
-import org.gradle.api.artifacts.ResolvedConfiguration;
 import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
 import org.gradle.api.attributes.Bundling;
 import org.gradle.api.attributes.Category;
@@ -52,7 +64,6 @@ import org.gradle.api.component.SoftwareComponentFactory;
 import org.gradle.api.distribution.Distribution;
 import org.gradle.api.distribution.DistributionContainer;
 import org.gradle.api.distribution.plugins.DistributionPlugin;
-import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.internal.ConventionMapping;
 import org.gradle.api.internal.IConventionAware;
 import org.gradle.api.internal.artifacts.ArtifactAttributes;
@@ -63,16 +74,21 @@ import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.plugins.PluginContainer;
 import org.gradle.api.plugins.internal.JavaConfigurationVariantMapping;
 import org.gradle.api.provider.Provider;
-import org.gradle.api.tasks.Copy;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.bundling.Zip;
 import org.gradle.internal.Cast;
+import org.gradle.language.base.plugins.LifecycleBasePlugin;
 
 import javax.inject.Inject;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
@@ -91,6 +107,16 @@ public class AngularPlugin implements Plugin<Project> {
      */
     private static final String COMPONENT_NAME = "angular";
 
+    /**
+     * The name of task building affected angular projects
+     */
+    private static final String BUILD_AFFECTED_TASK = "buildAffectedAngular";
+
+    /**
+     * Packager running build script, if not configured by node extension
+     */
+    private static final String DEFAULT_PACKAGER = "npm";
+
     private final ObjectFactory objectFactory;
     private final SoftwareComponentFactory softwareComponentFactory;
 
@@ -112,7 +138,9 @@ public class AngularPlugin implements Plugin<Project> {
             SourceSet mainSourceSet = configureSourceSet(project, extension);
             configureNodeTasks(project);
             configureConfigurations(project, mainSourceSet);
+            registerTransforms(project);
             configureDistributions(project, extension, mainSourceSet);
+            configureAffectedTask(project, extension);
         }
     }
 
@@ -126,9 +154,12 @@ public class AngularPlugin implements Plugin<Project> {
         angular.getSources().all(sourceSet -> {
             defineSourceSetConfigurations(sourceSet, project.getConfigurations());
             definePathsForSourceSet(sourceSet, project);
-            Provider<PackagerTask> compileTask = createCompileTask(sourceSet, project);
+            createExtractTask(sourceSet, project);
+            Provider<AngularCompile> compileTask = createCompileTask(sourceSet, project);
             configureOutputDirectoryForSourceSet(sourceSet, compileTask, project);
             configurePublishToNodeModulesTask(sourceSet, project);
+            createWatchTask(sourceSet, compileTask, project);
+            configureCliCachePath(sourceSet, project);
         });
     }
 
@@ -171,30 +202,189 @@ public class AngularPlugin implements Plugin<Project> {
         });
     }
 
-    private Provider<PackagerTask> createCompileTask(final SourceSet sourceSet, final Project project) {
-        return project.getTasks().register(sourceSet.getCompileTaskName(), PackagerTask.class, task -> {
+    /**
+     * Extract task publishes resolved node libraries into node_modules
+     * before the source set is compiled. Library locations are outputs
+     * of the task, so node_modules is restored even if the compilation
+     * itself is up-to-date or loaded from build cache.
+     */
+    private void createExtractTask(final SourceSet sourceSet, final Project project) {
+        project.getTasks().register(sourceSet.getExtractTaskName(), ExtractNodeLibraries.class, task -> {
+            Project topLevelProject = ProjectUtil.getTopLevelProject(project);
+            Configuration compileConfiguration = project.getConfigurations().getByName(sourceSet.getCompileConfigurationName());
+            task.setDescription("Extracts node libraries of " + sourceSet + " into node_modules");
+            task.getLibraries().from(compileConfiguration);
+            task.getNodeDependencies().set(project.provider(() -> NodeDependency.resolve(project, compileConfiguration)));
+            task.dependsOn(topLevelProject.getTasks().withType(NodeInstallTask.class));
+        });
+    }
+
+    private Provider<AngularCompile> createCompileTask(final SourceSet sourceSet, final Project project) {
+        return project.getTasks().register(sourceSet.getCompileTaskName(), AngularCompile.class, task -> {
             Project topLevelProject = ProjectUtil.getTopLevelProject(project);
-            sourceSet.getDirectory().getSrcDirs().forEach(task.getInputs()::dir);
-            task.getOutputs().dir(project.getObjects().fileCollection().from(sourceSet.getOutput()));
+            AngularExtension angular = AngularExtension.get(project);
+            NodeExtension node = topLevelProject.getExtensions().getByType(NodeExtension.class);
+            String angularProject = getAngularProject(project, sourceSet);
+            CompileInputs inputs = new CompileInputs(angular.getAngularJson().getFile(), angularProject);
+            task.getSources().from(sourceSet.getDirectory().getSourceDirectories());
+            task.getProjectDescriptor().set(project.provider(inputs::getProjectDescriptor));
+            task.getDescriptorFiles().from(project.provider(inputs::getDescriptorFiles));
+            task.getNodeVersion().set(project.provider(node::getVersion));
+            task.getAngularVersion().set(project.provider(() -> inputs.getAngularVersion().orElse(angular.getVersion())));
             task.setGroup("build");
             task.setDescription("Compiles " + sourceSet.getOutput());
-            task.setArguments(List.of("run", "build", "--project=" + getAngularProject(project, sourceSet)));
-            task.setWorkingDir(topLevelProject.getProjectDir());
+            task.getAngularProject().set(angularProject);
+            task.getWorkingDir().set(topLevelProject.getProjectDir());
+            task.getNodeModules().fileProvider(project.provider(() -> ProjectUtil.getNodeModules(project).toFile()));
+            task.getNodeDirectory().fileProvider(project.provider(() ->
+                    Boolean.TRUE.equals(node.getDownload()) ? node.getWorkingDirPath().toFile() : null));
+            task.getPackager().set(project.provider(() -> node.getPackagerManager().getPackager()
+                    .map(PackagerInternal::getNpmPackage).orElse(null)).orElse(DEFAULT_PACKAGER));
+            task.getPackagerDirectory().fileProvider(project.provider(() -> Boolean.TRUE.equals(node.getDownload())
+                    ? node.getPackagerManager().getPackager().map(p -> p.getExecutableBinDir().toFile()).orElse(null)
+                    : null));
             task.dependsOn(topLevelProject.getTasks().withType(NodeInstallTask.class));
-            resolveNodeDependencies(sourceSet, task);
-            // Gradle does not support lambda actions as it can't track the class changes
-            //noinspection Convert2Lambda
-            task.doLast(new Action<>() {
-                @Override
-                public void execute(Task task) {
-                    AngularJsonHelper.getInstance().generateTimestamp(
-                            sourceSet.getName(),
-                            sourceSet.getOutput().getResourcesDir());
-                }
-            });
+            Provider<NodeBuildService> nodeBuilds = NodeBuildService.register(project);
+            task.getNodeBuildService().set(nodeBuilds);
+            task.usesService(nodeBuilds);
+            task.getSourceSetName().set(sourceSet.getName());
+            task.getOutputDirectory().fileProvider(project.provider(sourceSet.getOutput()::getResourcesDir));
+            task.getLibraries().from(project.getConfigurations().getByName(sourceSet.getCompileConfigurationName()));
+            task.dependsOn(sourceSet.getExtractTaskName());
+            configureWorkspaceDependencies(task, angularProject, topLevelProject);
+            configureCliCache(task, angularProject, topLevelProject);
+        });
+    }
+
+    /**
+     * Watch task runs the build of the compile task in watch mode. Output
+     * of applications is staged in build directory and synchronized into
+     * the source set output after each rebuild.
+     */
+    private void createWatchTask(final SourceSet sourceSet, final Provider<AngularCompile> compileTask, final Project project) {
+        project.getTasks().register(sourceSet.getWatchTaskName(), AngularWatch.class, task -> {
+            Project topLevelProject = ProjectUtil.getTopLevelProject(project);
+            String angularProject = getAngularProject(project, sourceSet);
+            task.setGroup("build");
+            task.setDescription("Compiles " + sourceSet.getOutput() + " continuously in watch mode");
+            task.getAngularProject().set(angularProject);
+            task.getWorkingDir().set(compileTask.flatMap(AngularCompile::getWorkingDir));
+            task.getNodeModules().set(compileTask.flatMap(AngularCompile::getNodeModules));
+            task.getNodeDirectory().set(compileTask.flatMap(AngularCompile::getNodeDirectory));
+            task.getNodeVersion().set(compileTask.flatMap(AngularCompile::getNodeVersion));
+            task.getOutputDirectory().set(compileTask.flatMap(AngularCompile::getOutputDirectory));
+            boolean library = AngularExtension.get(project).getAngularJson().getProject(angularProject)
+                    .flatMap(AngularJsonProject::getNgPackageFile).isPresent();
+            if (!library) {
+                task.getStagingDirectory().set(project.getLayout().getBuildDirectory().dir("angular-watch/" + sourceSet.getName()));
+            }
+            Provider<NodeBuildService> nodeBuilds = NodeBuildService.register(project);
+            task.getNodeBuildService().set(nodeBuilds);
+            task.usesService(nodeBuilds);
+            task.dependsOn(topLevelProject.getTasks().withType(NodeInstallTask.class));
+            task.dependsOn(sourceSet.getExtractTaskName());
+            configureWorkspaceDependencies(task, angularProject, topLevelProject);
+        });
+    }
+
+    /**
+     * Angular CLI cache of the project is moved into managed location,
+     * if enabled by gradle property. Stored caches are located in Gradle
+     * user home unless configured otherwise, the cache used by angular
+     * CLI is always located within the workspace, so both survive clean.
+     */
+    private void configureCliCache(AngularCompile task, String angularProject, Project topLevelProject) {
+        Project project = task.getProject();
+        ProviderFactory providers = project.getProviders();
+        if (!isCliCacheEnabled(project)) {
+            return;
+        }
+
+        File cacheDirectory = new File(providers.gradleProperty(CliCache.DIRECTORY_PROPERTY)
+                .map(topLevelProject::file)
+                .getOrElse(new File(project.getGradle().getGradleUserHomeDir(),
+                        CliCache.DEFAULT_DIRECTORY + "/" + CliCache.workspaceKey(topLevelProject.getProjectDir()))),
+                angularProject);
+        task.getCliCacheDirectory().set(cacheDirectory);
+        task.getCliCacheCurrentDirectory().set(getCliCacheCurrentDirectory(topLevelProject, angularProject));
+        task.getCliCacheMaxSize().set(providers.gradleProperty(CliCache.MAX_SIZE_PROPERTY).map(Integer::valueOf));
+        task.getCliCacheSeed().fileProvider(providers.gradleProperty(CliCache.SEED_PROPERTY)
+                .map(seed -> new File(topLevelProject.file(seed), angularProject)));
+    }
+
+    /**
+     * Managed angular CLI cache location is written into angular.json
+     * once the project is evaluated, so the update is part of descriptor
+     * transaction of the build. The location is relative to workspace
+     * and does not depend on configured cache directory.
+     */
+    private void configureCliCachePath(SourceSet sourceSet, Project project) {
+        if (!isCliCacheEnabled(project)) {
+            return;
+        }
+
+        project.afterEvaluate(p -> {
+            AngularJson angularJson = AngularExtension.get(p).getAngularJson();
+            Optional<AngularJsonProject> angularProject =
+                    ProjectUtil.isTopLevelAngularProject(p) && SourceSet.SOURCE_SET_MAIN.equals(sourceSet.getName())
+                            ? angularJson.getDefaultProject()
+                            : angularJson.getProject(getAngularProject(p, sourceSet));
+            angularProject.ifPresent(a -> a.setCachePath(
+                    getCliCacheCurrentDirectory(ProjectUtil.getTopLevelProject(p), a.getName()).toPath()));
         });
     }
 
+    private static boolean isCliCacheEnabled(Project project) {
+        return project.getProviders().gradleProperty(CliCache.ENABLED_PROPERTY).map(Boolean::valueOf).getOrElse(false);
+    }
+
+    private static File getCliCacheCurrentDirectory(Project topLevelProject, String angularProject) {
+        return new File(topLevelProject.getProjectDir(), CliCache.CURRENT_DIRECTORY + "/" + angularProject);
+    }
+
+    /**
+     * Compilation of angular project depends on compilation of workspace
+     * libraries it uses, their outputs are inputs of the compilation.
+     * Compilation also runs after the libraries are published to
+     * node_modules, if the publication is part of the build.
+     */
+    private void configureWorkspaceDependencies(Task task, String angularProject, Project topLevelProject) {
+        AngularExtension angular = AngularExtension.get(task.getProject());
+        WorkspaceGraph graph = DescriptorCacheService.register(topLevelProject).get()
+                .getWorkspaceGraph(angular.getAngularJson().getFile());
+
+        for (String library : graph.getDependencies(angularProject)) {
+            Provider<List<TaskProvider<Task>>> compile = task.getProject()
+                    .provider(() -> getAngularProjectTask(topLevelProject, library, SourceSet::getCompileTaskName));
+            task.dependsOn(compile);
+            if (task instanceof AngularCompile) {
+                ((AngularCompile) task).getWorkspaceLibraries().from(compile);
+            }
+            task.mustRunAfter(task.getProject().provider(() -> getAngularProjectTask(topLevelProject, library, SourceSet::getPublishToNodeModulesTaskName)));
+        }
+    }
+
+    /**
+     * Finds source set task of angular project. The project is either
+     * built by child project of the same name, or by source set of the
+     * top level project.
+     */
+    private List<TaskProvider<Task>> getAngularProjectTask(Project topLevelProject, String angularProject, Function<SourceSet, String> taskName) {
+        Project owner = topLevelProject.getChildProjects().getOrDefault(angularProject, topLevelProject);
+        AngularExtension angular = owner.getExtensions().findByType(AngularExtension.class);
+        if (angular == null || angular.getAngularJson() == null) {
+            return List.of();
+        }
+
+        String sourceSetName = owner != topLevelProject || angular.getAngularJson().getProject(angularProject)
+                .filter(AngularJsonProject::isDefault).isPresent() ? SourceSet.SOURCE_SET_MAIN : angularProject;
+        return Optional.ofNullable(angular.getSources().findByName(sourceSetName))
+                .map(taskName)
+                .filter(name -> owner.getTasks().getNames().contains(name))
+                .map(name -> List.of(owner.getTasks().named(name)))
+                .orElse(List.of());
+    }
+
     private String getAngularProject(Project project, SourceSet sourceSet) {
 		if (ProjectUtil.isTopLevelAngularProject(project)) {
 			if (SourceSet.SOURCE_SET_MAIN.equals(sourceSet.getName())) {
@@ -210,7 +400,7 @@ public class AngularPlugin implements Plugin<Project> {
 		}
 	}
 
-    private void configureOutputDirectoryForSourceSet(final SourceSet sourceSet, final Provider<PackagerTask> compileTask, final Project project) {
+    private void configureOutputDirectoryForSourceSet(final SourceSet sourceSet, final Provider<AngularCompile> compileTask, final Project project) {
         AngularExtension angular = AngularExtension.get(project);
         sourceSet.getDirectory().setOutputDir(project.provider(sourceSet.getOutput()::getResourcesDir));
         angular.getAngularJson().getProject(getAngularProject(project, sourceSet))
@@ -234,9 +424,9 @@ public class AngularPlugin implements Plugin<Project> {
     private void configureNodeTasks(Project project) {
         if (!ProjectUtil.isTopLevelAngularProject(project)) {
             project.afterEvaluate(p -> {
-                p.getTasks().withType(NodeSetupTask.class).all(t -> t.setEnabled(false));
-                p.getTasks().withType(PackagerSetupTask.class).all(t -> t.setEnabled(false));
-                p.getTasks().withType(NodeInstallTask.class).all(t -> t.setEnabled(false));
+                p.getTasks().withType(NodeSetupTask.class).configureEach(t -> t.setEnabled(false));
+                p.getTasks().withType(PackagerSetupTask.class).configureEach(t -> t.setEnabled(false));
+                p.getTasks().withType(NodeInstallTask.class).configureEach(t -> t.setEnabled(false));
             });
         }
     }
@@ -253,19 +443,31 @@ public class AngularPlugin implements Plugin<Project> {
         configureAttributes(libraryConfiguration);
     }
 
+    private void registerTransforms(Project project) {
+        project.getDependencies().registerTransform(UnzipNodeLibrary.class, spec -> {
+            spec.getFrom().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactTypeDefinition.ZIP_TYPE);
+            spec.getTo().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactTypeDefinition.DIRECTORY_TYPE);
+        });
+    }
+
     private void configureDistributions(Project project, AngularExtension angular, SourceSet mainSourceSet) {
         final DistributionContainer distributions = project.getExtensions().getByType(DistributionContainer.class);
 
         angular.getSources().all(sourceSet -> {
-            Distribution dist = distributions.maybeCreate(sourceSet.getBaseName());
-            dist.contents(s -> {
+            Action<Distribution> contents = dist -> dist.contents(s -> {
                 s.into("/");
                 s.from(sourceSet.getOutput().getClassesDirs());
             });
-            Zip sourceDistTask = project.getTasks().maybeCreate(sourceSet.getDistributionTaskName(), Zip.class);
-            sourceDistTask.dependsOn(sourceSet.getCompileTaskName());
+            if (distributions.getNames().contains(sourceSet.getBaseName())) {
+                distributions.named(sourceSet.getBaseName(), contents);
+            } else {
+                distributions.register(sourceSet.getBaseName(), contents);
+            }
+
+            String zipTaskName = sourceSet.getDistributionTaskName();
+            project.getTasks().named(zipTaskName, Zip.class, t -> t.dependsOn(sourceSet.getCompileTaskName()));
 
-            String tarTaskName = sourceDistTask.getName().substring(0, sourceDistTask.getName().length() - 3) + "Tar";
+            String tarTaskName = zipTaskName.substring(0, zipTaskName.length() - 3) + "Tar";
             project.getTasks().named(tarTaskName, t -> t.setEnabled(false));
         });
 
@@ -278,57 +480,61 @@ public class AngularPlugin implements Plugin<Project> {
     }
 
     private void configurePublishToNodeModulesTask(SourceSet sourceSet, Project project) {
-        project.getTasks().register(sourceSet.getPublishToNodeModulesTaskName(), Copy.class, task -> {
-            task.from(sourceSet.getOutput().getClassesDirs());
-            task.into(ProjectUtil.getNodeModulesTarget(project, project.getGroup().toString(), getAngularProject(project, sourceSet)));
-            task.setDuplicatesStrategy(DuplicatesStrategy.EXCLUDE);
+        project.getTasks().register(sourceSet.getPublishToNodeModulesTaskName(), PublishToNodeModules.class, task -> {
+            task.getLibrary().from(sourceSet.getOutput().getClassesDirs());
+            task.getDestination().set(ProjectUtil.getNodeModulesTarget(project, project.getGroup().toString(), getAngularProject(project, sourceSet)).toFile());
+            task.getMode().set(AngularExtension.get(project).getPublishMode());
             task.setGroup("publishing");
             task.setDescription("Publishes build of '" + sourceSet.getName() + "' into " + ProjectUtil.getNodeModules(project));
             task.dependsOn(sourceSet.getCompileTaskName());
-            task.doFirst(new Action<Task>() {
-                @Override
-                public void execute(Task task) {
-                    File library = task.getOutputs().getFiles().getSingleFile();
-                    File artifact = sourceSet.getOutput().getClassesDirs().getSingleFile();
-
-                    if (AngularJsonHelper.getInstance().artifactUpdated(library, artifact)) {
-                        task.getProject().delete(task.getOutputs());
-                    }
-                }
-            });
         });
     }
 
-    private void resolveNodeDependencies(SourceSet sourceSet, Task compileTask) {
-        ConfigurationContainer configurations = compileTask.getProject().getConfigurations();
-        Configuration compileConfiguration = configurations.getByName(sourceSet.getCompileConfigurationName());
-
-        compileTask.getInputs().files(compileConfiguration);
-        compileTask.doFirst(new Action<Task>() {
-            @Override
-            public void execute(Task task) {
-                Project project = task.getProject();
-                AngularExtension extension = AngularExtension.get(project);
-                ResolvedConfiguration resolvedConfiguration = compileConfiguration.getResolvedConfiguration();
-
-                for (ResolvedArtifact artifact : resolvedConfiguration.getResolvedArtifacts()) {
-                    File nodeArtifact = ProjectUtil.getNodeModulesTarget(
-                            project,
-                            artifact.getModuleVersion().getId().getGroup(),
-                            artifact.getName()).toFile();
-
-                    if (AngularJsonHelper.getInstance().artifactUpdated(project, artifact)) {
-                        project.delete(nodeArtifact);
-                        project.copy(spec -> {
-                            spec.from(project.zipTree(artifact.getFile()));
-                            spec.into(nodeArtifact);
-                        });
-                    }
-                }
-            }
+    /**
+     * Registers task building angular projects affected by changed files
+     * only, together with projects depending on them.
+     */
+    private void configureAffectedTask(Project project, AngularExtension angular) {
+        if (!ProjectUtil.isTopLevelAngularProject(project)) {
+            return;
+        }
+
+        File workspace = angular.getAngularJson().getFile().getAbsoluteFile().getParentFile();
+        ProviderFactory providers = project.getProviders();
+        Provider<List<String>> changedFiles = providers.gradleProperty(AffectedProjects.FILES_PROPERTY)
+                .map(files -> List.of(files.split(",")))
+                .orElse(providers.of(GitChangedFiles.class, spec -> {
+                    spec.getParameters().getBase().set(providers.gradleProperty(AffectedProjects.BASE_PROPERTY)
+                            .orElse(AffectedProjects.DEFAULT_BASE));
+                    spec.getParameters().getWorkingDir().set(workspace);
+                }));
+
+        project.getTasks().register(BUILD_AFFECTED_TASK, task -> {
+            task.setGroup("build");
+            task.setDescription("Compiles and assembles angular projects affected by changed files");
+            task.dependsOn(changedFiles.map(files -> getAffectedTasks(project, angular, files)));
         });
     }
 
+    private List<TaskProvider<Task>> getAffectedTasks(Project project, AngularExtension angular, List<String> changedFiles) {
+        File angularJson = angular.getAngularJson().getFile();
+        WorkspaceGraph graph = DescriptorCacheService.register(project).get().getWorkspaceGraph(angularJson);
+        Set<String> affected = new AffectedProjects(angularJson.getAbsoluteFile().getParentFile().toPath(),
+                angular.getAngularJson().getProjects().values(), graph).getAffected(changedFiles);
+        project.getLogger().lifecycle("Affected angular projects: {}", affected.isEmpty() ? "none" : String.join(", ", affected));
+
+        List<TaskProvider<Task>> tasks = new ArrayList<>();
+        for (String angularProject : affected) {
+            tasks.addAll(getAngularProjectTask(project, angularProject, SourceSet::getCompileTaskName));
+            tasks.addAll(getAngularProjectTask(project, angularProject, SourceSet::getDistributionTaskName));
+            Project child = project.getChildProjects().get(angularProject);
+            if (child != null && child.getTasks().getNames().contains(LifecycleBasePlugin.CHECK_TASK_NAME)) {
+                tasks.add(child.getTasks().named(LifecycleBasePlugin.CHECK_TASK_NAME));
+            }
+        }
+        return tasks;
+    }
+
     private void addZip(Configuration configuration, PublishArtifact zipArchive) {
         ConfigurationPublications publications = configuration.getOutgoing();
         publications.getArtifacts().add(zipArchive);
@@ -29,6 +29,7 @@ import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
 
 import javax.annotation.Nullable;
 import java.nio.file.Path;
@@ -60,6 +61,7 @@ public class AngularExtension {
     private String version;
     private String group;
     private String output;
+    private final Property<PublishMode> publishMode;
     private final AngularJson angularJson;
     private final NodeExtension nodeExtension;
     private final SourceSetContainer sources;
@@ -69,6 +71,8 @@ public class AngularExtension {
         this.nodeExtension = nodeExtension;
         this.angularJson = angularJson;
         this.sources = objectFactory.newInstance(AngularSourceSetContainer.class);
+        this.publishMode = objectFactory.property(PublishMode.class);
+        this.publishMode.convention(PublishMode.COPY);
     }
 
     /**
@@ -127,6 +131,35 @@ public class AngularExtension {
         this.output = output;
     }
 
+    /**
+     * Get mode of publishing libraries into node_modules, {@code copy}
+     * by default
+     *
+     * @return publishMode
+     */
+    public Property<PublishMode> getPublishMode() {
+        return publishMode;
+    }
+
+    /**
+     * Set value for property publishMode
+     *
+     * @param publishMode Set value of publishMode
+     */
+    public void setPublishMode(PublishMode publishMode) {
+        this.publishMode.set(publishMode);
+    }
+
+    /**
+     * Set value for property publishMode by its name, either
+     * {@code copy} or {@code link}
+     *
+     * @param publishMode Set name of publishMode
+     */
+    public void setPublishMode(String publishMode) {
+        this.publishMode.set(PublishMode.from(publishMode));
+    }
+
     /**
      * Get value of angularJson
      *
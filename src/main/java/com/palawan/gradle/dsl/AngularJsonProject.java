@@ -100,6 +100,16 @@ public interface AngularJsonProject {
      */
     void setOutputPath(Path outputPath);
 
+    /**
+     * Change angular CLI persistent cache location of this project.
+     * The location is defined by project level {@code cli.cache}
+     * options, which override workspace options. Only the path relative
+     * to workspace is written, {@code enabled} and {@code environment}
+     * options are left to the user.
+     * @param cachePath New cache location
+     */
+    void setCachePath(Path cachePath);
+
     /**
      * Is the project default project in angular.json?
      * @return Returns {@code true} if project is default.
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.dsl;
+
+import org.gradle.api.GradleException;
+
+/**
+ * Mode of publishing libraries into node_modules directory.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public enum PublishMode {
+    /** Library is copied into node_modules */
+    COPY,
+    /** Library is linked into node_modules */
+    LINK;
+
+    /**
+     * Gets publishing mode of given name
+     * @param name  Mode name, case insensitive
+     * @return  Publishing mode
+     * @throws GradleException  If there is no such mode
+     */
+    public static PublishMode from(String name) {
+        for (PublishMode mode : values()) {
+            if (mode.toString().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new GradleException("Unknown publishing mode '" + name + "', use '" + COPY + "' or '" + LINK + "'.");
+    }
+
+    @Override
+    public String toString() {
+        return super.toString().toLowerCase();
+    }
+}
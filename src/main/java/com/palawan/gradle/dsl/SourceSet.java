@@ -87,6 +87,19 @@ public interface SourceSet {
      */
     String getCompileTaskName();
 
+    /**
+     * Get task name continuously compiling this source set in watch mode
+     * @return Watch task name for this source set.
+     */
+    String getWatchTaskName();
+
+    /**
+     * Get task name extracting node libraries this source set depends on
+     * into node_modules
+     * @return Extract task name for this source set.
+     */
+    String getExtractTaskName();
+
     /**
      * Get archive task name to pack this source set output
      * @return Distribution task name
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.dsl.AngularJsonProject;
+import com.palawan.gradle.util.AngularJsonHelper;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves angular projects affected by changed files. File affects
+ * project, when it is located within project root, source root or any
+ * file referenced by project block of angular.json. Projects depending
+ * on affected libraries are affected too. Changes of workspace
+ * descriptors, such as angular.json, package.json, lock files or
+ * workspace tsconfig, affect all projects.
+ *
+ * <p>Changed files are listed by gradle property {@value #FILES_PROPERTY},
+ * or by git against reference defined by {@value #BASE_PROPERTY}.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class AffectedProjects {
+
+    /** Gradle property defining git reference changes are compared with */
+    public static final String BASE_PROPERTY = "angular.affected.base";
+    /** Gradle property defining comma separated list of changed files */
+    public static final String FILES_PROPERTY = "angular.affected.files";
+    /** Default git reference, uncommitted changes are considered only */
+    public static final String DEFAULT_BASE = "HEAD";
+
+    /** Workspace files affecting all projects */
+    static final List<String> WORKSPACE_FILES = List.of(
+            AngularJsonHelper.ANGULAR_JSON_FILE_NAME,
+            AngularJsonHelper.NODE_LIBRARY_DESCRIPTOR,
+            "tsconfig.json");
+
+    private final Path workspace;
+    private final Collection<AngularJsonProject> projects;
+    private final WorkspaceGraph graph;
+
+    /**
+     * @param workspace Angular workspace directory
+     * @param projects  Projects of the workspace
+     * @param graph     Dependency graph of the workspace
+     */
+    public AffectedProjects(Path workspace, Collection<AngularJsonProject> projects, WorkspaceGraph graph) {
+        this.workspace = workspace.toAbsolutePath().normalize();
+        this.projects = projects;
+        this.graph = graph;
+    }
+
+    /**
+     * Gets projects affected by given files
+     * @param changedFiles  Changed file paths relative to workspace
+     * @return  Names of affected projects including projects depending
+     *          on them
+     */
+    public Set<String> getAffected(Collection<String> changedFiles) {
+        List<Path> files = changedFiles.stream()
+                .map(String::trim)
+                .filter(f -> !f.isEmpty())
+                .map(f -> workspace.resolve(f).normalize())
+                .collect(Collectors.toList());
+
+        if (files.stream().anyMatch(this::isWorkspaceFile)) {
+            return projects.stream().map(AngularJsonProject::getName).collect(Collectors.toCollection(TreeSet::new));
+        }
+
+        Deque<String> changed = new ArrayDeque<>();
+        for (AngularJsonProject project : projects) {
+            Set<Path> locations = getLocations(project);
+            if (files.stream().anyMatch(f -> locations.stream().anyMatch(f::startsWith))) {
+                changed.add(project.getName());
+            }
+        }
+
+        Set<String> affected = new TreeSet<>();
+        while (!changed.isEmpty()) {
+            String project = changed.poll();
+            if (affected.add(project)) {
+                changed.addAll(graph.getDependents(project));
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Project locations, workspace directory itself is excluded as
+     * projects located in workspace root would cover all files.
+     */
+    private Set<Path> getLocations(AngularJsonProject project) {
+        return project.getProjectFiles()
+                .map(p -> workspace.resolve(p).normalize())
+                .filter(p -> !p.equals(workspace))
+                .collect(Collectors.toSet());
+    }
+
+    private boolean isWorkspaceFile(Path file) {
+        if (!workspace.equals(file.getParent())) {
+            return false;
+        }
+        String name = file.getFileName().toString();
+        return WORKSPACE_FILES.contains(name)
+                || NodeModulesFingerprint.LOCK_FILES.contains(name)
+                || CompileInputs.BROWSERS_LISTS.contains(name);
+    }
+
+}
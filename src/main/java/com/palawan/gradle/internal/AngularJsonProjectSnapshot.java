@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.dsl.AngularJsonProject;
+import com.palawan.gradle.dsl.NgPackage;
+import com.palawan.gradle.util.AngularJsonHelper;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of {@link AngularJsonProject} including version
+ * from its package.json and library ng-package.json descriptor.
+ *
+ * <p>Library descriptor missing at the time of snapshot is read on
+ * demand again, so that the failure is reported once it is used.</p>
+ *
+ * <p>Changes are not reflected by the snapshot, they are written into
+ * descriptor files, which are read again for this purpose. Each change
+ * is recorded by {@link DescriptorTransaction} of the build, so change
+ * to already defined or already written value is ignored without
+ * reading any file.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class AngularJsonProjectSnapshot implements AngularJsonProject, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates snapshot of given angular project
+     * @param angularJsonFile   Angular descriptor file of the project
+     * @param project           Parsed angular project
+     * @param transaction       Transaction recording changes of the build
+     * @return  Project snapshot
+     */
+    static AngularJsonProjectSnapshot of(File angularJsonFile, JacksonAngularJsonProject project,
+                                         DescriptorTransaction transaction) {
+        return new AngularJsonProjectSnapshot(
+                transaction,
+                angularJsonFile,
+                project.getName(),
+                project.getProjectType(),
+                project.getRoot().toFile(),
+                project.getSourceRoot().toFile(),
+                project.getNgPackagePath().orElse(null),
+                project.getNgPackagePath().filter(File::exists)
+                        .map(AngularJsonHelper.getInstance()::getNgPackageJson)
+                        .map(NgPackageSnapshot::of).orElse(null),
+                project.getOutputPath().map(Path::toFile).orElse(null),
+                project.getCachePath().map(Path::toFile).orElse(null),
+                project.isDefault(),
+                project.getVersion(),
+                project.getProjectFiles().map(Path::toFile).collect(Collectors.toList())
+        );
+    }
+
+    private final transient DescriptorTransaction transaction;
+    private final File angularJsonFile;
+    private final String name;
+    private final Type projectType;
+    private final File root;
+    private final File sourceRoot;
+    @Nullable
+    private final File ngPackageFile;
+    @Nullable
+    private final NgPackageSnapshot ngPackage;
+    @Nullable
+    private final File outputPath;
+    @Nullable
+    private final File cachePath;
+    private final boolean isDefault;
+    private final String version;
+    private final List<File> projectFiles;
+
+    private AngularJsonProjectSnapshot(DescriptorTransaction transaction, File angularJsonFile, String name, Type projectType, File root,
+                                       File sourceRoot, @Nullable File ngPackageFile,
+                                       @Nullable NgPackageSnapshot ngPackage,
+                                       @Nullable File outputPath, @Nullable File cachePath,
+                                       boolean isDefault, String version,
+                                       List<File> projectFiles) {
+        this.transaction = transaction;
+        this.angularJsonFile = angularJsonFile;
+        this.name = name;
+        this.projectType = projectType;
+        this.root = root;
+        this.sourceRoot = sourceRoot;
+        this.ngPackageFile = ngPackageFile;
+        this.ngPackage = ngPackage;
+        this.outputPath = outputPath;
+        this.cachePath = cachePath;
+        this.isDefault = isDefault;
+        this.version = version;
+        this.projectFiles = Collections.unmodifiableList(projectFiles);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Type getProjectType() {
+        return projectType;
+    }
+
+    @Override
+    public Path getRoot() {
+        return root.toPath();
+    }
+
+    @Override
+    public void setRoot(Path root) {
+        if (getTransaction().change(angularJsonFile, name + ".root", this.root, root.toFile())) {
+            getProject().ifPresent(p -> p.setRoot(root));
+        }
+    }
+
+    @Override
+    public Path getSourceRoot() {
+        return sourceRoot.toPath();
+    }
+
+    @Override
+    public Optional<NgPackage> getNgPackageFile() {
+        if (ngPackage == null && ngPackageFile != null) {
+            // descriptor did not exist, read it again to get the same result
+            return Optional.of(AngularJsonHelper.getInstance().getNgPackageJson(ngPackageFile));
+        }
+        return Optional.ofNullable(ngPackage);
+    }
+
+    @Override
+    public void setOutputPath(Path outputPath) {
+        File path = outputPath.toAbsolutePath().normalize().toFile();
+        if (getTransaction().change(angularJsonFile, name + ".outputPath", this.outputPath, path)) {
+            getProject().ifPresent(p -> p.setOutputPath(outputPath));
+        }
+    }
+
+    @Override
+    public void setCachePath(Path cachePath) {
+        File path = cachePath.toAbsolutePath().normalize().toFile();
+        if (getTransaction().change(angularJsonFile, name + ".cachePath", this.cachePath, path)) {
+            getProject().ifPresent(p -> p.setCachePath(cachePath));
+        }
+    }
+
+    @Override
+    public boolean isDefault() {
+        return isDefault;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(String version) {
+        if (getTransaction().change(angularJsonFile, name + ".version", this.version, version)) {
+            getProject().ifPresent(p -> p.setVersion(version));
+        }
+    }
+
+    @Override
+    public Stream<Path> getProjectFiles() {
+        return projectFiles.stream().map(File::toPath);
+    }
+
+    /**
+     * Reads the project from angular descriptor to apply changes
+     * @return  Parsed project if still defined
+     */
+    private Optional<AngularJsonProject> getProject() {
+        return new JacksonAngularJson(angularJsonFile, DescriptorCache.getInstance().read(angularJsonFile.toPath()),
+                getTransaction()).getProject(name);
+    }
+
+    /**
+     * Gets transaction of the build, deserialized snapshot writes its
+     * changes immediately
+     */
+    private DescriptorTransaction getTransaction() {
+        return transaction != null ? transaction : DescriptorTransaction.immediate();
+    }
+
+}
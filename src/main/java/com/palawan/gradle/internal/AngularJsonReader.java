@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Streaming reader of angular.json file. The reader keeps only fields
+ * used by the plugin, which are {@code defaultProject} and for every
+ * project its {@code root}, {@code sourceRoot}, {@code projectType},
+ * {@code cli.cache} options, architect target options and production file replacements. All
+ * other subtrees are skipped by the parser without creating any node.
+ *
+ * <p>The same way the reader keeps fields referencing other workspace
+ * projects from package.json, ng-package.json and tsconfig files, see
+ * {@link #readReferences(byte[])}.</p>
+ *
+ * <p>Resulting object has the same structure as original file, just
+ * without unused fields. Updates of such object must be merged into
+ * the complete file, see {@link #merge(ObjectNode, ObjectNode)}.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class AngularJsonReader {
+
+    /** Fields read for each angular project */
+    private static final Selection PROJECT = Selection.of(
+            "root", Selection.ALL,
+            "sourceRoot", Selection.ALL,
+            "projectType", Selection.ALL,
+            "cli", Selection.of("cache", Selection.ALL),
+            "architect", Selection.of(
+                    "build", Selection.of(
+                            "options", Selection.ALL,
+                            "configurations", Selection.of(
+                                    "production", Selection.of("fileReplacements", Selection.ALL))),
+                    "test", Selection.of("options", Selection.ALL),
+                    "lint", Selection.of("options", Selection.ALL),
+                    "e2e", Selection.of("options", Selection.ALL)));
+
+    /** Fields read from angular.json root */
+    private static final Selection WORKSPACE = Selection.of(
+            "defaultProject", Selection.ALL,
+            "projects", Selection.any(PROJECT));
+
+    /** Fields of workspace descriptors referencing other projects */
+    private static final Selection REFERENCES = Selection.of(
+            "name", Selection.ALL,
+            "dependencies", Selection.ALL,
+            "peerDependencies", Selection.ALL,
+            "devDependencies", Selection.ALL,
+            "allowedNonPeerDependencies", Selection.ALL,
+            "extends", Selection.ALL,
+            "compilerOptions", Selection.of("paths", Selection.ALL));
+
+    private final ObjectMapper mapper;
+
+    public AngularJsonReader(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Reads fields used by the plugin from angular.json content.
+     * @param content   Content of angular.json file
+     * @return  Object with selected fields only
+     * @throws IOException  If content is not valid json object
+     */
+    public ObjectNode read(byte[] content) throws IOException {
+        return read(content, WORKSPACE);
+    }
+
+    /**
+     * Reads complete block of single angular project from angular.json
+     * content. Blocks of other projects are skipped by the parser.
+     * @param content   Content of angular.json file
+     * @param project   Name of angular project
+     * @return  Project block, empty if project is not defined
+     * @throws IOException  If content is not valid json object
+     */
+    public Optional<ObjectNode> readProject(byte[] content, String project) throws IOException {
+        return Optional.ofNullable(read(content, Selection.of("projects", Selection.of(project, Selection.ALL))).get("projects"))
+                .map(projects -> projects.get(project))
+                .filter(ObjectNode.class::isInstance)
+                .map(ObjectNode.class::cast);
+    }
+
+    /**
+     * Reads fields referencing other workspace projects, i.e. package
+     * name and dependencies, ng-package.json allowed dependencies and
+     * tsconfig {@code extends} and {@code paths} mappings.
+     * @param content   Content of package.json, ng-package.json or tsconfig
+     * @return  Object with selected fields only
+     * @throws IOException  If content is not valid json object
+     */
+    public ObjectNode readReferences(byte[] content) throws IOException {
+        return read(content, REFERENCES);
+    }
+
+    /**
+     * Merges partially read object into complete json object. Fields
+     * of given {@code source} replace fields of {@code target} if
+     * they differ, while fields missing in source are kept untouched.
+     * @param target    Complete json object to be updated
+     * @param source    Partial json object
+     * @return  Returns {@code true} if target object has changed
+     */
+    public static boolean merge(ObjectNode target, ObjectNode source) {
+        boolean changed = false;
+        Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode current = target.get(field.getKey());
+
+            if (current instanceof ObjectNode && field.getValue() instanceof ObjectNode) {
+                changed |= merge((ObjectNode) current, (ObjectNode) field.getValue());
+            } else if (!field.getValue().equals(current)) {
+                target.set(field.getKey(), field.getValue().deepCopy());
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    private ObjectNode read(byte[] content, Selection selection) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Descriptor is not json object");
+            }
+            return readObject(parser, selection);
+        }
+    }
+
+    private ObjectNode readObject(JsonParser parser, Selection selection) throws IOException {
+        ObjectNode node = mapper.createObjectNode();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            Selection field = selection.get(name);
+
+            if (field == null) {
+                parser.skipChildren();
+            } else if (field == Selection.ALL || token != JsonToken.START_OBJECT) {
+                JsonNode value = mapper.readTree(parser);
+                node.set(name, value == null ? NullNode.getInstance() : value);
+            } else {
+                node.set(name, readObject(parser, field));
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Definition of fields to be read from json object.
+     */
+    private static final class Selection {
+
+        /** Selects complete value */
+        private static final Selection ALL = new Selection(Collections.emptyMap(), null);
+
+        private final Map<String, Selection> fields;
+        private final Selection any;
+
+        private Selection(Map<String, Selection> fields, @Nullable Selection any) {
+            this.fields = fields;
+            this.any = any;
+        }
+
+        /**
+         * Selects given fields, where each field name is followed by its
+         * own selection.
+         */
+        private static Selection of(Object... fieldSelections) {
+            Map<String, Selection> fields = new HashMap<>();
+            for (int i = 0; i < fieldSelections.length; i += 2) {
+                fields.put((String) fieldSelections[i], (Selection) fieldSelections[i + 1]);
+            }
+            return new Selection(fields, null);
+        }
+
+        /**
+         * Selects every field using the same selection
+         */
+        private static Selection any(Selection selection) {
+            return new Selection(Collections.emptyMap(), selection);
+        }
+
+        @Nullable
+        private Selection get(String name) {
+            return any != null ? any : fields.get(name);
+        }
+    }
+
+}
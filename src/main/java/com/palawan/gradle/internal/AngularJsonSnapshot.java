@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.dsl.AngularJson;
+import com.palawan.gradle.dsl.AngularJsonProject;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable snapshot of {@link AngularJson} descriptor. Unlike the parsed
+ * descriptor, the snapshot does not retain any json tree and it is
+ * serializable. Projects are indexed by their name.
+ *
+ * <p>Snapshot is not updated by any change, changes made through
+ * its projects are written into descriptor files and recorded by
+ * {@link DescriptorTransaction} of the build.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class AngularJsonSnapshot implements AngularJson, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates snapshot of given angular descriptor and all of its projects
+     * @param angularJson   Parsed angular descriptor
+     * @return  Descriptor snapshot
+     */
+    public static AngularJsonSnapshot of(JacksonAngularJson angularJson) {
+        Map<String, AngularJsonProjectSnapshot> projects = new LinkedHashMap<>();
+        String defaultProject = null;
+        for (AngularJsonProject project : angularJson.getProjects().values()) {
+            projects.put(project.getName(), AngularJsonProjectSnapshot.of(
+                    angularJson.getFile(), (JacksonAngularJsonProject) project, angularJson.getTransaction()));
+            if (project.isDefault()) {
+                defaultProject = project.getName();
+            }
+        }
+        return new AngularJsonSnapshot(angularJson.getFile(), defaultProject, projects);
+    }
+
+    private final File file;
+    private final String defaultProject;
+    private final Map<String, AngularJsonProject> projects;
+
+    private AngularJsonSnapshot(File file, String defaultProject, Map<String, AngularJsonProjectSnapshot> projects) {
+        this.file = file;
+        this.defaultProject = defaultProject;
+        this.projects = Collections.unmodifiableMap(new LinkedHashMap<>(projects));
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public Optional<AngularJsonProject> getDefaultProject() {
+        return Optional.ofNullable(defaultProject).map(projects::get);
+    }
+
+    @Override
+    public Optional<AngularJsonProject> getProject(String name) {
+        return Optional.ofNullable(projects.get(name));
+    }
+
+    @Override
+    public Map<String, AngularJsonProject> getProjects() {
+        return projects;
+    }
+
+    /**
+     * Snapshot does not hold any change, therefore there is nothing
+     * to be written.
+     */
+    @Override
+    public void update() {
+        // nothing to update
+    }
+
+}
@@ -42,6 +42,12 @@ public class AngularProjectSourceSet implements SourceSet {
     private static final String LANG = "angular";
     /** Compile task name base */
     private static final String COMPILE_TASK_BASE = "compile";
+    /** Watch task name base */
+    private static final String WATCH_TASK_BASE = "watch";
+    /** Extract task name base */
+    private static final String EXTRACT_TASK_BASE = "extract";
+    /** Extract task suffix */
+    private static final String NODE_LIBRARIES = "NodeLibraries";
     /** Distribution task suffix */
     private static final String DISTRIBUTION_SUFFIX = "distZip";
     /** Configuration base name */
@@ -95,6 +101,16 @@ public class AngularProjectSourceSet implements SourceSet {
         return getTaskName(COMPILE_TASK_BASE, LANG);
     }
 
+    @Override
+    public String getWatchTaskName() {
+        return getTaskName(WATCH_TASK_BASE, LANG);
+    }
+
+    @Override
+    public String getExtractTaskName() {
+        return getTaskName(EXTRACT_TASK_BASE, NODE_LIBRARIES);
+    }
+
     @Override
     public String getDistributionTaskName() {
         return getTaskName("", DISTRIBUTION_SUFFIX);
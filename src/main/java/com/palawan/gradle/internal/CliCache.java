@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import org.gradle.api.GradleException;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Angular CLI persistent cache of single angular project. Angular CLI
+ * always uses current directory, which holds cache of the current key
+ * derived from lock files and angular version. When the key changes,
+ * current cache is stored under its key and the cache of the new key
+ * is restored, either from previously stored cache, or from seed
+ * directory of the same layout. Current directory is usually located
+ * within {@code .angular/cache} of the workspace, while stored caches
+ * are kept in Gradle user home by default, so neither is discarded by
+ * {@code clean}. Caches are copied if those are on different file
+ * stores. Stored caches are deleted in least recently used order, once
+ * all caches of the project exceed size limit.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class CliCache implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Gradle property enabling managed angular CLI cache */
+    public static final String ENABLED_PROPERTY = "angular.cliCache";
+    /** Gradle property defining location of stored caches, defaults to Gradle user home */
+    public static final String DIRECTORY_PROPERTY = "angular.cliCache.dir";
+    /** Gradle property defining size limit of cache of single project in MB */
+    public static final String MAX_SIZE_PROPERTY = "angular.cliCache.maxSize";
+    /** Gradle property defining seed directory caches are restored from */
+    public static final String SEED_PROPERTY = "angular.cliCache.seed";
+
+    /** Default size limit of single project in MB */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    /** Default location of stored caches within Gradle user home */
+    public static final String DEFAULT_DIRECTORY = "caches/angular-cli";
+    /** Location of current caches within workspace, ignored by git in angular CLI workspaces */
+    public static final String CURRENT_DIRECTORY = ".angular/cache/gradle";
+
+    /** Cache directory used by angular CLI, also name of current cache within seed directory */
+    public static final String CURRENT = "current";
+    /** File holding key of the current cache */
+    static final String KEY_FILE = "cache.key";
+
+    private static final long MB = 1024 * 1024;
+
+    private final File directory;
+    private final File current;
+    private final String key;
+    private final long maxSize;
+    @Nullable
+    private final File seed;
+
+    /**
+     * @param directory Cache directory of angular project, holding also
+     *                  the current cache
+     * @param key       Current cache key
+     * @param maxSize   Size limit of all caches of the project in MB
+     * @param seed      Seed directory of angular project, {@code null}
+     *                  if there is none
+     */
+    public CliCache(File directory, String key, long maxSize, @Nullable File seed) {
+        this(directory, new File(directory, CURRENT), key, maxSize, seed);
+    }
+
+    /**
+     * @param directory Cache directory of angular project holding stored
+     *                  caches
+     * @param current   Directory used by angular CLI
+     * @param key       Current cache key
+     * @param maxSize   Size limit of all caches of the project in MB
+     * @param seed      Seed directory of angular project, {@code null}
+     *                  if there is none
+     */
+    public CliCache(File directory, File current, String key, long maxSize, @Nullable File seed) {
+        this.directory = directory;
+        this.current = current;
+        this.key = key;
+        this.maxSize = maxSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Computes cache key
+     * @param lockFileDigest    Digest of workspace lock files
+     * @param angularVersion    Angular CLI version
+     * @return  Cache key
+     */
+    public static String key(String lockFileDigest, String angularVersion) {
+        return digest(lockFileDigest + "\n" + angularVersion);
+    }
+
+    /**
+     * Computes key of the workspace, which separates stored caches of
+     * different workspaces sharing the default cache location
+     * @param workspace Workspace directory
+     * @return  Workspace key
+     */
+    public static String workspaceKey(File workspace) {
+        return digest(workspace.getAbsolutePath());
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                builder.append(String.format("%02x", hash[i]));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new GradleException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Gets directory used by angular CLI
+     * @return  Current cache directory
+     */
+    public File getCurrentDirectory() {
+        return current;
+    }
+
+    /**
+     * Prepares current cache directory for the current key
+     */
+    public void restore() {
+        Path current = getCurrentDirectory().toPath();
+        try {
+            Optional<String> currentKey = readKey(current);
+            if (currentKey.filter(key::equals).isPresent()) {
+                touch(current);
+                return;
+            }
+
+            if (currentKey.isPresent()) {
+                Path stored = directory.toPath().resolve(currentKey.get());
+                delete(stored);
+                Files.createDirectories(directory.toPath());
+                move(current, stored);
+            } else {
+                delete(current);
+            }
+
+            Path cached = directory.toPath().resolve(key);
+            if (Files.isDirectory(cached)) {
+                Files.createDirectories(current.getParent());
+                move(cached, current);
+            } else if (seed != null) {
+                Optional<Path> seeded = findSeed(seed.toPath());
+                if (seeded.isPresent()) {
+                    copy(seeded.get(), current);
+                }
+            }
+
+            Files.createDirectories(current);
+            Files.writeString(current.resolve(KEY_FILE), key);
+            touch(current);
+        } catch (IOException | UncheckedIOException e) {
+            throw new GradleException("Unable to restore angular CLI cache " + current, e);
+        }
+    }
+
+    /**
+     * Deletes least recently used stored caches until all caches of the
+     * project fit into size limit. Current cache is never deleted.
+     */
+    public void trim() {
+        Path current = getCurrentDirectory().toPath();
+        if (!Files.isDirectory(directory.toPath())) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(directory.toPath())) {
+            List<Path> stored = entries.filter(Files::isDirectory)
+                    .filter(p -> !p.equals(current))
+                    .sorted(Comparator.comparing(CliCache::lastModified))
+                    .collect(Collectors.toList());
+
+            long size = size(current);
+            List<Long> sizes = new ArrayList<>();
+            for (Path cache : stored) {
+                long cacheSize = size(cache);
+                sizes.add(cacheSize);
+                size += cacheSize;
+            }
+
+            for (int i = 0; i < stored.size() && size > maxSize * MB; i++) {
+                delete(stored.get(i));
+                size -= sizes.get(i);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new GradleException("Unable to trim angular CLI cache " + directory, e);
+        }
+    }
+
+    /**
+     * Finds cache of the current key within seed directory, either
+     * stored under the key or as current cache
+     */
+    private Optional<Path> findSeed(Path seedDirectory) throws IOException {
+        Path stored = seedDirectory.resolve(key);
+        if (Files.isDirectory(stored)) {
+            return Optional.of(stored);
+        }
+        Path current = seedDirectory.resolve(CURRENT);
+        return readKey(current).filter(key::equals).map(k -> current);
+    }
+
+    private static Optional<String> readKey(Path cache) throws IOException {
+        Path keyFile = cache.resolve(KEY_FILE);
+        return Files.isRegularFile(keyFile)
+                ? Optional.of(Files.readString(keyFile).trim())
+                : Optional.empty();
+    }
+
+    private static void touch(Path cache) throws IOException {
+        Files.setLastModifiedTime(cache, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    private static FileTime lastModified(Path cache) {
+        try {
+            return Files.getLastModifiedTime(cache);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long size(Path cache) throws IOException {
+        if (!Files.isDirectory(cache)) {
+            return 0;
+        }
+        try (Stream<Path> walk = Files.walk(cache)) {
+            return walk.filter(Files::isRegularFile).mapToLong(f -> f.toFile().length()).sum();
+        }
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Path copy = target.resolve(source.relativize(file).toString());
+            if (Files.isDirectory(file)) {
+                Files.createDirectories(copy);
+            } else {
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Moves cache directory, the cache is copied if target is located
+     * on different file store
+     */
+    private static void move(Path source, Path target) throws IOException {
+        if (Files.getFileStore(source).equals(Files.getFileStore(target.getParent()))) {
+            Files.move(source, target);
+        } else {
+            copy(source, target);
+            delete(source);
+        }
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(path)) {
+            files = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Files.delete(file);
+        }
+    }
+
+}
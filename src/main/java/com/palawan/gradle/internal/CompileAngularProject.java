@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.util.AngularJsonHelper;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.process.ExecOperations;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.File;
+import java.util.OptionalInt;
+
+/**
+ * Work action compiling single angular project. Once the build
+ * finishes the content fingerprint of the output is generated.
+ * Compilations are executed asynchronously, so independent angular
+ * projects of the same Gradle project compile in parallel. Build is
+ * executed either by new NodeJS process, by long-lived
+ * {@link NodeBuildWorkers build worker}, or by worker shared by batch
+ * of workspace builds. Angular CLI not supported by build workers is
+ * executed by new process. Number of builds running in parallel is
+ * limited by {@link NodeBuildService}.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public abstract class CompileAngularProject implements WorkAction<CompileAngularProject.Parameters> {
+
+    private static final Logger LOGGER = Logging.getLogger(CompileAngularProject.class);
+
+    @Inject
+    protected abstract ExecOperations getExecOperations();
+
+    @Override
+    public void execute() {
+        NodeBuildService service = getParameters().getNodeBuildService().getOrNull();
+        if (service == null) {
+            build(null);
+            return;
+        }
+
+        try {
+            service.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Angular build interrupted: " + getParameters().getCommandLine().get(), e);
+        }
+        try {
+            build(service.getWorkers());
+        } finally {
+            service.release();
+        }
+    }
+
+    /**
+     * Executes the build by worker of given pool, if enabled, or by
+     * new NodeJS process
+     */
+    private void build(@Nullable NodeBuildWorkers workers) {
+        Parameters parameters = getParameters();
+        NodeCommandLine commandLine = parameters.getCommandLine().get();
+
+        File workingDir = parameters.getWorkingDir().get().getAsFile();
+
+        OptionalInt exitCode = OptionalInt.empty();
+        if (workers != null && (parameters.getBatch().isPresent() || parameters.getBuildWorker().get())) {
+            int idleTimeout = parameters.getWorkerIdleTimeout().get();
+            int maxMemory = parameters.getWorkerMaxMemory().get();
+            exitCode = parameters.getBatch().isPresent()
+                    ? workers.buildInBatch(parameters.getBatch().get(), commandLine, workingDir, idleTimeout, maxMemory, LOGGER)
+                    : workers.build(commandLine, workingDir, idleTimeout, maxMemory, LOGGER);
+        }
+
+        if (exitCode.isPresent()) {
+            if (exitCode.getAsInt() != 0) {
+                throw new GradleException("Angular build '" + commandLine + "' finished with non-zero exit value " + exitCode.getAsInt());
+            }
+        } else {
+            getExecOperations().exec(spec -> {
+                spec.setExecutable(commandLine.getExecutable());
+                spec.setArgs(commandLine.getArguments());
+                spec.environment(commandLine.getEnvironment());
+                spec.setWorkingDir(workingDir);
+            });
+        }
+
+        if (parameters.getCliCache().isPresent()) {
+            parameters.getCliCache().get().trim();
+        }
+
+        AngularJsonHelper.getInstance().generateFingerprint(
+                parameters.getSourceSetName().get(),
+                parameters.getOutputDirectory().get().getAsFile());
+    }
+
+    /**
+     * Parameters of the compilation
+     */
+    public interface Parameters extends WorkParameters {
+
+        /**
+         * Angular CLI command line
+         * @return  NodeJS command line
+         */
+        Property<NodeCommandLine> getCommandLine();
+
+        /**
+         * Angular workspace directory
+         * @return  Working directory of the build
+         */
+        DirectoryProperty getWorkingDir();
+
+        /**
+         * Name of compiled source set
+         * @return  Source set name
+         */
+        Property<String> getSourceSetName();
+
+        /**
+         * Compilation output directory
+         * @return  Output directory
+         */
+        DirectoryProperty getOutputDirectory();
+
+        /**
+         * Angular CLI cache of the project trimmed after the build
+         * @return  Cache managed by the plugin, not present otherwise
+         */
+        Property<CliCache> getCliCache();
+
+        /**
+         * Batch of builds executed by single worker
+         * @return  Batch identifier, not present if the build is not
+         *          part of a batch
+         */
+        Property<String> getBatch();
+
+        /**
+         * Whether the build is executed by long-lived worker
+         * @return  {@code true} to use build worker
+         */
+        Property<Boolean> getBuildWorker();
+
+        /**
+         * Minutes idle build worker is kept
+         * @return  Idle timeout
+         */
+        Property<Integer> getWorkerIdleTimeout();
+
+        /**
+         * Memory in MB, build worker using more is stopped
+         * @return  Worker memory limit
+         */
+        Property<Integer> getWorkerMaxMemory();
+
+        /**
+         * Service limiting parallel NodeJS builds
+         * @return  Node build service, not present if not limited
+         */
+        Property<NodeBuildService> getNodeBuildService();
+    }
+
+}
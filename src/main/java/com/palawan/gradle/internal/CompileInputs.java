@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.palawan.gradle.dsl.AngularExtension;
+import com.palawan.gradle.util.AngularJsonHelper;
+import org.gradle.api.GradleException;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Collects inputs of angular project compilation, which are not part
+ * of project sources. Those are angular.json project block, tsconfig
+ * files including their {@code extends} chain, package descriptors,
+ * browser lists and lock files of the workspace and node_modules.
+ * All inputs are read lazily, once the compilation is about to be
+ * executed. Project block of angular.json is read by streaming parser
+ * once per instance and shared by all inputs derived from it.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class CompileInputs extends JsonBase implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Browser list configuration files used by angular builders */
+    static final List<String> BROWSERS_LISTS = List.of(".browserslistrc", "browserslist");
+
+    /** Path fields of angular.json object values */
+    private static final List<String> REFERENCE_FIELDS = List.of("input", "with");
+    private static final String BUILD_OPTIONS_PATH = "architect.build.options";
+    private static final String BUILD_CONFIGURATIONS_PATH = "architect.build.configurations";
+    private static final String EXTENDS = "extends";
+    private static final String TS_CONFIG = "tsConfig";
+    private static final String ANGULAR_CLI = "@angular/cli";
+    private static final String CLI = "cli";
+    private static final String CACHE = "cache";
+
+    private final File workspace;
+    private final String project;
+    @Nullable
+    private transient Optional<ObjectNode> projectNode;
+
+    /**
+     * @param angularJson   Angular workspace descriptor
+     * @param project       Name of compiled angular project
+     */
+    public CompileInputs(File angularJson, String project) {
+        this.workspace = angularJson.getAbsoluteFile().getParentFile();
+        this.project = project;
+    }
+
+    /**
+     * Gets complete project block of angular.json in normalized form,
+     * object fields are sorted by name. Paths within the block are
+     * relative to workspace, so the value does not depend on the
+     * workspace location, nor on changes of other projects. Angular
+     * CLI cache settings are left out, as its location may be machine
+     * specific and it does not affect the build output.
+     * @return  Project block content, empty if not defined
+     */
+    public String getProjectDescriptor() {
+        return getProjectNode()
+                .map(CompileInputs::withoutCache)
+                .map(CompileInputs::normalize)
+                .map(JsonNode::toString)
+                .orElse("");
+    }
+
+    /**
+     * Gets descriptor files affecting the compilation. Those are
+     * workspace and project package descriptors and lock files, and
+     * files referenced from project build options. Referenced json
+     * files are followed through their {@code extends} chain. Only
+     * existing files and directories are returned.
+     * @return  Descriptor files of the workspace and the project
+     */
+    public List<File> getDescriptorFiles() {
+        Path root = workspace.toPath();
+        Set<File> files = new LinkedHashSet<>();
+        addFile(root.resolve(AngularJsonHelper.NODE_LIBRARY_DESCRIPTOR), files);
+        files.addAll(NodeModulesFingerprint.getLockFiles(root.resolve(AngularExtension.NODE_MODULES)));
+        BROWSERS_LISTS.forEach(f -> addFile(root.resolve(f), files));
+
+        getProjectNode().ifPresent(node -> {
+            Optional.ofNullable(node.get("root")).map(JsonNode::asText).filter(r -> !r.isEmpty())
+                    .map(root::resolve)
+                    .ifPresent(projectRoot -> {
+                        addFile(projectRoot.resolve(AngularJsonHelper.NODE_LIBRARY_DESCRIPTOR), files);
+                        BROWSERS_LISTS.forEach(f -> addFile(projectRoot.resolve(f), files));
+                    });
+
+            getByPath(node, BUILD_OPTIONS_PATH + ".project")
+                    .ifPresent(ngPackage -> addReference(root, ngPackage, files));
+            JacksonAngularJsonProject.getKnownFileFields().stream()
+                    .filter(field -> field.startsWith(BUILD_OPTIONS_PATH))
+                    .forEach(field -> getByPath(node, field).ifPresent(value -> addReference(root, value, files)));
+
+            getByPath(node, BUILD_CONFIGURATIONS_PATH).ifPresent(configurations -> {
+                Iterator<JsonNode> values = configurations.elements();
+                while (values.hasNext()) {
+                    JsonNode configuration = values.next();
+                    Optional.ofNullable(configuration.get(TS_CONFIG)).ifPresent(value -> addReference(root, value, files));
+                    Optional.ofNullable(configuration.get("fileReplacements")).ifPresent(value -> addReference(root, value, files));
+                }
+            });
+        });
+
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Gets angular CLI version used for the compilation. The installed
+     * version is preferred over the version declared in package.json.
+     * @return  Angular CLI version if known
+     */
+    public Optional<String> getAngularVersion() {
+        AngularJsonHelper helper = AngularJsonHelper.getInstance();
+        Path root = workspace.toPath();
+        Optional<String> installed = helper
+                .readJson(root.resolve("node_modules").resolve(ANGULAR_CLI).resolve(AngularJsonHelper.NODE_LIBRARY_DESCRIPTOR))
+                .map(n -> n.get("version"))
+                .map(JsonNode::asText);
+        if (installed.isPresent()) {
+            return installed;
+        }
+
+        return helper.readJson(root.resolve(AngularJsonHelper.NODE_LIBRARY_DESCRIPTOR))
+                .flatMap(n -> Optional.ofNullable(n.get("devDependencies")).map(d -> d.get(ANGULAR_CLI))
+                        .or(() -> Optional.ofNullable(n.get("dependencies")).map(d -> d.get(ANGULAR_CLI))))
+                .map(JsonNode::asText);
+    }
+
+    /**
+     * Gets project block of angular.json, read only on first access.
+     * Callers must not modify the returned block.
+     */
+    private synchronized Optional<ObjectNode> getProjectNode() {
+        if (projectNode == null) {
+            Path angularJson = workspace.toPath().resolve(AngularJsonHelper.ANGULAR_JSON_FILE_NAME);
+            try {
+                projectNode = Files.isRegularFile(angularJson)
+                        ? AngularJsonHelper.getInstance().readAngularJsonProject(Files.readAllBytes(angularJson), project)
+                        : Optional.empty();
+            } catch (IOException e) {
+                throw new GradleException("Unable to read " + angularJson, e);
+            }
+        }
+        return projectNode;
+    }
+
+    /**
+     * Adds files referenced by angular.json field value. The value is
+     * either path, array of values, or object with {@code input} or
+     * {@code with} path field, as used by assets, styles and file
+     * replacements.
+     */
+    private void addReference(Path root, JsonNode value, Set<File> files) {
+        if (value.isArray()) {
+            for (JsonNode item : value) {
+                addReference(root, item, files);
+            }
+        } else if (value.isObject()) {
+            for (String field : REFERENCE_FIELDS) {
+                Optional.ofNullable(value.get(field)).ifPresent(v -> addReference(root, v, files));
+            }
+        } else if (value.isTextual() && !value.asText().isEmpty()) {
+            Path file = root.resolve(value.asText()).normalize();
+            if (file.getFileName().toString().endsWith(".json")) {
+                addJsonChain(file, files);
+            } else if (Files.exists(file)) {
+                files.add(file.toFile());
+            }
+        }
+    }
+
+    /**
+     * Adds json file and all relative files it extends. Configurations
+     * extended from node packages are covered by lock files.
+     */
+    static void addJsonChain(Path json, Set<File> files) {
+        addJsonChain(json, files, AngularJsonHelper.getInstance()::readJson);
+    }
+
+    /**
+     * Adds json file and all relative files it extends, files are read
+     * by given reader
+     */
+    static void addJsonChain(Path json, Set<File> files, Function<Path, Optional<ObjectNode>> reader) {
+        if (!Files.isRegularFile(json) || !files.add(json.toFile())) {
+            return;
+        }
+
+        Optional<JsonNode> parents = reader.apply(json).map(n -> n.get(EXTENDS));
+        if (parents.isPresent()) {
+            Iterable<JsonNode> values = parents.get().isArray() ? parents.get() : Collections.singletonList(parents.get());
+            for (JsonNode value : values) {
+                String parent = value.asText();
+                if (parent.startsWith(".")) {
+                    if (!parent.endsWith(".json")) {
+                        parent += ".json";
+                    }
+                    addJsonChain(json.resolveSibling(parent).normalize(), files, reader);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates copy of project block without {@code cli.cache} settings
+     */
+    private static ObjectNode withoutCache(ObjectNode project) {
+        ObjectNode copy = project.deepCopy();
+        JsonNode cli = copy.get(CLI);
+        if (cli instanceof ObjectNode) {
+            ((ObjectNode) cli).remove(CACHE);
+            if (cli.size() == 0) {
+                copy.remove(CLI);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Creates copy of json node with object fields sorted by name
+     */
+    private static JsonNode normalize(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode sorted = JsonNodeFactory.instance.objectNode();
+            Map<String, JsonNode> fields = new TreeMap<>();
+            node.fields().forEachRemaining(e -> fields.put(e.getKey(), e.getValue()));
+            fields.forEach((name, value) -> sorted.set(name, normalize(value)));
+            return sorted;
+        }
+        if (node.isArray()) {
+            ArrayNode array = JsonNodeFactory.instance.arrayNode();
+            node.forEach(item -> array.add(normalize(item)));
+            return array;
+        }
+        return node;
+    }
+
+    private static void addFile(Path file, Set<File> files) {
+        if (Files.isRegularFile(file)) {
+            files.add(file.normalize().toFile());
+        }
+    }
+
+}
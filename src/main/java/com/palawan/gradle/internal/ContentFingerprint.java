@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.util.PathUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content fingerprint of build output directory. Fingerprint consists
+ * of SHA-256 hash of each file and aggregated digest of all file paths
+ * and hashes. The same content always produces the same fingerprint,
+ * regardless of time of the build.
+ *
+ * <p>Fingerprint is stored as a manifest file {@link #FILE_NAME} in the
+ * directory. The first line of the manifest holds the aggregated digest,
+ * each following line holds hash and relative path of one file.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class ContentFingerprint {
+
+    /** Fingerprint manifest file name */
+    public static final String FILE_NAME = "fingerprint.gradle";
+
+    private static final String DIGEST_PREFIX = "sha256:";
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Computes fingerprint of all files within given directory
+     * except the fingerprint manifest.
+     * @param directory Directory to compute fingerprint of
+     * @return  Content fingerprint
+     * @throws IOException  If any file can not be read
+     */
+    public static ContentFingerprint of(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(f -> !directory.resolve(FILE_NAME).equals(f))
+                    .collect(Collectors.toList());
+        }
+
+        Map<String, String> hashes = new TreeMap<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (Path file : files) {
+            hashes.put(PathUtil.normalize(directory.relativize(file)), hash(file, buffer));
+        }
+
+        return new ContentFingerprint(hashes);
+    }
+
+    /**
+     * Computes fingerprint of selected files within given directory.
+     * Files which do not exist are skipped.
+     * @param directory Base directory of the files
+     * @param paths     Paths of files relative to the directory
+     * @return  Content fingerprint
+     * @throws IOException  If any file can not be read
+     */
+    public static ContentFingerprint of(Path directory, Collection<String> paths) throws IOException {
+        Map<String, String> hashes = new TreeMap<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (String path : paths) {
+            Path file = directory.resolve(path);
+            if (Files.isRegularFile(file)) {
+                hashes.put(PathUtil.normalize(directory.relativize(file)), hash(file, buffer));
+            }
+        }
+
+        return new ContentFingerprint(hashes);
+    }
+
+    /**
+     * Reads aggregated digest from manifest stored in given directory
+     * @param directory Directory with fingerprint manifest
+     * @return  Aggregated digest if manifest exists
+     * @throws IOException  If manifest can not be read
+     */
+    public static Optional<String> readDigest(Path directory) throws IOException {
+        Path manifest = directory.resolve(FILE_NAME);
+        if (!Files.isRegularFile(manifest)) {
+            return Optional.empty();
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            return readDigest(reader);
+        }
+    }
+
+    /**
+     * Reads aggregated digest from manifest content
+     * @param manifest  Manifest content
+     * @return  Aggregated digest if content is valid manifest
+     * @throws IOException  If content can not be read
+     */
+    public static Optional<String> readDigest(InputStream manifest) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(manifest, StandardCharsets.UTF_8))) {
+            return readDigest(reader);
+        }
+    }
+
+    private static Optional<String> readDigest(BufferedReader reader) throws IOException {
+        return Optional.ofNullable(reader.readLine())
+                .filter(l -> l.startsWith(DIGEST_PREFIX))
+                .map(l -> l.substring(DIGEST_PREFIX.length()));
+    }
+
+    private final Map<String, String> files;
+    private final String digest;
+
+    private ContentFingerprint(Map<String, String> files) {
+        this.files = Collections.unmodifiableMap(files);
+        this.digest = aggregate(files);
+    }
+
+    /**
+     * Aggregated digest of all files
+     * @return  Hex encoded digest
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Hashes of files ordered by their relative path
+     * @return  Hex encoded file hashes
+     */
+    public Map<String, String> getFiles() {
+        return files;
+    }
+
+    /**
+     * Writes manifest into given directory. The manifest is not
+     * rewritten if it already holds the same fingerprint.
+     * @param directory Target directory
+     * @throws IOException  If manifest can not be written
+     */
+    public void write(Path directory) throws IOException {
+        StringBuilder manifest = new StringBuilder(DIGEST_PREFIX).append(digest).append('\n');
+        files.forEach((path, hash) -> manifest.append(hash).append(' ').append(path).append('\n'));
+        DescriptorTransaction.writeIfChanged(directory.resolve(FILE_NAME), manifest.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hash(Path file, byte[] buffer) throws IOException {
+        MessageDigest md = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), md)) {
+            //noinspection StatementWithEmptyBody
+            while (in.read(buffer) != -1) {
+                // digest is updated by reading
+            }
+        }
+        return toHex(md.digest());
+    }
+
+    private static String aggregate(Map<String, String> files) {
+        MessageDigest md = sha256();
+        files.forEach((path, hash) -> {
+            md.update(path.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(hash.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '\n');
+        });
+        return toHex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+}
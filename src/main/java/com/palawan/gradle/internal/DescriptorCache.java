@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.palawan.gradle.util.AngularJsonHelper;
+import org.gradle.api.GradleException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Daemon wide cache of parsed json descriptors. Entries are keyed by
+ * canonical file path and validated against file modification time
+ * and size. Whenever those differ the content hash is compared before
+ * the file would be parsed again, so touched but unchanged files are
+ * not parsed twice.
+ *
+ * <p>Angular descriptors are read by {@link AngularJsonReader}, so only
+ * fields used by the plugin are cached. The cache does not retain json
+ * trees for the daemon lifetime, each entry holds compact serialized
+ * form of the parsed tree instead. Each caller receives its own tree
+ * read from the compact form, which it is free to modify.</p>
+ *
+ * <p>Descriptors of workspace projects, which are package.json,
+ * ng-package.json and tsconfig files, are cached separately with
+ * fields referencing other projects only, see {@link #getReferences()}.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class DescriptorCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final DescriptorCache INSTANCE = new DescriptorCache(AngularJsonHelper.getInstance()::readAngularJson);
+    private static final DescriptorCache REFERENCES = new DescriptorCache(AngularJsonHelper.getInstance()::readReferences);
+
+    /**
+     * Singleton instance of the cache shared by all builds of the daemon
+     * @return  Singleton instance
+     */
+    public static DescriptorCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Cache of workspace project descriptors holding fields referencing
+     * other projects only, shared by all builds of the daemon
+     * @return  Singleton instance
+     */
+    public static DescriptorCache getReferences() {
+        return REFERENCES;
+    }
+
+    private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final Parser parser;
+
+    DescriptorCache(Parser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Reads json descriptor from given file. The file is parsed only
+     * if it is not cached yet or its content has changed since it
+     * was cached.
+     * @param file  Descriptor file
+     * @return      Copy of parsed descriptor
+     */
+    public ObjectNode read(Path file) {
+        try {
+            Path key = file.toRealPath();
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            Entry entry = entries.get(key);
+
+            if (entry == null || !entry.matches(attributes)) {
+                byte[] content = Files.readAllBytes(key);
+                byte[] digest = digest(content);
+
+                if (entry == null || !Arrays.equals(entry.digest, digest)) {
+                    ObjectNode root = parser.parse(content);
+                    entries.put(key, new Entry(attributes, digest, MAPPER.writeValueAsBytes(root)));
+                    return root;
+                }
+                entry = new Entry(attributes, digest, entry.compact);
+                entries.put(key, entry);
+            }
+
+            return (ObjectNode) MAPPER.readTree(entry.compact);
+
+        } catch (IOException e) {
+            throw new GradleException("Unable to read " + file, e);
+        }
+    }
+
+    /**
+     * Reads json descriptor from given file, if the file exists
+     * @param file  Descriptor file
+     * @return      Copy of parsed descriptor, empty if file does not exist
+     * @see #read(Path)
+     */
+    public Optional<ObjectNode> find(Path file) {
+        return Files.isRegularFile(file) ? Optional.of(read(file)) : Optional.empty();
+    }
+
+    /**
+     * Is the given file cached with its current content?
+     * @param file  Descriptor file
+     * @return      Returns {@code true} if file is cached and was not
+     *              modified since.
+     */
+    public boolean isCached(Path file) {
+        try {
+            Path key = file.toRealPath();
+            Entry entry = entries.get(key);
+            return entry != null && entry.matches(Files.readAttributes(key, BasicFileAttributes.class));
+
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+    }
+
+    /**
+     * Parser of cached descriptor content
+     */
+    @FunctionalInterface
+    interface Parser {
+        ObjectNode parse(byte[] content) throws IOException;
+    }
+
+    /**
+     * Cached descriptor along with file attributes it was read with.
+     */
+    private static final class Entry {
+        private final long lastModified;
+        private final long size;
+        private final byte[] digest;
+        private final byte[] compact;
+
+        private Entry(BasicFileAttributes attributes, byte[] digest, byte[] compact) {
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+            this.digest = digest;
+            this.compact = compact;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return lastModified == attributes.lastModifiedTime().toMillis() && size == attributes.size();
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.dsl.AngularJson;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Build service sharing parsed angular descriptors among all projects
+ * of the build. Each angular.json file is read only once per build,
+ * while its parsed content is further cached by {@link DescriptorCache}
+ * across builds of the same daemon.
+ *
+ * <p>Descriptor updates made during configuration phase are collected
+ * by the service {@link DescriptorTransaction} and written once, when
+ * all projects are evaluated. Descriptors are replaced by their
+ * immutable snapshots afterwards.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public abstract class DescriptorCacheService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+    /** Shared service name */
+    public static final String SERVICE_NAME = "angularDescriptors";
+
+    /**
+     * Registers the service within the build of given project, unless
+     * already registered.
+     * @param project   Any project of the build
+     * @return  Provider of the shared service
+     */
+    public static Provider<DescriptorCacheService> register(Project project) {
+        return project.getGradle().getSharedServices()
+                .registerIfAbsent(SERVICE_NAME, DescriptorCacheService.class, spec -> {});
+    }
+
+    private static final Logger LOGGER = Logging.getLogger(DescriptorCacheService.class);
+
+    private final ConcurrentMap<File, Optional<FreezableAngularJson>> angularJsons = new ConcurrentHashMap<>();
+    private final ConcurrentMap<File, WorkspaceGraph> workspaceGraphs = new ConcurrentHashMap<>();
+    private final DescriptorTransaction transaction = DescriptorTransaction.open();
+
+    /**
+     * Gets angular descriptor of given file shared by all projects
+     * of this build.
+     * @param file  Angular descriptor file
+     * @return  Angular descriptor if file exists
+     */
+    public Optional<AngularJson> getAngularJson(File file) {
+        return angularJsons.computeIfAbsent(file.getAbsoluteFile(), this::loadAngularJson)
+                .map(AngularJson.class::cast);
+    }
+
+    private Optional<FreezableAngularJson> loadAngularJson(File file) {
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new FreezableAngularJson(
+                new JacksonAngularJson(file, DescriptorCache.getInstance().read(file.toPath()), transaction)));
+    }
+
+    /**
+     * Gets dependency graph of angular workspace shared by all projects
+     * of this build. Dependencies ignored due to cycles are reported
+     * once, when the graph is created.
+     * @param file  Angular descriptor file
+     * @return  Workspace dependency graph
+     */
+    public WorkspaceGraph getWorkspaceGraph(File file) {
+        return workspaceGraphs.computeIfAbsent(file.getAbsoluteFile(), f -> {
+            WorkspaceGraph graph = WorkspaceGraph.of(f);
+            graph.getIgnoredDependencies().forEach(d ->
+                    LOGGER.warn("Angular project dependency {} ignored, as it closes dependency cycle", d));
+            return graph;
+        });
+    }
+
+    /**
+     * Gets transaction collecting descriptor updates of this build
+     * @return  Descriptor transaction
+     */
+    public DescriptorTransaction getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * Writes all collected descriptor updates and replaces descriptors
+     * by their snapshots. Any later update is written immediately.
+     */
+    public void commit() {
+        transaction.commit();
+        angularJsons.values().forEach(a -> a.ifPresent(FreezableAngularJson::freeze));
+    }
+
+    @Override
+    public void close() {
+        transaction.commit();
+    }
+
+}
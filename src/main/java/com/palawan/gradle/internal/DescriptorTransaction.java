@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import org.gradle.api.GradleException;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Unit of work collecting descriptor file updates. While the transaction
+ * is open, updated descriptors are only recorded and each file is written
+ * once on {@link #commit()}. Committed transaction writes any further
+ * update immediately.
+ *
+ * <p>A file is never written if the descriptor has not changed or its
+ * serialized content equals the content on disk, so file modification
+ * time stays stable for unchanged descriptors.</p>
+ *
+ * <p>Transaction of the build also records values changed through
+ * immutable descriptor snapshots, see {@link #change(File, String, Object, Object)},
+ * so the same change is applied once per build.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class DescriptorTransaction {
+
+    private static final DescriptorTransaction IMMEDIATE = new DescriptorTransaction(false);
+
+    /**
+     * Committed transaction writing every update immediately
+     * @return  Immediate transaction
+     */
+    public static DescriptorTransaction immediate() {
+        return IMMEDIATE;
+    }
+
+    /**
+     * Creates new open transaction
+     * @return  Open transaction
+     */
+    public static DescriptorTransaction open() {
+        return new DescriptorTransaction(true);
+    }
+
+    private final Map<File, Content> pending = new LinkedHashMap<>();
+    private final Map<String, Object> changes = new HashMap<>();
+    private final boolean recording;
+    private boolean open;
+
+    private DescriptorTransaction(boolean open) {
+        this.open = open;
+        this.recording = open;
+    }
+
+    /**
+     * Records update of given file. Content is serialized when the file
+     * is written, so it reflects all changes made to the descriptor until
+     * then. Later update of the same file replaces previous one.
+     * @param file      Descriptor file
+     * @param content   Descriptor content serializer
+     */
+    public void update(File file, Content content) {
+        synchronized (this) {
+            if (open) {
+                pending.put(file.getAbsoluteFile(), content);
+                return;
+            }
+        }
+        write(file, content);
+    }
+
+    /**
+     * Is there any pending update of given file?
+     * @param file  Descriptor file
+     * @return  Returns {@code true} if file is waiting for commit
+     */
+    public synchronized boolean isPending(File file) {
+        return pending.containsKey(file.getAbsoluteFile());
+    }
+
+    /**
+     * Records change of descriptor value, unless the value equals
+     * the value recorded by previous change or the current value if
+     * not changed yet. Shared immediate transaction does not record
+     * any change, so it accepts each change differing from current
+     * value.
+     * @param file      Descriptor file
+     * @param property  Changed property, unique within the descriptor
+     * @param current   Current value of the property
+     * @param value     New value of the property
+     * @return  Returns {@code true} if the change should be applied
+     */
+    public synchronized boolean change(File file, String property, @Nullable Object current, Object value) {
+        String key = file.getAbsolutePath() + "#" + property;
+        Object previous = changes.containsKey(key) ? changes.get(key) : current;
+        if (Objects.equals(previous, value)) {
+            return false;
+        }
+        if (recording) {
+            changes.put(key, value);
+        }
+        return true;
+    }
+
+    /**
+     * Writes all recorded updates and switches the transaction into
+     * immediate mode.
+     */
+    public void commit() {
+        Map<File, Content> updates;
+        synchronized (this) {
+            updates = new LinkedHashMap<>(pending);
+            pending.clear();
+            open = false;
+        }
+        updates.forEach(DescriptorTransaction::write);
+    }
+
+    /**
+     * Writes given content into file unless the file already has
+     * the same content.
+     * @param file      Target file
+     * @param content   New file content
+     * @return  Returns {@code true} if file was written
+     * @throws IOException  If file can not be read or written
+     */
+    public static boolean writeIfChanged(Path file, byte[] content) throws IOException {
+        if (Files.exists(file) && Files.size(file) == content.length
+                && Arrays.equals(Files.readAllBytes(file), content)) {
+            return false;
+        }
+        Files.write(file, content);
+        return true;
+    }
+
+    private static void write(File file, Content content) {
+        try {
+            Optional<byte[]> bytes = content.serialize();
+            if (bytes.isPresent()) {
+                writeIfChanged(file.toPath(), bytes.get());
+            }
+
+        } catch (IOException e) {
+            throw new GradleException("Unable to modify " + file, e);
+        }
+    }
+
+    /**
+     * Serializer of descriptor content
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Serializes descriptor into file content
+         * @return  File content or empty if descriptor has not changed
+         * @throws IOException  If descriptor can not be serialized
+         */
+        Optional<byte[]> serialize() throws IOException;
+    }
+
+}
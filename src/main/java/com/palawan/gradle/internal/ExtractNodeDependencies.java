@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.util.AngularJsonHelper;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Work action extracting node libraries into their node_modules location.
+ * Library already extracted by {@link UnzipNodeLibrary} transform is
+ * synchronized from the transform cache. Each work item receives all
+ * libraries of a single target directory, so no target directory is
+ * written by two work items at once. Extraction manifests are kept in
+ * given manifest directory, outside of node_modules.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public abstract class ExtractNodeDependencies implements WorkAction<ExtractNodeDependencies.Parameters> {
+
+    /**
+     * Extracts every updated node library into its node_modules location.
+     * Libraries of different target directories are extracted in parallel,
+     * fails once all extractions finished.
+     * @param workerExecutor    Worker executor of the calling task
+     * @param dependencies      Node libraries to be extracted
+     * @param manifests         Directory of extraction manifests, e.g.
+     *                          temporary directory of the calling task
+     */
+    public static void extractAll(WorkerExecutor workerExecutor, List<NodeDependency> dependencies, File manifests) {
+        Map<File, List<NodeDependency>> targets = new TreeMap<>();
+        for (NodeDependency dependency : dependencies) {
+            targets.computeIfAbsent(dependency.getTarget(), t -> new ArrayList<>()).add(dependency);
+        }
+
+        WorkQueue queue = workerExecutor.noIsolation();
+        targets.values().forEach(group ->
+                queue.submit(ExtractNodeDependencies.class, p -> {
+                    p.getDependencies().set(group);
+                    p.getManifests().set(manifests);
+                }));
+        queue.await();
+    }
+
+    @Override
+    public void execute() {
+        for (NodeDependency dependency : getParameters().getDependencies().get()) {
+            if (AngularJsonHelper.getInstance().artifactUpdated(dependency)) {
+                extract(dependency);
+            }
+        }
+    }
+
+    /**
+     * Gets extraction manifest of given node_modules target, unique within
+     * the manifest directory
+     * @param manifests Directory of extraction manifests
+     * @param target    Library location in node_modules
+     * @return  Manifest file
+     */
+    static Path getManifest(Path manifests, File target) {
+        Path path = target.getAbsoluteFile().toPath().normalize();
+        Path root = path.getRoot();
+        return manifests.resolve(root == null ? path.toString() : root.relativize(path).toString())
+                .resolve(ZipSync.FILE_NAME);
+    }
+
+    private void extract(NodeDependency dependency) {
+        Path target = dependency.getTarget().toPath();
+        Path manifest = getManifest(getParameters().getManifests().get().getAsFile().toPath(), dependency.getTarget());
+        try {
+            if (ArtifactTypeDefinition.DIRECTORY_TYPE.equals(dependency.getType())) {
+                ZipSync.sync(dependency.getArtifact().toPath(), target, manifest);
+            } else {
+                ZipSync.sync(dependency.getArtifact(), target, manifest);
+            }
+
+        } catch (IOException e) {
+            throw new GradleException("Unable to extract " + dependency.getArtifact() + " into " + dependency.getTarget(), e);
+        }
+    }
+
+    /**
+     * Parameters of the extraction
+     */
+    public interface Parameters extends WorkParameters {
+
+        /**
+         * Libraries to be extracted, all into the same target directory
+         * @return  Node libraries
+         */
+        ListProperty<NodeDependency> getDependencies();
+
+        /**
+         * Directory of extraction manifests
+         * @return  Manifest directory
+         */
+        DirectoryProperty getManifests();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.dsl.AngularJson;
+import com.palawan.gradle.dsl.AngularJsonProject;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Angular descriptor shared by projects of the build. It delegates to
+ * the parsed descriptor while projects are configured and it is replaced
+ * by its immutable {@link AngularJsonSnapshot} once configuration ends,
+ * so the parsed json tree is not retained.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class FreezableAngularJson implements AngularJson {
+
+    private volatile AngularJson delegate;
+
+    public FreezableAngularJson(JacksonAngularJson delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public File getFile() {
+        return delegate.getFile();
+    }
+
+    @Override
+    public Optional<AngularJsonProject> getDefaultProject() {
+        return delegate.getDefaultProject();
+    }
+
+    @Override
+    public Optional<AngularJsonProject> getProject(String name) {
+        return delegate.getProject(name);
+    }
+
+    @Override
+    public Map<String, AngularJsonProject> getProjects() {
+        return delegate.getProjects();
+    }
+
+    @Override
+    public void update() {
+        delegate.update();
+    }
+
+    /**
+     * Replaces parsed descriptor by its snapshot
+     */
+    public synchronized void freeze() {
+        if (delegate instanceof JacksonAngularJson) {
+            delegate = AngularJsonSnapshot.of((JacksonAngularJson) delegate);
+        }
+    }
+
+    /**
+     * Is the descriptor replaced by its snapshot?
+     * @return  Returns {@code true} if descriptor is immutable snapshot
+     */
+    public boolean isFrozen() {
+        return delegate instanceof AngularJsonSnapshot;
+    }
+
+}
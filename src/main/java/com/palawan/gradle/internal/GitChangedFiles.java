@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+import org.gradle.process.ExecOperations;
+import org.gradle.process.ExecResult;
+
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lists files changed within working directory against given git
+ * reference, including uncommitted and untracked files. Committed
+ * changes are compared with merge base of the reference and
+ * {@code HEAD}, so commits added to the reference after the branch
+ * was created are not listed. Paths are relative to the working
+ * directory, files outside of it are not listed.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public abstract class GitChangedFiles implements ValueSource<List<String>, GitChangedFiles.Parameters> {
+
+    /**
+     * Value source parameters
+     */
+    public interface Parameters extends ValueSourceParameters {
+
+        /**
+         * Gets git reference to compare working tree with
+         * @return  Base git reference
+         */
+        Property<String> getBase();
+
+        /**
+         * Gets directory to list changes within
+         * @return  Working directory
+         */
+        DirectoryProperty getWorkingDir();
+
+    }
+
+    private final ExecOperations execOperations;
+
+    @Inject
+    public GitChangedFiles(ExecOperations execOperations) {
+        this.execOperations = execOperations;
+    }
+
+    @Override
+    public List<String> obtain() {
+        Set<String> files = new LinkedHashSet<>();
+        files.addAll(git("diff", "--name-only", "--relative", getParameters().getBase().get() + "...HEAD"));
+        files.addAll(git("diff", "--name-only", "--relative", "HEAD"));
+        files.addAll(git("ls-files", "--others", "--exclude-standard"));
+        return List.copyOf(files);
+    }
+
+    private List<String> git(String... args) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        ExecResult result = execOperations.exec(spec -> {
+            spec.setExecutable("git");
+            spec.args(Arrays.asList(args));
+            spec.setWorkingDir(getParameters().getWorkingDir().get().getAsFile());
+            spec.setStandardOutput(output);
+            spec.setErrorOutput(error);
+            spec.setIgnoreExitValue(true);
+        });
+
+        if (result.getExitValue() != 0) {
+            throw new GradleException("Unable to list changed files by 'git " + String.join(" ", args) + "': "
+                    + error.toString(StandardCharsets.UTF_8).trim());
+        }
+
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.isBlank())
+                .collect(Collectors.toList());
+    }
+
+}
@@ -31,6 +31,7 @@ import com.palawan.gradle.util.AngularJsonHelper;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of {@link AngularJson} interface using Jackson parser.
@@ -42,12 +43,21 @@ public class JacksonAngularJson extends JsonBase implements AngularJson {
 
     private final File file;
     private final ObjectNode root;
-    private Map<String, AngularJsonProject> projects;
+    private final DescriptorTransaction transaction;
+    private final Map<String, AngularJsonProject> projects;
+    private final Map<String, AngularJsonProject> projectsView;
+    private volatile boolean projectsLoaded;
 
     public JacksonAngularJson(File file, ObjectNode root) {
+        this(file, root, DescriptorTransaction.immediate());
+    }
+
+    public JacksonAngularJson(File file, ObjectNode root, DescriptorTransaction transaction) {
         this.file = file;
         this.root = root;
-        this.projects = new HashMap<>();
+        this.transaction = transaction;
+        this.projects = new ConcurrentHashMap<>();
+        this.projectsView = Collections.unmodifiableMap(projects);
     }
 
     @Override
@@ -62,14 +72,17 @@ public class JacksonAngularJson extends JsonBase implements AngularJson {
 
     @Override
     public Map<String, AngularJsonProject> getProjects() {
-        ObjectNode projectNode = (ObjectNode) root.get("projects");
-        Iterator<String> names = projectNode.fieldNames();
-
-        while (names.hasNext()) {
-            projects.computeIfAbsent(names.next(), this::loadProject);
+        if (!projectsLoaded) {
+            ObjectNode projectNode = (ObjectNode) root.get("projects");
+            Iterator<String> names = projectNode.fieldNames();
+
+            while (names.hasNext()) {
+                projects.computeIfAbsent(names.next(), this::loadProject);
+            }
+            projectsLoaded = true;
         }
 
-        return Collections.unmodifiableMap(projects);
+        return projectsView;
     }
 
     @Override
@@ -84,7 +97,8 @@ public class JacksonAngularJson extends JsonBase implements AngularJson {
 
     @Nullable
     private AngularJsonProject loadProject(String name) {
-        return getByPath(root, "projects." + name)
+        return Optional.ofNullable(root.path("projects").get(name))
+            .filter(JsonNode::isObject)
             .map(ObjectNode.class::cast)
             .map(r -> new JacksonAngularJsonProject(
                     this,
@@ -99,6 +113,15 @@ public class JacksonAngularJson extends JsonBase implements AngularJson {
         return root;
     }
 
+    /**
+     * Transaction collecting updates of this descriptor and
+     * descriptors of its projects.
+     * @return  Descriptor transaction
+     */
+    public DescriptorTransaction getTransaction() {
+        return transaction;
+    }
+
     private Optional<String> getDefaultProjectName() {
         return Optional.ofNullable(root.get("defaultProject")).map(JsonNode::asText);
     }
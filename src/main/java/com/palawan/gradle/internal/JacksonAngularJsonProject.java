@@ -33,6 +33,7 @@ import com.palawan.gradle.util.AngularJsonHelper;
 import groovy.transform.Generated;
 
 import javax.annotation.Nullable;
+import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -60,6 +61,7 @@ public class JacksonAngularJsonProject extends JsonBase implements AngularJsonPr
     private static final String BUILD_PROJECT_PATH = BUILD_OPTIONS_PATH + ".project";
     private static final String BUILD_TS_CONFIG_PATH = BUILD_OPTIONS_PATH + ".tsConfig";
     private static final String BUILD_OUTPUT_FIELD = "outputPath";
+    private static final String CLI_CACHE_PATH = "cli.cache";
     private static final String PROD_FILE_REPLACEMENTS_PATH = BUILD_PATH + ".configurations.production.fileReplacements";
     private static final String TEST_OPTIONS_PATH = "architect.test.options";
 	private static final String TEST_TS_CONFIG_PATH = TEST_OPTIONS_PATH + ".tsConfig";
@@ -116,10 +118,18 @@ public class JacksonAngularJsonProject extends JsonBase implements AngularJsonPr
 
     @Override
     public Optional<NgPackage> getNgPackageFile() {
+        return getNgPackagePath()
+            .map(f -> AngularJsonHelper.getInstance().getNgPackageJson(f, angularJson.getTransaction()));
+    }
+
+    /**
+     * Gets library descriptor file without reading it
+     * @return  Library descriptor file if defined
+     */
+    Optional<File> getNgPackagePath() {
         return getByPath(root, BUILD_PROJECT_PATH)
             .map(JsonNode::asText)
-            .map(p -> Paths.get(baseDir.toString(), p).toFile())
-            .map(AngularJsonHelper.getInstance()::getNgPackageJson);
+            .map(p -> Paths.get(baseDir.toString(), p).toFile());
     }
 
 	/**
@@ -143,6 +153,52 @@ public class JacksonAngularJsonProject extends JsonBase implements AngularJsonPr
         }
     }
 
+    /**
+     * Change angular CLI persistent cache location of this project. The
+     * location is always written relative to the workspace, other cache
+     * options are left untouched.
+     * @param cachePath New cache location
+     * @see AngularJsonProject#setCachePath(Path)
+     */
+    @Override
+    public void setCachePath(Path cachePath) {
+        Path absolute = baseDir.resolve(cachePath).normalize();
+        if (getCachePath().filter(absolute::equals).isPresent()) {
+            return;
+        }
+
+        root.with("cli").with("cache").put("path", normalize(baseDir.relativize(absolute)));
+        angularJson.update();
+    }
+
+    /**
+     * Gets angular CLI cache location, see {@link #setCachePath(Path)}
+     * @return  Cache location if defined by the project
+     */
+    Optional<Path> getCachePath() {
+        return getByPath(root, CLI_CACHE_PATH + ".path")
+                .map(JsonNode::asText)
+                .map(baseDir::resolve)
+                .map(Path::normalize);
+    }
+
+    /**
+     * Gets output path of compiled result, see {@link #setOutputPath(Path)}
+     * @return  Output path if defined
+     */
+    Optional<Path> getOutputPath() {
+        Optional<File> ngPackage = getNgPackagePath();
+        if (ngPackage.isPresent()) {
+            return ngPackage.filter(File::exists)
+                    .map(f -> (JacksonNgPackage) AngularJsonHelper.getInstance().getNgPackageJson(f))
+                    .flatMap(JacksonNgPackage::getDestination);
+        }
+        return getByPath(root, BUILD_OPTIONS_PATH + "." + BUILD_OUTPUT_FIELD)
+                .map(JsonNode::asText)
+                .map(baseDir::resolve)
+                .map(Path::normalize);
+    }
+
     @Override
     public boolean isDefault() {
         return isDefault;
@@ -196,9 +252,9 @@ public class JacksonAngularJsonProject extends JsonBase implements AngularJsonPr
         Optional<PackageJson> local = Optional.ofNullable(packageJson);
         if (!local.isPresent()) {
             if (Type.LIBRARY.equals(getProjectType())) {
-                local = AngularJsonHelper.getInstance().getPackageJson(getRoot());
+                local = AngularJsonHelper.getInstance().getPackageJson(getRoot(), angularJson.getTransaction());
             } else {
-                local = AngularJsonHelper.getInstance().getPackageJson(baseDir);
+                local = AngularJsonHelper.getInstance().getPackageJson(baseDir, angularJson.getTransaction());
             }
             packageJson = local.orElse(null);
         }
@@ -320,7 +376,11 @@ public class JacksonAngularJsonProject extends JsonBase implements AngularJsonPr
 				.orElse(null);
     }
 
-    private static List<String> getKnownFileFields() {
+    /**
+     * Gets paths of project fields referencing workspace files
+     * @return  Field paths in javascript notation
+     */
+    static List<String> getKnownFileFields() {
         return Arrays.asList(
                 BUILD_OPTIONS_PATH + ".index",
                 BUILD_OPTIONS_PATH + ".main",
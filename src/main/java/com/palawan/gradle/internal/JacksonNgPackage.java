@@ -22,6 +22,7 @@
 
 package com.palawan.gradle.internal;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import com.palawan.gradle.dsl.NgPackage;
@@ -29,6 +30,7 @@ import com.palawan.gradle.util.AngularJsonHelper;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import static com.palawan.gradle.util.PathUtil.normalize;
 
@@ -43,10 +45,16 @@ public class JacksonNgPackage extends JsonBase implements NgPackage {
     private final File file;
     private final Path basePath;
     private final ObjectNode root;
+    private final DescriptorTransaction transaction;
 
     public JacksonNgPackage(File file, ObjectNode root) {
+        this(file, root, DescriptorTransaction.immediate());
+    }
+
+    public JacksonNgPackage(File file, ObjectNode root, DescriptorTransaction transaction) {
         this.file = file;
         this.root = root;
+        this.transaction = transaction;
         this.basePath = file.getParentFile().toPath();
     }
 
@@ -65,6 +73,17 @@ public class JacksonNgPackage extends JsonBase implements NgPackage {
         return false;
     }
 
+    /**
+     * Gets destination of compiled library
+     * @return  Destination path if defined
+     */
+    public Optional<Path> getDestination() {
+        return Optional.ofNullable(root.get("dest"))
+            .map(JsonNode::asText)
+            .map(basePath::resolve)
+            .map(Path::normalize);
+    }
+
     @Override
     public void update() {
         AngularJsonHelper.getInstance().updateNgPackageJson(this);
@@ -74,4 +93,8 @@ public class JacksonNgPackage extends JsonBase implements NgPackage {
         return root;
     }
 
+    public DescriptorTransaction getTransaction() {
+        return transaction;
+    }
+
 }
@@ -42,10 +42,16 @@ public class JacksonPackageJson extends JsonBase implements PackageJson {
 
 	private final File file;
 	private final ObjectNode root;
+	private final DescriptorTransaction transaction;
 
 	public JacksonPackageJson(ObjectNode root, File file) {
+		this(root, file, DescriptorTransaction.immediate());
+	}
+
+	public JacksonPackageJson(ObjectNode root, File file, DescriptorTransaction transaction) {
 		this.root = Objects.requireNonNull(root, "No root defined");
 		this.file = Objects.requireNonNull(file, "File is required");
+		this.transaction = Objects.requireNonNull(transaction, "Transaction is required");
 	}
 
 	@Override
@@ -90,4 +96,12 @@ public class JacksonPackageJson extends JsonBase implements PackageJson {
 		return root;
 	}
 
+	/**
+	 * Transaction collecting updates of this descriptor
+	 * @return	Descriptor transaction
+	 */
+	public DescriptorTransaction getTransaction() {
+		return transaction;
+	}
+
 }
@@ -24,7 +24,9 @@ package com.palawan.gradle.internal;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base support for Jackson parser implementation.
@@ -34,6 +36,9 @@ import java.util.Optional;
  */
 public abstract class JsonBase {
 
+    /** Already split field paths, those are mostly constants */
+    private static final Map<String, String[]> PATHS = new ConcurrentHashMap<>();
+
     /**
      * Search for JSON field with given path under root node. The
      * path is defined with '.' separator for sub-fields name
@@ -45,7 +50,7 @@ public abstract class JsonBase {
      * @return  Optional of located field.
      */
     Optional<JsonNode> getByPath(JsonNode root, String path) {
-        String[] fields = path.split("\\.");
+        String[] fields = PATHS.computeIfAbsent(path, p -> p.split("\\."));
         for (String field : fields) {
             root = root.get(field);
             if (root == null) {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.dsl.NgPackage;
+import com.palawan.gradle.util.AngularJsonHelper;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of {@link NgPackage} descriptor. Changed
+ * destination is written into the descriptor file directly.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class NgPackageSnapshot implements NgPackage, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates snapshot of given library descriptor
+     * @param ngPackage Parsed library descriptor
+     * @return  Descriptor snapshot
+     */
+    static NgPackageSnapshot of(NgPackage ngPackage) {
+        return new NgPackageSnapshot(ngPackage.getFile(),
+                ((JacksonNgPackage) ngPackage).getDestination().map(Path::toFile).orElse(null));
+    }
+
+    private final File file;
+    @Nullable
+    private final File destination;
+
+    private NgPackageSnapshot(File file, @Nullable File destination) {
+        this.file = file;
+        this.destination = destination;
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public boolean setDestination(Path destination) {
+        if (this.destination != null && Objects.equals(this.destination.toPath(), destination.toAbsolutePath().normalize())) {
+            return false;
+        }
+
+        NgPackage ngPackage = AngularJsonHelper.getInstance().getNgPackageJson(file);
+        if (ngPackage.setDestination(destination)) {
+            ngPackage.update();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Destination is written by {@link #setDestination(Path)}, therefore
+     * there is nothing to be written.
+     */
+    @Override
+    public void update() {
+        // nothing to update
+    }
+
+}
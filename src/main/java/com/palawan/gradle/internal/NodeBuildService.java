@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Build service limiting number of NodeJS builds running in parallel.
+ * Each build is memory intensive, so the limit is derived from number
+ * of cores and free physical memory, computed by the service once the
+ * first build of the Gradle build is executed. Available memory is split
+ * among parallel builds and each build gets its share as
+ * {@code --max-old-space-size} of NodeJS.
+ *
+ * <p>The limits can be defined by gradle properties
+ * {@value #MAX_PARALLEL_BUILDS_PROPERTY} and {@value #BUILD_MEMORY_PROPERTY},
+ * the later one is minimal memory in MB required by single build. Both
+ * must be positive numbers.</p>
+ *
+ * <p>Builds may be executed by long-lived NodeJS workers, which keep
+ * angular CLI modules loaded across angular builds of the Gradle build,
+ * see {@value #BUILD_WORKER_PROPERTY}. Worker is stopped when idle for
+ * {@value #WORKER_IDLE_TIMEOUT_PROPERTY} minutes, or when it uses more
+ * than {@value #WORKER_MAX_MEMORY_PROPERTY} MB after a build.</p>
+ *
+ * <p>In batch mode {@value #BATCH_BUILD_PROPERTY} all builds of single
+ * workspace are executed by one worker one after another.</p>
+ *
+ * <p>The service owns the pool of workers, all workers are stopped
+ * when the Gradle build finishes and the service is closed.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public abstract class NodeBuildService implements BuildService<NodeBuildService.Parameters>, AutoCloseable {
+
+    /** Shared service name */
+    public static final String SERVICE_NAME = "angularNodeBuilds";
+    /** Gradle property defining maximal number of parallel builds */
+    public static final String MAX_PARALLEL_BUILDS_PROPERTY = "angular.maxParallelBuilds";
+    /** Gradle property defining minimal memory of single build in MB */
+    public static final String BUILD_MEMORY_PROPERTY = "angular.buildMemory";
+
+    /** Gradle property enabling long-lived build workers */
+    public static final String BUILD_WORKER_PROPERTY = "angular.buildWorker";
+    /** Gradle property enabling batch builds of workspace projects in single worker */
+    public static final String BATCH_BUILD_PROPERTY = "angular.batchBuild";
+    /** Gradle property defining minutes idle build worker is kept */
+    public static final String WORKER_IDLE_TIMEOUT_PROPERTY = "angular.buildWorker.idleTimeout";
+    /** Gradle property defining memory in MB, build worker using more is stopped */
+    public static final String WORKER_MAX_MEMORY_PROPERTY = "angular.buildWorker.maxMemory";
+
+    /** Default minutes idle build worker is kept */
+    static final int DEFAULT_WORKER_IDLE_TIMEOUT = 10;
+    /** Default minimal memory of single build in MB */
+    static final int DEFAULT_BUILD_MEMORY = 2048;
+    /** Upper limit of memory of single build in MB */
+    static final int MAX_BUILD_MEMORY = 8192;
+    /** Memory in MB left for operating system and other processes */
+    static final long RESERVED_MEMORY = 1024;
+
+    private static final long MB = 1024 * 1024;
+    private static final Path MEMINFO = Paths.get("/proc/meminfo");
+    private static final String MEM_AVAILABLE = "MemAvailable:";
+
+    /**
+     * Build service parameters
+     */
+    public interface Parameters extends BuildServiceParameters {
+
+        /**
+         * Gets maximal number of parallel builds
+         * @return  Number of builds, not present if derived from cores
+         *          and free memory
+         */
+        Property<Integer> getMaxParallelBuilds();
+
+        /**
+         * Gets minimal memory required by single build
+         * @return  Memory in MB
+         */
+        Property<Integer> getBuildMemory();
+
+        /**
+         * Whether builds are executed by long-lived workers
+         * @return  {@code true} if build workers are enabled
+         */
+        Property<Boolean> getBuildWorker();
+
+        /**
+         * Whether builds of the workspace are executed by single worker
+         * @return  {@code true} if batch builds are enabled
+         */
+        Property<Boolean> getBatchBuild();
+
+        /**
+         * Gets time idle build worker is kept
+         * @return  Timeout in minutes
+         */
+        Property<Integer> getWorkerIdleTimeout();
+
+        /**
+         * Gets memory limit of build worker
+         * @return  Memory in MB, not present if derived from memory of
+         *          single build
+         */
+        Property<Integer> getWorkerMaxMemory();
+
+    }
+
+    /**
+     * Registers the service within the build of given project, unless
+     * already registered.
+     * @param project   Any project of the build
+     * @return  Provider of the shared service
+     */
+    public static Provider<NodeBuildService> register(Project project) {
+        ProviderFactory providers = project.getProviders();
+        return project.getGradle().getSharedServices()
+                .registerIfAbsent(SERVICE_NAME, NodeBuildService.class, spec -> {
+                    Provider<Integer> builds = providers.gradleProperty(MAX_PARALLEL_BUILDS_PROPERTY)
+                            .map(value -> parsePositive(MAX_PARALLEL_BUILDS_PROPERTY, value));
+                    spec.getMaxParallelUsages().set(builds);
+                    spec.getParameters().getMaxParallelBuilds().set(builds);
+                    spec.getParameters().getBuildMemory().set(providers.gradleProperty(BUILD_MEMORY_PROPERTY)
+                            .map(value -> parsePositive(BUILD_MEMORY_PROPERTY, value)).orElse(DEFAULT_BUILD_MEMORY));
+                    spec.getParameters().getBuildWorker().set(providers.gradleProperty(BUILD_WORKER_PROPERTY)
+                            .map(Boolean::valueOf).orElse(false));
+                    spec.getParameters().getBatchBuild().set(providers.gradleProperty(BATCH_BUILD_PROPERTY)
+                            .map(Boolean::valueOf).orElse(false));
+                    spec.getParameters().getWorkerIdleTimeout().set(providers.gradleProperty(WORKER_IDLE_TIMEOUT_PROPERTY)
+                            .map(Integer::valueOf).orElse(DEFAULT_WORKER_IDLE_TIMEOUT));
+                    spec.getParameters().getWorkerMaxMemory().set(providers.gradleProperty(WORKER_MAX_MEMORY_PROPERTY)
+                            .map(Integer::valueOf));
+                });
+    }
+
+    private final String batch = UUID.randomUUID().toString();
+    private Limits limits;
+    private NodeBuildWorkers workers;
+
+    /**
+     * Gets memory limit of single build
+     * @return  Memory in MB, zero if not limited
+     */
+    public int getMaxOldSpaceSize() {
+        return getLimits().maxOldSpaceSize;
+    }
+
+    /**
+     * Gets pool of build workers of this build, created on first use
+     * @return  Build workers
+     */
+    public synchronized NodeBuildWorkers getWorkers() {
+        if (workers == null) {
+            workers = new NodeBuildWorkers();
+        }
+        return workers;
+    }
+
+    /**
+     * Waits until another NodeJS build may be started. Each acquired
+     * build must be released once finished.
+     * @throws InterruptedException If interrupted while waiting
+     * @see #release()
+     */
+    public void acquire() throws InterruptedException {
+        getLimits().builds.acquire();
+    }
+
+    /**
+     * Releases build acquired by {@link #acquire()}
+     */
+    public void release() {
+        getLimits().builds.release();
+    }
+
+    /**
+     * Whether builds are executed by long-lived workers
+     * @return  {@code true} if build workers are enabled
+     */
+    public boolean isBuildWorker() {
+        return getParameters().getBuildWorker().get();
+    }
+
+    /**
+     * Gets batch of this build, when builds of the workspace are executed
+     * by single worker
+     * @return  Batch identifier, {@code null} if batch builds are disabled
+     */
+    public String getBatch() {
+        return getParameters().getBatchBuild().get() ? batch : null;
+    }
+
+    /**
+     * Gets time idle build worker is kept
+     * @return  Timeout in minutes
+     */
+    public int getWorkerIdleTimeout() {
+        return getParameters().getWorkerIdleTimeout().get();
+    }
+
+    /**
+     * Gets memory limit of build worker
+     * @return  Memory in MB
+     */
+    public int getWorkerMaxMemory() {
+        return getParameters().getWorkerMaxMemory().getOrElse(getWorkerMaxMemory(getMaxOldSpaceSize()));
+    }
+
+    /**
+     * Stops all build workers started by this build
+     */
+    @Override
+    public void close() {
+        NodeBuildWorkers pool;
+        synchronized (this) {
+            pool = workers;
+            workers = null;
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Computes limits of NodeJS builds from cores and memory free when
+     * the first build is executed
+     */
+    private synchronized Limits getLimits() {
+        if (limits == null) {
+            long availableMemory = getAvailableMemory();
+            int builds = getParameters().getMaxParallelBuilds().getOrElse(getMaxParallelBuilds(
+                    Runtime.getRuntime().availableProcessors(), availableMemory, getParameters().getBuildMemory().get()));
+            limits = new Limits(builds, getMaxOldSpaceSize(availableMemory, builds));
+        }
+        return limits;
+    }
+
+    /**
+     * Parses value of gradle property, which must be positive number
+     * @param property  Gradle property name
+     * @param value     Property value
+     * @return  Parsed number
+     */
+    static int parsePositive(String property, String value) {
+        int number;
+        try {
+            number = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new GradleException("Gradle property '" + property + "' must be a number, but was '" + value + "'");
+        }
+        if (number < 1) {
+            throw new GradleException("Gradle property '" + property + "' must be at least 1, but was " + number);
+        }
+        return number;
+    }
+
+    /**
+     * Computes memory limit of build worker. Worker is stopped once it
+     * uses memory assigned to single build.
+     * @param maxOldSpaceSize   Memory limit of single build in MB, zero
+     *                          if not limited
+     * @return  Memory in MB
+     */
+    static int getWorkerMaxMemory(int maxOldSpaceSize) {
+        return maxOldSpaceSize > 0 ? maxOldSpaceSize : DEFAULT_BUILD_MEMORY;
+    }
+
+    /**
+     * Computes number of builds, which may run in parallel
+     * @param cores             Number of available processors
+     * @param availableMemory   Memory in MB available for builds, negative
+     *                          if unknown
+     * @param buildMemory       Minimal memory in MB of single build
+     * @return  Number of parallel builds, at least one
+     */
+    static int getMaxParallelBuilds(int cores, long availableMemory, int buildMemory) {
+        long builds = availableMemory < 0 ? cores : Math.min(cores, availableMemory / buildMemory);
+        return (int) Math.max(1, builds);
+    }
+
+    /**
+     * Computes memory limit of single build
+     * @param availableMemory   Memory in MB available for builds, negative
+     *                          if unknown
+     * @param builds            Number of parallel builds
+     * @return  Memory in MB, zero if not limited
+     */
+    static int getMaxOldSpaceSize(long availableMemory, int builds) {
+        if (availableMemory <= 0) {
+            return 0;
+        }
+        return (int) Math.min(MAX_BUILD_MEMORY, availableMemory / Math.max(1, builds));
+    }
+
+    /**
+     * Gets physical memory currently free, less memory Gradle daemon may
+     * still claim for its heap and memory reserved for the system
+     * @return  Memory in MB, negative if free memory is unknown
+     */
+    private static long getAvailableMemory() {
+        long free = getMemAvailable(MEMINFO);
+        if (free < 0) {
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (!(os instanceof com.sun.management.OperatingSystemMXBean)) {
+                return -1;
+            }
+            free = ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize() / MB;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return getAvailableMemory(free, (runtime.maxMemory() - runtime.totalMemory()) / MB);
+    }
+
+    /**
+     * Computes memory available for builds
+     * @param freeMemory    Free physical memory in MB
+     * @param heapGrowth    Memory in MB Gradle daemon may still claim for
+     *                      its heap
+     * @return  Memory in MB
+     */
+    static long getAvailableMemory(long freeMemory, long heapGrowth) {
+        return Math.max(0, freeMemory - Math.max(0, heapGrowth) - RESERVED_MEMORY);
+    }
+
+    /**
+     * Reads memory available for new processes on Linux, which unlike
+     * free memory includes reclaimable page cache
+     * @param meminfo   Path of {@code /proc/meminfo}
+     * @return  Memory in MB, negative if not available
+     */
+    static long getMemAvailable(Path meminfo) {
+        if (!Files.isReadable(meminfo)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(meminfo)) {
+            return lines.filter(line -> line.startsWith(MEM_AVAILABLE))
+                    .map(line -> line.substring(MEM_AVAILABLE.length()).trim().split("\\s+")[0])
+                    .mapToLong(Long::parseLong)
+                    .map(kb -> kb / 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | UncheckedIOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Limits of NodeJS builds computed at execution time
+     */
+    private static final class Limits {
+        private final Semaphore builds;
+        private final int maxOldSpaceSize;
+
+        private Limits(int builds, int maxOldSpaceSize) {
+            this.builds = new Semaphore(builds, true);
+            this.maxOldSpaceSize = maxOldSpaceSize;
+        }
+    }
+
+}
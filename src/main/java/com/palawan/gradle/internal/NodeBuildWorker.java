@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Long-lived NodeJS process executing angular builds by script
+ * {@code META-INF/scripts/ng-worker.js}. Builds are requested by line
+ * delimited JSON on the process standard input and the worker reports
+ * console output and the build result on its standard output. Single
+ * worker executes one build at a time. Build output is logged line by
+ * line by given logger, errors are logged at error level.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class NodeBuildWorker implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long MB = 1024 * 1024;
+
+    private final Process process;
+    private final String lockFileDigest;
+    private final BufferedWriter requests;
+    private final BufferedReader messages;
+    private long requestId;
+    private long memory;
+    private long idleTimeout;
+    private long lastUsed = System.currentTimeMillis();
+
+    private NodeBuildWorker(Process process, String lockFileDigest) {
+        this.process = process;
+        this.lockFileDigest = lockFileDigest;
+        this.requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.messages = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Starts worker process
+     * @param commandLine   Angular CLI command line defining NodeJS
+     *                      executable and its environment
+     * @param script        Worker script
+     * @param workingDir    Working directory of the process
+     * @param lockFileDigest    Digest of workspace lock files the worker
+     *                          loads angular CLI with
+     * @return  Started worker
+     */
+    static NodeBuildWorker start(NodeCommandLine commandLine, Path script, File workingDir, String lockFileDigest) {
+        List<String> command = new ArrayList<>();
+        command.add(commandLine.getExecutable());
+        command.add(script.toString());
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workingDir)
+                .redirectErrorStream(true);
+        builder.environment().putAll(commandLine.getEnvironment());
+        try {
+            return new NodeBuildWorker(builder.start(), lockFileDigest);
+        } catch (IOException e) {
+            throw new GradleException("Unable to start angular build worker: " + String.join(" ", command), e);
+        }
+    }
+
+    /**
+     * Executes angular CLI within the worker and waits for its result
+     * @param commandLine   Angular CLI command line, its script and
+     *                      arguments are sent to the worker
+     * @param workingDir    Angular workspace directory
+     * @param logger        Logger of build output
+     * @return  Exit code of the build, empty if angular CLI does not
+     *          support execution by the worker
+     * @throws IOException  If the worker terminated or can't be reached
+     */
+    OptionalInt build(NodeCommandLine commandLine, File workingDir, Logger logger) throws IOException {
+        List<String> arguments = commandLine.getArguments();
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("id", ++requestId);
+        request.put("cwd", workingDir.getAbsolutePath());
+        request.put("cli", arguments.get(0));
+        arguments.subList(1, arguments.size()).forEach(request.putArray("args")::add);
+
+        requests.write(MAPPER.writeValueAsString(request));
+        requests.newLine();
+        requests.flush();
+
+        LogOutput out = new LogOutput(logger::quiet);
+        LogOutput err = new LogOutput(logger::error);
+        try {
+            String line;
+            while ((line = messages.readLine()) != null) {
+                JsonNode message = parse(line);
+                if (message == null) {
+                    // output of child processes is not wrapped
+                    logger.quiet(line);
+                    continue;
+                }
+
+                String type = message.path("type").asText();
+                if ("out".equals(type)) {
+                    out.write(message.path("data").asText());
+                } else if ("err".equals(type)) {
+                    err.write(message.path("data").asText());
+                } else if ("done".equals(type) && message.path("id").asLong() == requestId) {
+                    memory = message.path("rss").asLong() / MB;
+                    return message.path("unsupported").asBoolean()
+                            ? OptionalInt.empty()
+                            : OptionalInt.of(message.path("exitCode").asInt(1));
+                }
+            }
+            throw new IOException("Angular build worker terminated unexpectedly");
+        } finally {
+            out.flush();
+            err.flush();
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Gets digest of workspace lock files the worker was started with
+     * @return  Lock file digest
+     */
+    String getLockFileDigest() {
+        return lockFileDigest;
+    }
+
+    /**
+     * Gets time the worker is kept idle
+     * @return  Timeout in milliseconds
+     */
+    long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets time the worker is kept idle after its last build
+     * @param idleTimeout   Timeout in milliseconds
+     */
+    void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Gets memory used by the worker after its last build
+     * @return  Resident memory in MB
+     */
+    long getMemory() {
+        return memory;
+    }
+
+    /**
+     * Gets time the worker finished its last build
+     * @return  Time in milliseconds
+     */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Closes worker standard input, so the worker exits once its builds
+     * finish. The process is killed if it does not exit in time.
+     */
+    @Override
+    public void close() {
+        try {
+            requests.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static JsonNode parse(String line) {
+        if (!line.startsWith("{")) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(line);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Collects output chunks of the worker and logs complete lines
+     */
+    private static final class LogOutput {
+        private final Consumer<String> log;
+        private final StringBuilder buffer = new StringBuilder();
+
+        private LogOutput(Consumer<String> log) {
+            this.log = log;
+        }
+
+        private void write(String data) {
+            buffer.append(data);
+            int end;
+            while ((end = buffer.indexOf("\n")) >= 0) {
+                log(buffer.substring(0, end));
+                buffer.delete(0, end + 1);
+            }
+        }
+
+        private void flush() {
+            if (buffer.length() > 0) {
+                log(buffer.toString());
+                buffer.setLength(0);
+            }
+        }
+
+        private void log(String line) {
+            log.accept(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+        }
+    }
+
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.util.AngularJsonHelper;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of angular build workers owned by {@link NodeBuildService}, so
+ * workers live as long as the Gradle build. Successive angular builds
+ * of the same workspace reuse already loaded angular CLI modules, each
+ * build still creates its own compilation. Idle workers are kept per
+ * NodeJS command line and workspace. Worker is stopped once it is idle for longer than its
+ * idle timeout, once its memory exceeds given limit, or once workspace
+ * lock files change, as it keeps previously installed CLI loaded.
+ *
+ * <p>Angular CLI without {@code lib/cli} entry point can't be executed
+ * by the worker, such builds are reported as unsupported and should be
+ * executed by separate process.</p>
+ *
+ * <p>Builds of a batch are executed by single worker per workspace one
+ * after another, in order they were requested. Batch workers are held
+ * until the batch is closed. All workers are stopped once the pool is
+ * closed.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class NodeBuildWorkers implements AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(NodeBuildWorkers.class);
+    private static final String SCRIPT = "/META-INF/scripts/ng-worker.js";
+
+    private final Map<String, Deque<NodeBuildWorker>> idle = new HashMap<>();
+    private final Map<String, Map<String, BatchWorker>> batches = new HashMap<>();
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+    private final Thread shutdownHook = new Thread(this::closeAll, "angular-build-workers-shutdown");
+    private ScheduledExecutorService reaper;
+    private Path script;
+
+    /**
+     * Creates empty pool, workers are stopped when the pool is closed
+     * or the JVM exits
+     */
+    public NodeBuildWorkers() {
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Executes angular CLI by idle worker of the same command line and
+     * workspace, or by newly started worker
+     * @param commandLine   Angular CLI command line
+     * @param workingDir    Angular workspace directory
+     * @param idleTimeout   Minutes the worker is kept after the build
+     * @param maxMemory     Memory in MB, the worker is stopped if it
+     *                      uses more after the build
+     * @param logger        Logger of build output
+     * @return  Exit code of the build, empty if angular CLI does not
+     *          support execution by the worker
+     */
+    public OptionalInt build(NodeCommandLine commandLine, File workingDir, int idleTimeout, int maxMemory, Logger logger) {
+        String key = getKey(commandLine, workingDir);
+        String digest = getLockFileDigest(commandLine);
+        if (isUnsupported(commandLine, digest)) {
+            return OptionalInt.empty();
+        }
+
+        NodeBuildWorker worker = acquire(key, digest);
+        if (worker == null) {
+            LOGGER.info("Starting angular build worker for {}", workingDir);
+            worker = NodeBuildWorker.start(commandLine, getScript(), workingDir, digest);
+        }
+
+        OptionalInt exitCode;
+        try {
+            exitCode = worker.build(commandLine, workingDir, logger);
+        } catch (IOException e) {
+            worker.close();
+            throw new GradleException("Angular build worker failed: " + commandLine, e);
+        }
+
+        if (exitCode.isEmpty()) {
+            setUnsupported(commandLine, digest);
+            worker.close();
+        } else if (worker.getMemory() > maxMemory) {
+            LOGGER.info("Stopping angular build worker using {} MB", worker.getMemory());
+            worker.close();
+        } else {
+            release(key, worker, TimeUnit.MINUTES.toMillis(idleTimeout));
+        }
+        return exitCode;
+    }
+
+    /**
+     * Executes angular CLI by the batch worker of the same command line
+     * and workspace. Builds of the batch are executed one at a time,
+     * in order they were requested.
+     * @param batch         Batch identifier
+     * @param commandLine   Angular CLI command line
+     * @param workingDir    Angular workspace directory
+     * @param idleTimeout   Minutes the worker is kept after the batch
+     *                      is closed
+     * @param maxMemory     Memory in MB, the worker is replaced if it
+     *                      uses more after the build
+     * @param logger        Logger of build output
+     * @return  Exit code of the build, empty if angular CLI does not
+     *          support execution by the worker
+     */
+    public OptionalInt buildInBatch(String batch, NodeCommandLine commandLine, File workingDir, int idleTimeout, int maxMemory, Logger logger) {
+        String key = getKey(commandLine, workingDir);
+        String digest = getLockFileDigest(commandLine);
+        if (isUnsupported(commandLine, digest)) {
+            return OptionalInt.empty();
+        }
+
+        BatchWorker batchWorker;
+        synchronized (this) {
+            batchWorker = batches.computeIfAbsent(batch, b -> new HashMap<>()).computeIfAbsent(key, k -> new BatchWorker());
+        }
+
+        batchWorker.lock.lock();
+        try {
+            batchWorker.idleTimeout = TimeUnit.MINUTES.toMillis(idleTimeout);
+            if (batchWorker.worker != null && !isReusable(batchWorker.worker, digest)) {
+                batchWorker.worker.close();
+                batchWorker.worker = null;
+            }
+            if (batchWorker.worker == null) {
+                batchWorker.worker = acquire(key, digest);
+            }
+            if (batchWorker.worker == null) {
+                LOGGER.info("Starting angular batch build worker for {}", workingDir);
+                batchWorker.worker = NodeBuildWorker.start(commandLine, getScript(), workingDir, digest);
+            }
+
+            OptionalInt exitCode = batchWorker.worker.build(commandLine, workingDir, logger);
+            if (exitCode.isEmpty()) {
+                setUnsupported(commandLine, digest);
+                batchWorker.worker.close();
+                batchWorker.worker = null;
+            } else if (batchWorker.worker.getMemory() > maxMemory) {
+                LOGGER.info("Stopping angular batch build worker using {} MB", batchWorker.worker.getMemory());
+                batchWorker.worker.close();
+                batchWorker.worker = null;
+            }
+            return exitCode;
+        } catch (IOException e) {
+            batchWorker.worker.close();
+            batchWorker.worker = null;
+            throw new GradleException("Angular build worker failed: " + commandLine, e);
+        } finally {
+            batchWorker.lock.unlock();
+        }
+    }
+
+    /**
+     * Closes workers of given batch
+     * @param batch Batch identifier
+     * @param keep  Whether workers are kept for later builds until
+     *              idle timeout, otherwise those are stopped
+     */
+    public void closeBatch(String batch, boolean keep) {
+        Map<String, BatchWorker> workers;
+        synchronized (this) {
+            workers = batches.remove(batch);
+        }
+        if (workers == null) {
+            return;
+        }
+
+        workers.forEach((key, batchWorker) -> {
+            batchWorker.lock.lock();
+            try {
+                if (batchWorker.worker == null) {
+                    return;
+                }
+                if (keep && batchWorker.worker.isAlive()) {
+                    release(key, batchWorker.worker, batchWorker.idleTimeout);
+                } else {
+                    batchWorker.worker.close();
+                }
+                batchWorker.worker = null;
+            } finally {
+                batchWorker.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Stops all workers of the pool including workers of open batches
+     */
+    @Override
+    public void close() {
+        Path workerScript;
+        synchronized (this) {
+            if (reaper != null) {
+                reaper.shutdownNow();
+                reaper = null;
+            }
+            workerScript = script;
+            script = null;
+        }
+        closeAll();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM is already shutting down
+        }
+        if (workerScript != null) {
+            try {
+                Files.deleteIfExists(workerScript);
+            } catch (IOException e) {
+                LOGGER.debug("Unable to delete angular build worker script {}", workerScript, e);
+            }
+        }
+    }
+
+    private static String getKey(NodeCommandLine commandLine, File workingDir) {
+        return commandLine.getExecutable() + commandLine.getEnvironment() + commandLine.getArguments().get(0) + workingDir;
+    }
+
+    /**
+     * Gets digest of workspace lock files, workers started before the
+     * lock files changed keep outdated angular CLI loaded
+     */
+    private static String getLockFileDigest(NodeCommandLine commandLine) {
+        try {
+            return NodeModulesFingerprint.getLockFileDigest(commandLine.getNodeModules());
+        } catch (IOException e) {
+            LOGGER.debug("Unable to compute lock file digest of {}", commandLine.getNodeModules(), e);
+            return "";
+        }
+    }
+
+    private static boolean isReusable(NodeBuildWorker worker, String digest) {
+        return worker.isAlive() && digest.equals(worker.getLockFileDigest());
+    }
+
+    private boolean isUnsupported(NodeCommandLine commandLine, String digest) {
+        return unsupported.contains(commandLine.getArguments().get(0) + digest);
+    }
+
+    private void setUnsupported(NodeCommandLine commandLine, String digest) {
+        LOGGER.info("Angular CLI {} does not support build workers, building by separate process", commandLine.getArguments().get(0));
+        unsupported.add(commandLine.getArguments().get(0) + digest);
+    }
+
+    /**
+     * Gets idle worker of given key loaded with the same lock files.
+     * Workers of outdated lock files are stopped.
+     */
+    private NodeBuildWorker acquire(String key, String digest) {
+        List<NodeBuildWorker> outdated = new ArrayList<>();
+        NodeBuildWorker acquired = null;
+        synchronized (this) {
+            Deque<NodeBuildWorker> workers = idle.get(key);
+            while (acquired == null && workers != null && !workers.isEmpty()) {
+                NodeBuildWorker worker = workers.pop();
+                if (isReusable(worker, digest)) {
+                    acquired = worker;
+                } else {
+                    outdated.add(worker);
+                }
+            }
+        }
+        outdated.forEach(NodeBuildWorker::close);
+        return acquired;
+    }
+
+    private synchronized void release(String key, NodeBuildWorker worker, long idleTimeout) {
+        worker.setIdleTimeout(idleTimeout);
+        idle.computeIfAbsent(key, k -> new ArrayDeque<>()).push(worker);
+        if (reaper == null) {
+            reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "angular-build-workers");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reaper.scheduleWithFixedDelay(this::closeIdle, 30, 30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops workers idle for longer than their idle timeout
+     */
+    private void closeIdle() {
+        List<NodeBuildWorker> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            idle.values().forEach(workers -> workers.removeIf(w -> {
+                boolean remove = !w.isAlive() || now - w.getLastUsed() > w.getIdleTimeout();
+                if (remove) {
+                    expired.add(w);
+                }
+                return remove;
+            }));
+        }
+        expired.forEach(NodeBuildWorker::close);
+    }
+
+    private void closeAll() {
+        List<NodeBuildWorker> workers = new ArrayList<>();
+        synchronized (this) {
+            idle.values().forEach(workers::addAll);
+            idle.clear();
+            batches.values().forEach(b -> b.values().stream()
+                    .map(w -> w.worker).filter(Objects::nonNull).forEach(workers::add));
+            batches.clear();
+        }
+        workers.forEach(NodeBuildWorker::close);
+    }
+
+    /**
+     * Writes worker script into temporary file once per pool
+     */
+    private synchronized Path getScript() {
+        if (script == null || !Files.isRegularFile(script)) {
+            try {
+                script = Files.createTempFile("ng-worker", ".js");
+                Files.writeString(script, AngularJsonHelper.getInstance().resourceToString(SCRIPT), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new GradleException("Unable to write angular build worker script", e);
+            }
+        }
+        return script;
+    }
+
+    /**
+     * Worker of a batch, builds are executed in order they were requested
+     */
+    private static class BatchWorker {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private NodeBuildWorker worker;
+        private long idleTimeout;
+    }
+
+}
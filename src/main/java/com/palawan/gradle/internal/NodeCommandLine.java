@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.tasks.AngularCli;
+import com.palawan.gradle.tasks.AngularInstall;
+import org.gradle.api.GradleException;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line of angular CLI executed directly by NodeJS, without
+ * packager in between, or command line of packager running script of
+ * package.json. Downloaded NodeJS is located the same way as by
+ * generated {@code ng} scripts, i.e. {@code <node_path>/<version>/bin/node}
+ * or {@code <node_path>\<version>\node.exe} on Windows, where the version
+ * directory matches configured NodeJS version. Otherwise NodeJS is
+ * searched on system path.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class NodeCommandLine implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** NodeJS options environment variable */
+    static final String NODE_OPTIONS = "NODE_OPTIONS";
+    private static final String PATH = "PATH";
+
+    /**
+     * Creates command line executing angular CLI
+     * @param nodeDirectory     Directory with downloaded NodeJS, {@code null}
+     *                          if system NodeJS is used
+     * @param nodeVersion       Configured NodeJS version, {@code null} if
+     *                          not known
+     * @param nodeModules       Node modules with installed angular CLI
+     * @param arguments         Angular CLI arguments
+     * @param maxOldSpaceSize   Memory limit in MB, zero if not limited
+     * @return  Command line
+     */
+    public static NodeCommandLine of(@Nullable Path nodeDirectory, @Nullable String nodeVersion, Path nodeModules, List<String> arguments, int maxOldSpaceSize) {
+        Map<String, String> environment = System.getenv();
+        boolean windows = File.pathSeparatorChar == ';';
+        Path node = nodeDirectory == null
+                ? findOnPath(environment, windows ? "node.exe" : "node")
+                : findDownloaded(nodeDirectory, nodeVersion, windows);
+
+        List<Path> binDirectories = new ArrayList<>();
+        if (nodeDirectory != null) {
+            // scripts started by angular CLI use the same NodeJS
+            binDirectories.add(node.getParent());
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(nodeModules.resolve(AngularInstall.ANGULAR_PACKAGE_NAME).resolve(AngularCli.ANGULAR_CLI).toString());
+        args.addAll(arguments);
+
+        return new NodeCommandLine(node.toString(), args, getEnvironment(environment, binDirectories, maxOldSpaceSize), nodeModules.toString());
+    }
+
+    /**
+     * Creates command line running script of package.json by packager,
+     * e.g. {@code npm run build}. Directories of downloaded NodeJS and
+     * packager are prepended to system path, so the script uses the same
+     * NodeJS as the plugin.
+     * @param nodeDirectory     Directory with downloaded NodeJS, {@code null}
+     *                          if system NodeJS is used
+     * @param nodeVersion       Configured NodeJS version, {@code null} if
+     *                          not known
+     * @param packager          Packager executable name, e.g. {@code npm}
+     * @param packagerDirectory Directory of packager executable, {@code null}
+     *                          if packager is searched on system path
+     * @param nodeModules       Node modules with installed angular CLI
+     * @param arguments         Packager arguments
+     * @param maxOldSpaceSize   Memory limit in MB, zero if not limited
+     * @return  Command line
+     */
+    public static NodeCommandLine ofPackager(@Nullable Path nodeDirectory, @Nullable String nodeVersion, String packager,
+                                             @Nullable Path packagerDirectory, Path nodeModules, List<String> arguments, int maxOldSpaceSize) {
+        Map<String, String> environment = System.getenv();
+        boolean windows = File.pathSeparatorChar == ';';
+
+        List<Path> binDirectories = new ArrayList<>();
+        if (nodeDirectory != null) {
+            binDirectories.add(findDownloaded(nodeDirectory, nodeVersion, windows).getParent());
+        }
+        if (packagerDirectory != null && !binDirectories.contains(packagerDirectory)) {
+            binDirectories.add(packagerDirectory);
+        }
+
+        String executable = windows ? packager + ".cmd" : packager;
+        Path packagerExecutable = packagerDirectory != null && Files.isRegularFile(packagerDirectory.resolve(executable))
+                ? packagerDirectory.resolve(executable)
+                : findOnPath(environment, executable);
+
+        return new NodeCommandLine(packagerExecutable.toString(), new ArrayList<>(arguments),
+                getEnvironment(environment, binDirectories, maxOldSpaceSize), nodeModules.toString());
+    }
+
+    private final String executable;
+    private final List<String> arguments;
+    private final Map<String, String> environment;
+    private final String nodeModules;
+
+    NodeCommandLine(String executable, List<String> arguments, Map<String, String> environment, String nodeModules) {
+        this.executable = executable;
+        this.arguments = Collections.unmodifiableList(arguments);
+        this.environment = Collections.unmodifiableMap(environment);
+        this.nodeModules = nodeModules;
+    }
+
+    /**
+     * NodeJS or packager executable
+     * @return  Executable path
+     */
+    public String getExecutable() {
+        return executable;
+    }
+
+    /**
+     * Process arguments, angular CLI script followed by its arguments,
+     * or packager arguments
+     * @return  Process arguments
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Environment variables overriding environment of Gradle
+     * @return  Environment variables
+     */
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Node modules with installed angular CLI
+     * @return  Node modules directory
+     */
+    public Path getNodeModules() {
+        return Path.of(nodeModules);
+    }
+
+    @Override
+    public String toString() {
+        return executable + " " + String.join(" ", arguments);
+    }
+
+    /**
+     * Locates NodeJS executable downloaded into given directory. Version
+     * directory is matched by configured version, single installed
+     * version is used if the version is not known.
+     */
+    private static Path findDownloaded(Path nodeDirectory, @Nullable String version, boolean windows) {
+        List<Path> installed;
+        try (Stream<Path> versions = Files.list(nodeDirectory)) {
+            installed = versions.filter(Files::isDirectory)
+                    .filter(v -> Files.isRegularFile(getExecutable(v, windows)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new GradleException("NodeJS is not installed in " + nodeDirectory, e);
+        }
+
+        Optional<Path> matching = version == null ? Optional.empty() : installed.stream()
+                .filter(v -> isVersion(v.getFileName().toString(), version))
+                .findFirst();
+        if (matching.isPresent()) {
+            return getExecutable(matching.get(), windows);
+        }
+        if (installed.size() == 1) {
+            return getExecutable(installed.get(0), windows);
+        }
+        if (installed.isEmpty()) {
+            throw new GradleException("NodeJS is not installed in " + nodeDirectory);
+        }
+        throw new GradleException("NodeJS " + (version == null ? "version" : version) + " cannot be resolved in "
+                + nodeDirectory + ", installed versions: " + installed.stream()
+                .map(v -> v.getFileName().toString()).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Checks, whether version directory name matches version, such as
+     * {@code 16.13.2}, {@code v16.13.2} or {@code node-v16.13.2-linux-x64}
+     */
+    static boolean isVersion(String directory, String version) {
+        String plain = version.startsWith("v") ? version.substring(1) : version;
+        return directory.equals(plain)
+                || directory.equals("v" + plain)
+                || directory.equals("node-v" + plain)
+                || directory.startsWith("node-v" + plain + "-");
+    }
+
+    private static Path getExecutable(Path versionDirectory, boolean windows) {
+        return windows ? versionDirectory.resolve("node.exe") : versionDirectory.resolve("bin").resolve("node");
+    }
+
+    /**
+     * Creates environment overrides prepending given directories to
+     * system path and limiting memory of NodeJS processes
+     */
+    private static Map<String, String> getEnvironment(Map<String, String> environment, List<Path> binDirectories, int maxOldSpaceSize) {
+        Map<String, String> overrides = new LinkedHashMap<>();
+        if (!binDirectories.isEmpty()) {
+            String pathKey = environment.keySet().stream().filter(PATH::equalsIgnoreCase).findFirst().orElse(PATH);
+            String path = environment.get(pathKey);
+            overrides.put(pathKey, binDirectories.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator))
+                    + (path == null ? "" : File.pathSeparator + path));
+        }
+        if (maxOldSpaceSize > 0) {
+            String options = environment.get(NODE_OPTIONS);
+            overrides.put(NODE_OPTIONS, (options == null || options.isEmpty() ? "" : options + " ")
+                    + "--max-old-space-size=" + maxOldSpaceSize);
+        }
+        return overrides;
+    }
+
+    /**
+     * Locates executable on system path, returns plain executable name
+     * if not found, so process execution reports the failure.
+     */
+    private static Path findOnPath(Map<String, String> environment, String executable) {
+        Optional<String> path = environment.entrySet().stream()
+                .filter(e -> PATH.equalsIgnoreCase(e.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst();
+        return path.flatMap(p -> Stream.of(p.split(File.pathSeparator))
+                        .filter(d -> !d.isEmpty())
+                        .map(d -> Path.of(d, executable))
+                        .filter(Files::isRegularFile)
+                        .findFirst())
+                .orElse(Path.of(executable));
+    }
+
+}
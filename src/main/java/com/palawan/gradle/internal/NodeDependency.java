@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.util.ProjectUtil;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Resolved node library dependency along with its target location
+ * inside node_modules directory. The value is detached from project
+ * model, so it can be stored by configuration cache.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class NodeDependency implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Resolves given configuration into list of node dependencies.
+     * Zipped libraries are resolved as directories extracted by
+     * {@link UnzipNodeLibrary} transform.
+     * @param project       Project resolving the configuration
+     * @param configuration Configuration of node libraries
+     * @return  Resolved node dependencies
+     */
+    public static List<NodeDependency> resolve(Project project, Configuration configuration) {
+        Map<String, File> extracted = new HashMap<>();
+        configuration.getIncoming()
+                .artifactView(view -> view.getAttributes()
+                        .attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactTypeDefinition.DIRECTORY_TYPE))
+                .getArtifacts()
+                .forEach(a -> extracted.put(key(a.getId().getComponentIdentifier(), a.getFile().getName()), a.getFile()));
+
+        return configuration.getResolvedConfiguration().getResolvedArtifacts().stream()
+                .map(a -> of(project, a, extracted))
+                .collect(Collectors.toList());
+    }
+
+    private static NodeDependency of(Project project, ResolvedArtifact artifact, Map<String, File> extracted) {
+        File target = ProjectUtil.getNodeModulesTarget(
+                project,
+                artifact.getModuleVersion().getId().getGroup(),
+                artifact.getName()).toFile();
+
+        if (ArtifactTypeDefinition.ZIP_TYPE.equals(artifact.getType())) {
+            File directory = extracted.get(key(artifact.getId().getComponentIdentifier(),
+                    UnzipNodeLibrary.getDirectoryName(artifact.getFile())));
+            if (directory != null) {
+                return new NodeDependency(directory, ArtifactTypeDefinition.DIRECTORY_TYPE, target);
+            }
+        }
+        return new NodeDependency(artifact.getFile(), artifact.getType(), target);
+    }
+
+    private static String key(ComponentIdentifier component, String fileName) {
+        return component.getDisplayName() + '/' + fileName;
+    }
+
+    private final File artifact;
+    private final String type;
+    private final File target;
+
+    public NodeDependency(File artifact, String type, File target) {
+        this.artifact = artifact;
+        this.type = type;
+        this.target = target;
+    }
+
+    /**
+     * Gets resolved artifact file
+     * @return  Artifact file
+     */
+    public File getArtifact() {
+        return artifact;
+    }
+
+    /**
+     * Gets artifact type e.g. zip or directory
+     * @return  Artifact type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets library location inside node_modules
+     * @return  Library location
+     */
+    public File getTarget() {
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        return artifact.getName() + " -> " + target;
+    }
+}
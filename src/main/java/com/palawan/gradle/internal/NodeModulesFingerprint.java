@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight fingerprint of installed node_modules directory. Instead
+ * of walking the whole directory the fingerprint is derived from lock
+ * files of the workspace and lock files written by packagers into
+ * node_modules on each installation.
+ *
+ * <p>The fingerprint is stored as {@link ContentFingerprint} manifest
+ * in node_modules directory. It serves as a marker of finished
+ * installation, which is cheap to track by Gradle.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class NodeModulesFingerprint {
+
+    /** Lock files of supported node packagers within workspace */
+    public static final List<String> LOCK_FILES = List.of(
+            "package-lock.json", "npm-shrinkwrap.json", "yarn.lock", "pnpm-lock.yaml");
+    /** Lock files written by packagers into node_modules directory */
+    public static final List<String> INSTALLED_LOCK_FILES = List.of(
+            ".package-lock.json", ".yarn-integrity", ".modules.yaml");
+
+    private NodeModulesFingerprint() {
+    }
+
+    /**
+     * Computes fingerprint of node_modules directory
+     * @param nodeModules   Node modules directory
+     * @return  Fingerprint of workspace and installed lock files
+     * @throws IOException  If any lock file can not be read
+     */
+    public static ContentFingerprint of(Path nodeModules) throws IOException {
+        return ContentFingerprint.of(nodeModules.getParent(), getLockFilePaths(nodeModules));
+    }
+
+    /**
+     * Computes digest of workspace lock files only
+     * @param nodeModules   Node modules directory
+     * @return  Hex encoded digest of workspace lock files
+     * @throws IOException  If any lock file can not be read
+     */
+    public static String getLockFileDigest(Path nodeModules) throws IOException {
+        return ContentFingerprint.of(nodeModules.getParent(), LOCK_FILES).getDigest();
+    }
+
+    /**
+     * Gets existing lock files of workspace and node_modules directory
+     * @param nodeModules   Node modules directory
+     * @return  Existing lock files
+     */
+    public static List<File> getLockFiles(Path nodeModules) {
+        Path workspace = nodeModules.getParent();
+        return getLockFilePaths(nodeModules).stream()
+                .map(workspace::resolve)
+                .filter(Files::isRegularFile)
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets fingerprint manifest file
+     * @param nodeModules   Node modules directory
+     * @return  Fingerprint manifest file
+     */
+    public static File getMarker(Path nodeModules) {
+        return nodeModules.resolve(ContentFingerprint.FILE_NAME).toFile();
+    }
+
+    /**
+     * Verifies the stored fingerprint matches current lock files.
+     * @param nodeModules   Node modules directory
+     * @return  {@code true} if fingerprint was stored and lock files
+     *          did not change since
+     */
+    public static boolean isUpToDate(Path nodeModules) {
+        try {
+            Optional<String> stored = ContentFingerprint.readDigest(nodeModules);
+            return stored.isPresent() && Objects.equals(stored.get(), of(nodeModules).getDigest());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores fingerprint of current lock files into node_modules directory
+     * @param nodeModules   Node modules directory
+     * @throws IOException  If fingerprint can not be computed or written
+     */
+    public static void write(Path nodeModules) throws IOException {
+        Files.createDirectories(nodeModules);
+        of(nodeModules).write(nodeModules);
+    }
+
+    private static List<String> getLockFilePaths(Path nodeModules) {
+        List<String> paths = new ArrayList<>(LOCK_FILES);
+        String directory = nodeModules.getFileName().toString();
+        INSTALLED_LOCK_FILES.stream().map(f -> directory + "/" + f).forEach(paths::add);
+        return paths;
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.AngularBasePlugin;
+import com.palawan.gradle.dsl.AngularExtension;
+import org.gradle.api.Project;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Build service indexing angular project hierarchy. For each project
+ * path it keeps path of the top level angular project, its node_modules
+ * location and node_modules directory of the group resolved from angular
+ * extension, so the parent chain of a project is walked only once per
+ * build. The index does not hold any {@link Project} instance.
+ *
+ * <p>Index entry of a project depends on plugins applied to its parents
+ * only, therefore {@link #pluginApplied(Project)} drops entries of all
+ * sub-projects of given project. Group directory is kept once
+ * the project is evaluated, as the group may be changed by build script
+ * until then.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public abstract class ProjectHierarchyIndex implements BuildService<BuildServiceParameters.None> {
+
+    /** Shared service name */
+    public static final String SERVICE_NAME = "angularProjectHierarchy";
+
+    /**
+     * Gets the index of the build of given project
+     * @param project   Any project of the build
+     * @return  Project hierarchy index
+     */
+    public static ProjectHierarchyIndex get(Project project) {
+        return project.getGradle().getSharedServices()
+                .registerIfAbsent(SERVICE_NAME, ProjectHierarchyIndex.class, spec -> {})
+                .get();
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the highest parent of given project with angular plugin
+     * applied or the project itself if there is no such parent.
+     * @param project   Project to get highest parent from
+     * @return  Top level angular project
+     */
+    public Project getTopLevelProject(Project project) {
+        String path = getEntry(project).topLevelPath;
+        return path.equals(project.getPath()) ? project : project.project(path);
+    }
+
+    /**
+     * Gets node_modules location of given project
+     * @param project   Project to get node modules for
+     * @return  node_modules path
+     */
+    public Path getNodeModules(Project project) {
+        return getEntry(project).nodeModules;
+    }
+
+    /**
+     * Gets target location inside node_modules directory for given
+     * artifact. Group of angular extension takes precedence over
+     * the artifact group.
+     * @param project       Project to get node modules for
+     * @param artifactGroup Artifact group, used only if angular extension
+     *                      does not define group
+     * @param artifactName  Artifact name
+     * @return  Location of given artifact
+     */
+    public Path getNodeModulesTarget(Project project, String artifactGroup, String artifactName) {
+        Entry entry = getEntry(project);
+        Path groupDirectory;
+        if (entry.groupResolved) {
+            groupDirectory = entry.groupDirectory;
+        } else {
+            String group = AngularExtension.get(project).getGroup();
+            groupDirectory = group == null ? null : entry.nodeModules.resolve(group);
+            if (project.getState().getExecuted()) {
+                entry.groupDirectory = groupDirectory;
+                entry.groupResolved = true;
+            }
+        }
+        return (groupDirectory == null ? entry.nodeModules.resolve(artifactGroup) : groupDirectory).resolve(artifactName);
+    }
+
+    /**
+     * Notifies index about angular plugin applied to given project
+     * @param project   Project with angular plugin
+     */
+    public void pluginApplied(Project project) {
+        String prefix = project.getParent() == null ? Project.PATH_SEPARATOR : project.getPath() + Project.PATH_SEPARATOR;
+        entries.keySet().removeIf(path -> path.startsWith(prefix) && path.length() > prefix.length());
+    }
+
+    private Entry getEntry(Project project) {
+        Entry entry = entries.get(project.getPath());
+        if (entry == null) {
+            // computeIfAbsent can not be used for recursive computation
+            entry = createEntry(project);
+            Entry current = entries.putIfAbsent(project.getPath(), entry);
+            if (current != null) {
+                entry = current;
+            }
+        }
+        return entry;
+    }
+
+    private Entry createEntry(Project project) {
+        Project parent = project.getParent();
+        Entry topLevel = null;
+
+        if (parent != null) {
+            Entry parentEntry = getEntry(parent);
+            if (!parentEntry.topLevelPath.equals(parent.getPath())
+                    || parent.getPlugins().hasPlugin(AngularBasePlugin.class)) {
+                topLevel = parentEntry;
+            }
+        }
+
+        return topLevel != null
+                ? new Entry(topLevel.topLevelPath, topLevel.nodeModules)
+                : new Entry(project.getPath(), project.getProjectDir().toPath().resolve(AngularExtension.NODE_MODULES));
+    }
+
+    private static class Entry {
+        private final String topLevelPath;
+        private final Path nodeModules;
+        @Nullable
+        private volatile Path groupDirectory;
+        private volatile boolean groupResolved;
+
+        private Entry(String topLevelPath, Path nodeModules) {
+            this.topLevelPath = topLevelPath;
+            this.nodeModules = nodeModules;
+        }
+    }
+
+}
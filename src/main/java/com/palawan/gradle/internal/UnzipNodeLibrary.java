@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Artifact transform extracting zipped node library into directory.
+ * Gradle keeps the result in its transform cache, so each library
+ * version is extracted once and shared by all projects and builds.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+@CacheableTransform
+public abstract class UnzipNodeLibrary implements TransformAction<TransformParameters.None> {
+
+    /** Extension of zipped node library */
+    private static final String ZIP_EXTENSION = ".zip";
+
+    /**
+     * Gets name of directory with extracted library
+     * @param archive   Zipped library
+     * @return  Directory name
+     */
+    public static String getDirectoryName(File archive) {
+        String name = archive.getName();
+        return name.endsWith(ZIP_EXTENSION) ? name.substring(0, name.length() - ZIP_EXTENSION.length()) : name;
+    }
+
+    /**
+     * Zipped node library
+     * @return  Library archive
+     */
+    @InputArtifact
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public void transform(TransformOutputs outputs) {
+        File archive = getInputArtifact().get().getAsFile();
+        File directory = outputs.dir(getDirectoryName(archive));
+
+        try {
+            ZipSync.extract(archive, directory.toPath());
+
+        } catch (IOException e) {
+            throw new GradleException("Unable to extract node library " + archive, e);
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Version specification of node package as used by npm. Supported are
+ * exact and partial versions, wildcards ({@code 12.x}, {@code *}),
+ * caret and tilde ranges, comparators ({@code >=12.0.0 <13}), hyphen
+ * ranges and their {@code ||} unions. Dist-tags, such as {@code latest},
+ * are satisfied by no version, as the version they point to is known
+ * to the registry only.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class VersionSpec {
+
+    /** Dist-tag of the most recent version */
+    public static final String LATEST = "latest";
+
+    private static final Pattern COMPARATOR = Pattern.compile(
+            "^(<=|>=|<|>|=|\\^|~)?\\s*v?(\\*|x|X|\\d+)(?:\\.(\\*|x|X|\\d+))?(?:\\.(\\*|x|X|\\d+))?(?:-([0-9A-Za-z.-]+))?(?:\\+[0-9A-Za-z.-]+)?$");
+    private static final Pattern VERSION = Pattern.compile(
+            "^v?(\\d+)\\.(\\d+)\\.(\\d+)(?:-([0-9A-Za-z.-]+))?(?:\\+[0-9A-Za-z.-]+)?$");
+
+    /**
+     * Parses version specification
+     * @param spec  Version specification
+     * @return  Parsed specification
+     */
+    public static VersionSpec parse(String spec) {
+        String value = spec == null ? "" : spec.trim();
+        List<Predicate<Version>> ranges = new ArrayList<>();
+        for (String range : value.split("\\|\\|")) {
+            Optional<Predicate<Version>> parsed = parseRange(range.trim());
+            if (!parsed.isPresent()) {
+                // dist-tag or unsupported notation, can't be satisfied
+                return new VersionSpec(value, Collections.emptyList());
+            }
+            ranges.add(parsed.get());
+        }
+        return new VersionSpec(value, ranges);
+    }
+
+    private final String spec;
+    private final List<Predicate<Version>> ranges;
+
+    private VersionSpec(String spec, List<Predicate<Version>> ranges) {
+        this.spec = spec;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Verifies given version satisfies this specification
+     * @param version   Version to verify
+     * @return  {@code true} if version is valid and satisfies the specification
+     */
+    public boolean isSatisfiedBy(String version) {
+        Optional<Version> parsed = Version.parse(version);
+        return parsed.isPresent() && ranges.stream().anyMatch(r -> r.test(parsed.get()));
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    private static Optional<Predicate<Version>> parseRange(String range) {
+        if (range.isEmpty()) {
+            return Optional.of(v -> true);
+        }
+
+        String[] hyphen = range.split("\\s+-\\s+");
+        if (hyphen.length == 2) {
+            Optional<Predicate<Version>> lower = parseComparator(">=" + hyphen[0]);
+            Optional<Predicate<Version>> upper = parseComparator("<=" + hyphen[1]);
+            return lower.isPresent() && upper.isPresent() ? Optional.of(lower.get().and(upper.get())) : Optional.empty();
+        }
+
+        Predicate<Version> result = v -> true;
+        for (String comparator : range.replaceAll("(<=|>=|<|>|=|\\^|~)\\s+", "$1").split("\\s+")) {
+            Optional<Predicate<Version>> parsed = parseComparator(comparator);
+            if (!parsed.isPresent()) {
+                return Optional.empty();
+            }
+            result = result.and(parsed.get());
+        }
+        return Optional.of(result);
+    }
+
+    private static Optional<Predicate<Version>> parseComparator(String comparator) {
+        Matcher m = COMPARATOR.matcher(comparator.trim());
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+
+        String operator = m.group(1) == null ? "" : m.group(1);
+        Integer major = number(m.group(2));
+        Integer minor = major == null ? null : number(m.group(3));
+        Integer patch = minor == null ? null : number(m.group(4));
+        String pre = patch == null ? null : m.group(5);
+
+        if (major == null) {
+            // wildcard satisfies all, except of exclusive comparators
+            return Optional.of("<".equals(operator) || ">".equals(operator) ? v -> false : v -> true);
+        }
+
+        Version low = new Version(major, minor == null ? 0 : minor, patch == null ? 0 : patch, pre);
+        Version next = minor == null ? new Version(major + 1, 0, 0, null)
+                : patch == null ? new Version(major, minor + 1, 0, null)
+                : null;
+
+        switch (operator) {
+            case ">=":
+                return Optional.of(v -> v.compareTo(low) >= 0);
+            case ">":
+                return Optional.of(next == null ? v -> v.compareTo(low) > 0 : v -> v.compareTo(next) >= 0);
+            case "<=":
+                return Optional.of(next == null ? v -> v.compareTo(low) <= 0 : v -> v.compareTo(next) < 0);
+            case "<":
+                return Optional.of(v -> v.compareTo(low) < 0);
+            case "~":
+                Version tilde = minor == null ? next : new Version(major, minor + 1, 0, null);
+                return Optional.of(v -> v.compareTo(low) >= 0 && v.compareTo(tilde) < 0);
+            case "^":
+                Version caret = major > 0 || minor == null ? new Version(major + 1, 0, 0, null)
+                        : minor > 0 || patch == null ? new Version(0, minor + 1, 0, null)
+                        : new Version(0, 0, patch + 1, null);
+                return Optional.of(v -> v.compareTo(low) >= 0 && v.compareTo(caret) < 0);
+            default:
+                return Optional.of(next == null ? v -> v.compareTo(low) == 0 : v -> v.compareTo(low) >= 0 && v.compareTo(next) < 0);
+        }
+    }
+
+    private static Integer number(String value) {
+        return value == null || "*".equals(value) || "x".equalsIgnoreCase(value) ? null : Integer.valueOf(value);
+    }
+
+    /**
+     * Semantic version, build metadata is ignored
+     */
+    private static final class Version implements Comparable<Version> {
+        private final int[] numbers;
+        private final String pre;
+
+        private Version(int major, int minor, int patch, String pre) {
+            this.numbers = new int[]{major, minor, patch};
+            this.pre = pre;
+        }
+
+        private static Optional<Version> parse(String version) {
+            Matcher m = version == null ? null : VERSION.matcher(version.trim());
+            if (m == null || !m.matches()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Version(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                    Integer.parseInt(m.group(3)), m.group(4)));
+        }
+
+        @Override
+        public int compareTo(Version o) {
+            int result = Arrays.compare(numbers, o.numbers);
+            if (result != 0 || Objects.equals(pre, o.pre)) {
+                return result;
+            }
+            if (pre == null || o.pre == null) {
+                // release has higher precedence than pre-release
+                return pre == null ? 1 : -1;
+            }
+            return comparePreRelease(pre.split("\\."), o.pre.split("\\."));
+        }
+
+        private static int comparePreRelease(String[] a, String[] b) {
+            for (int i = 0; i < Math.min(a.length, b.length); i++) {
+                boolean numeric = a[i].matches("\\d+") && b[i].matches("\\d+");
+                int result = numeric ? Long.compare(Long.parseLong(a[i]), Long.parseLong(b[i])) : a[i].compareTo(b[i]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(a.length, b.length);
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.util.PathUtil;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Synchronizes output of angular build running in watch mode into
+ * the source set output directory. Build output is written into staging
+ * directory, which is synchronized once angular CLI reports finished
+ * build, see {@link #isBuildComplete(String)}. Only changes of the output
+ * are written into the target directory by {@link ZipSync}, each file
+ * replaced atomically. Synchronization manifest is kept outside of the
+ * target directory.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class WatchOutputSync {
+
+    /**
+     * Angular CLI output reporting finished build, i.e. webpack summary
+     * of Angular 12+ and older versions, and esbuild application builder
+     */
+    private static final List<Pattern> BUILD_COMPLETE = List.of(
+            Pattern.compile("^Build at: "),
+            Pattern.compile("Hash: \\w+.* Time: \\d+ms"),
+            Pattern.compile("^Application bundle generation complete"));
+    private static final Pattern ANSI_ESCAPE = Pattern.compile("\\u001B\\[[;\\d]*[A-Za-z]");
+
+    private final Path staging;
+    private final Path target;
+    private final Path manifest;
+    private Map<String, String> synced = Map.of();
+
+    /**
+     * Creates synchronization of staging directory
+     * @param staging   Directory written by angular build
+     * @param target    Source set output directory
+     * @param manifest  Synchronization manifest file outside of target
+     *                  directory
+     */
+    public WatchOutputSync(Path staging, Path target, Path manifest) {
+        this.staging = staging;
+        this.target = target;
+        this.manifest = manifest;
+    }
+
+    /**
+     * Whether line of angular CLI output reports finished build, whose
+     * output is completely written
+     * @param line  Output line of angular CLI
+     * @return  Returns {@code true} if the build finished
+     */
+    public static boolean isBuildComplete(String line) {
+        String plain = ANSI_ESCAPE.matcher(line).replaceAll("").trim();
+        return BUILD_COMPLETE.stream().anyMatch(p -> p.matcher(plain).find());
+    }
+
+    /**
+     * Synchronizes the target directory with finished build, unless
+     * content of the staging directory equals already synchronized
+     * content. Empty staging directory, e.g. when the build failed
+     * before writing its output, is never synchronized.
+     * @return  Applied changes, {@code null} if nothing was synchronized
+     * @throws IOException  If the target directory can not be written
+     */
+    @Nullable
+    public synchronized ZipSync.Changes sync() throws IOException {
+        Map<String, String> current = snapshot();
+        if (current.isEmpty() || current.equals(synced)) {
+            return null;
+        }
+
+        ZipSync.Changes changes = ZipSync.sync(staging, target, manifest);
+        synced = current;
+        return changes;
+    }
+
+    /**
+     * Lists files of the staging directory with their modification time
+     * and size
+     */
+    private Map<String, String> snapshot() throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        if (!Files.isDirectory(staging)) {
+            return files;
+        }
+
+        try (Stream<Path> walk = Files.walk(staging)) {
+            Iterator<Path> iterator = walk.filter(Files::isRegularFile).iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                files.put(PathUtil.normalize(staging.relativize(file)),
+                        Files.getLastModifiedTime(file).toMillis() + " " + Files.size(file));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return files;
+    }
+
+}
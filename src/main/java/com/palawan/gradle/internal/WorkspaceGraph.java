@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.palawan.gradle.util.AngularJsonHelper;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Dependency graph of angular workspace projects. Project depends
+ * on library, when it references the library by its name or path
+ * within package.json dependencies, ng-package.json allowed
+ * dependencies or tsconfig {@code paths} mappings.
+ *
+ * <p>Applications use path mappings of their whole tsconfig chain,
+ * while libraries use mappings of tsconfig files located within
+ * library root only. Workspace tsconfig usually maps all libraries,
+ * which would make them depend on each other. Any remaining cycle
+ * is broken by ignoring the dependency closing it.</p>
+ *
+ * <p>Descriptors are read through {@link DescriptorCache}, angular.json
+ * shares the cached content with angular descriptors of the build,
+ * other descriptors are cached with fields referencing projects only.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class WorkspaceGraph {
+
+    /** package.json fields listing dependencies */
+    static final List<String> DEPENDENCY_FIELDS = List.of("dependencies", "peerDependencies", "devDependencies");
+
+    private static final String LIBRARY = "library";
+    private static final String BUILD_OPTIONS_PATH = "architect.build.options";
+    private static final String NG_PACKAGE_DEPENDENCIES = "allowedNonPeerDependencies";
+    private static final String PATHS = "compilerOptions.paths";
+    private static final String WILDCARD = "/*";
+
+    private final Map<String, Set<String>> dependencies = new TreeMap<>();
+    private final List<String> ignoredDependencies = new ArrayList<>();
+
+    /**
+     * Creates graph of given dependencies. Dependencies closing
+     * a cycle are ignored.
+     * @param dependencies  Project names mapped to names of libraries
+     *                      they depend on
+     */
+    WorkspaceGraph(Map<String, ? extends Collection<String>> dependencies) {
+        Map<String, Set<String>> sorted = new TreeMap<>();
+        dependencies.forEach((project, libraries) -> sorted.put(project, new TreeSet<>(libraries)));
+        sorted.values().forEach(libraries -> libraries.forEach(l -> sorted.putIfAbsent(l, Collections.emptySet())));
+
+        Set<String> visited = new HashSet<>();
+        for (String project : sorted.keySet()) {
+            addProject(project, sorted, visited, new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Reads dependency graph of angular workspace
+     * @param angularJson   Angular workspace descriptor
+     * @return  Dependency graph, empty if descriptor does not exist
+     */
+    public static WorkspaceGraph of(File angularJson) {
+        return new WorkspaceGraph(new WorkspaceReader(angularJson.getAbsoluteFile().getParentFile().toPath())
+                .readDependencies(angularJson.toPath()));
+    }
+
+    /**
+     * Gets libraries given project directly depends on
+     * @param project   Angular project name
+     * @return  Names of library projects
+     */
+    public Set<String> getDependencies(String project) {
+        return Collections.unmodifiableSet(dependencies.getOrDefault(project, Collections.emptySet()));
+    }
+
+    /**
+     * Gets projects directly depending on given library
+     * @param library   Angular library name
+     * @return  Names of dependent projects
+     */
+    public Set<String> getDependents(String library) {
+        Set<String> dependents = new TreeSet<>();
+        dependencies.forEach((project, libraries) -> {
+            if (libraries.contains(library)) {
+                dependents.add(project);
+            }
+        });
+        return dependents;
+    }
+
+    /**
+     * Gets all workspace projects of the graph
+     * @return  Angular project names
+     */
+    public Set<String> getProjects() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    /**
+     * Gets dependencies ignored since they close a dependency cycle
+     * @return  Ignored dependencies in form {@code project -> library}
+     */
+    public List<String> getIgnoredDependencies() {
+        return Collections.unmodifiableList(ignoredDependencies);
+    }
+
+    private void addProject(String project, Map<String, Set<String>> all, Set<String> visited, Set<String> path) {
+        if (!visited.add(project)) {
+            return;
+        }
+
+        path.add(project);
+        Set<String> accepted = new TreeSet<>();
+        for (String library : all.get(project)) {
+            if (path.contains(library)) {
+                ignoredDependencies.add(project + " -> " + library);
+            } else {
+                addProject(library, all, visited, path);
+                accepted.add(library);
+            }
+        }
+        path.remove(project);
+        dependencies.put(project, accepted);
+    }
+
+    /**
+     * Reads references among projects from workspace descriptors
+     */
+    private static class WorkspaceReader extends JsonBase {
+
+        private final DescriptorCache descriptors = DescriptorCache.getReferences();
+        private final Path workspace;
+        /** Library names and paths mapped to library project */
+        private final Map<String, String> libraries = new HashMap<>();
+
+        WorkspaceReader(Path workspace) {
+            this.workspace = workspace;
+        }
+
+        Map<String, Set<String>> readDependencies(Path angularJson) {
+            Map<String, JsonNode> projects = new TreeMap<>();
+            DescriptorCache.getInstance().find(angularJson).map(n -> n.get("projects"))
+                    .ifPresent(n -> n.fields().forEachRemaining(e -> projects.put(e.getKey(), e.getValue())));
+
+            projects.forEach((name, project) -> {
+                if (LIBRARY.equals(text(project, "projectType"))) {
+                    addLibrary(name, project);
+                }
+            });
+
+            Map<String, Set<String>> dependencies = new TreeMap<>();
+            projects.forEach((name, project) -> {
+                Set<String> references = new HashSet<>();
+                addReferences(project, references);
+                Set<String> projectDependencies = new TreeSet<>();
+                references.stream().map(this::toLibrary).flatMap(Optional::stream)
+                        .filter(library -> !library.equals(name))
+                        .forEach(projectDependencies::add);
+                dependencies.put(name, projectDependencies);
+            });
+            return dependencies;
+        }
+
+        private void addLibrary(String name, JsonNode project) {
+            libraries.put(name, name);
+            String root = text(project, "root");
+            if (!root.isEmpty()) {
+                libraries.put(normalize(root), name);
+                descriptors.find(workspace.resolve(root).resolve(AngularJsonHelper.NODE_LIBRARY_DESCRIPTOR))
+                        .map(n -> n.get("name")).map(JsonNode::asText)
+                        .ifPresent(packageName -> libraries.put(packageName, name));
+            }
+        }
+
+        private void addReferences(JsonNode project, Set<String> references) {
+            String root = text(project, "root");
+            Path projectRoot = workspace.resolve(root).normalize();
+            boolean library = LIBRARY.equals(text(project, "projectType"));
+
+            descriptors.find(projectRoot.resolve(AngularJsonHelper.NODE_LIBRARY_DESCRIPTOR)).ifPresent(packageJson ->
+                    DEPENDENCY_FIELDS.forEach(field -> Optional.ofNullable(packageJson.get(field))
+                            .ifPresent(n -> n.fieldNames().forEachRemaining(references::add))));
+
+            getByPath(project, BUILD_OPTIONS_PATH + ".project").map(JsonNode::asText)
+                    .flatMap(ngPackage -> descriptors.find(workspace.resolve(ngPackage)))
+                    .map(n -> n.get(NG_PACKAGE_DEPENDENCIES))
+                    .ifPresent(n -> n.forEach(value -> references.add(value.asText())));
+
+            Optional<String> tsConfig = getByPath(project, BUILD_OPTIONS_PATH + ".tsConfig").map(JsonNode::asText);
+            if (tsConfig.isPresent()) {
+                Set<File> chain = new LinkedHashSet<>();
+                CompileInputs.addJsonChain(workspace.resolve(tsConfig.get()).normalize(), chain, descriptors::find);
+                for (File file : chain) {
+                    if (!library || file.toPath().startsWith(projectRoot)) {
+                        addPaths(file.toPath(), references);
+                    }
+                }
+            }
+        }
+
+        private void addPaths(Path tsConfig, Set<String> references) {
+            Path directory = tsConfig.getParent();
+            descriptors.find(tsConfig).flatMap(n -> getByPath(n, PATHS)).ifPresent(paths -> {
+                Iterator<Map.Entry<String, JsonNode>> fields = paths.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    references.add(stripWildcard(field.getKey()));
+                    for (JsonNode target : field.getValue()) {
+                        Path resolved = directory.resolve(stripWildcard(target.asText())).normalize();
+                        if (resolved.startsWith(workspace)) {
+                            references.add(normalize(workspace.relativize(resolved).toString()));
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * Finds library by its name, or by path within library root
+         */
+        private Optional<String> toLibrary(String reference) {
+            String library = libraries.get(reference);
+            if (library == null && reference.indexOf('/') > 0) {
+                String path = normalize(reference);
+                for (Map.Entry<String, String> entry : libraries.entrySet()) {
+                    if (path.startsWith(entry.getKey() + "/")) {
+                        return Optional.of(entry.getValue());
+                    }
+                }
+            }
+            return Optional.ofNullable(library);
+        }
+
+        private static String stripWildcard(String value) {
+            return value.endsWith(WILDCARD) ? value.substring(0, value.length() - WILDCARD.length()) : value;
+        }
+
+        private static String normalize(String path) {
+            String normalized = path.replace('\\', '/');
+            return normalized.endsWith("/") ? normalized.substring(0, normalized.length() - 1) : normalized;
+        }
+
+        private static String text(JsonNode node, String field) {
+            return Optional.ofNullable(node.get(field)).map(JsonNode::asText).orElse("");
+        }
+
+    }
+
+}
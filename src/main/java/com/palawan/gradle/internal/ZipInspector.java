@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Random access inspection of zip archive. Only the central directory
+ * of the archive is read to locate entries and only requested entries
+ * are decompressed, so the archive is never extracted as a whole.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class ZipInspector implements Closeable {
+
+    private final ZipFile zipFile;
+
+    /**
+     * Opens given zip archive and reads its central directory
+     * @param archive   Zip archive
+     * @throws IOException  If file is not valid zip archive
+     */
+    public ZipInspector(File archive) throws IOException {
+        this.zipFile = new ZipFile(archive);
+    }
+
+    /**
+     * Finds entry of given file name closest to the archive root
+     * @param fileName  File name of the entry without any directory
+     * @return  Shallowest entry with given file name if any
+     */
+    public Optional<ZipEntry> findShallowest(String fileName) {
+        ZipEntry result = null;
+        int resultDepth = Integer.MAX_VALUE;
+
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (!entry.isDirectory() && (name.equals(fileName) || name.endsWith("/" + fileName))) {
+                int depth = depth(name);
+                if (depth < resultDepth) {
+                    result = entry;
+                    resultDepth = depth;
+                }
+            }
+        }
+
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Gets all file entries of the archive
+     * @return  File entries
+     */
+    public List<ZipEntry> getFileEntries() {
+        List<ZipEntry> result = new ArrayList<>(zipFile.size());
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (!entry.isDirectory()) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Opens content of given entry
+     * @param entry Entry of this archive
+     * @return  Decompressed entry content
+     * @throws IOException  If entry can not be read
+     */
+    public InputStream open(ZipEntry entry) throws IOException {
+        return zipFile.getInputStream(entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    private static int depth(String name) {
+        int depth = 0;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+}
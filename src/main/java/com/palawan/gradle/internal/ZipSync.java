@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal;
+
+import com.palawan.gradle.util.PathUtil;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Incremental extraction of zip archive into a directory. Extracted
+ * entries are recorded in manifest file, e.g. {@link #FILE_NAME} within
+ * temporary directory of the task, which is kept outside of the target
+ * directory, so it is never seen by readers of the target. Next
+ * extraction compares entries of the zip central directory by their size
+ * and CRC32 with the manifest, writes only added or changed entries and
+ * deletes entries no longer present in the archive. Already extracted
+ * archive directory is synchronized the same way. Each file is written
+ * into temporary sibling first and moved over the target file, so
+ * readers of the target directory never see partially written content.
+ *
+ * <p>Target directory without manifest is written completely and only
+ * afterwards files not present in the source are deleted, so the target
+ * is never empty.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public class ZipSync {
+
+    /** Extraction manifest file name */
+    public static final String FILE_NAME = "extracted.gradle";
+    /** Suffix of file being written */
+    private static final String TEMP_SUFFIX = ".sync";
+
+    private ZipSync() {}
+
+    /**
+     * Extracts zip archive into new directory, without any manifest
+     * @param archive   Zip archive
+     * @param target    Target directory, expected to be empty
+     * @throws IOException  If archive can not be read or target written
+     */
+    public static void extract(File archive, Path target) throws IOException {
+        try (ZipInspector zip = new ZipInspector(archive)) {
+            sync(sources(zip), target, null, archive.toString());
+        }
+    }
+
+    /**
+     * Synchronizes content of given directory with zip archive
+     * @param archive   Zip archive
+     * @param target    Target directory
+     * @param manifest  Manifest file outside of target directory
+     * @return  Applied changes
+     * @throws IOException  If archive can not be read or target written
+     */
+    public static Changes sync(File archive, Path target, Path manifest) throws IOException {
+        try (ZipInspector zip = new ZipInspector(archive)) {
+            return sync(sources(zip), target, manifest, archive.toString());
+        }
+    }
+
+    /**
+     * Synchronizes content of given directory with other directory, e.g.
+     * extracted zip archive. Source files are compared by their size
+     * and modification time, therefore source directory is expected
+     * to change only by replacing its files.
+     * @param directory Source directory
+     * @param target    Target directory
+     * @param manifest  Manifest file outside of target directory
+     * @return  Applied changes
+     * @throws IOException  If source can not be read or target written
+     */
+    public static Changes sync(Path directory, Path target, Path manifest) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        List<Source> sources = new ArrayList<>();
+        for (Path file : files) {
+            long size = Files.size(file);
+            String checksum = Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + ' ' + size;
+            sources.add(new Source(PathUtil.normalize(directory.relativize(file)), checksum, size, () -> Files.newInputStream(file)));
+        }
+        return sync(sources, target, manifest, directory.toString());
+    }
+
+    private static List<Source> sources(ZipInspector zip) throws IOException {
+        List<Source> sources = new ArrayList<>();
+        for (ZipEntry entry : zip.getFileEntries()) {
+            sources.add(new Source(entry.getName(), checksum(entry), entry.getSize(), () -> zip.open(entry)));
+        }
+        return sources;
+    }
+
+    private static Changes sync(List<Source> sources, Path target, @Nullable Path manifestFile, String origin)
+            throws IOException {
+        Path root = target.toAbsolutePath().normalize();
+        Path manifest = manifestFile == null ? null : manifestFile.toAbsolutePath().normalize();
+        if (manifest != null && manifest.startsWith(root)) {
+            throw new IOException("Manifest " + manifestFile + " must be outside of " + target);
+        }
+
+        Map<String, String> previous = manifest == null ? new TreeMap<>() : readManifest(manifest);
+        if (manifest != null && previous.isEmpty() && Files.exists(target)) {
+            // unknown files are deleted once the source is written
+            previous = listFiles(root);
+        }
+        Files.createDirectories(target);
+
+        Map<String, String> current = new TreeMap<>();
+        List<String> written = new ArrayList<>();
+
+        for (Source source : sources) {
+            Path file = root.resolve(source.name).normalize();
+            if (!file.startsWith(root)) {
+                throw new IOException("Invalid entry '" + source.name + "' in " + origin);
+            }
+
+            current.put(source.name, source.checksum);
+            if (!source.checksum.equals(previous.get(source.name))
+                    || !Files.isRegularFile(file) || Files.size(file) != source.size) {
+                Files.createDirectories(file.getParent());
+                write(source, file);
+                written.add(source.name);
+            }
+        }
+
+        List<String> deleted = new ArrayList<>();
+        for (String name : previous.keySet()) {
+            if (!current.containsKey(name)) {
+                deleteFile(root, root.resolve(name).normalize());
+                deleted.add(name);
+            }
+        }
+
+        if (manifest != null) {
+            writeManifest(manifest, current);
+        }
+        return new Changes(written, deleted);
+    }
+
+    private static void write(Source source, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try {
+            try (InputStream in = source.content.open()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static String checksum(ZipEntry entry) {
+        return Long.toHexString(entry.getCrc()) + ' ' + entry.getSize();
+    }
+
+    private static Map<String, String> readManifest(Path manifest) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        if (Files.isRegularFile(manifest)) {
+            try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // line format: <crc32> <size> <entry name>
+                    int crcEnd = line.indexOf(' ');
+                    int sizeEnd = crcEnd < 0 ? -1 : line.indexOf(' ', crcEnd + 1);
+                    if (sizeEnd > 0) {
+                        entries.put(line.substring(sizeEnd + 1), line.substring(0, sizeEnd));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Lists files of target directory unknown to the manifest, those
+     * are always written
+     */
+    private static Map<String, String> listFiles(Path root) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.filter(Files::isRegularFile).forEach(f -> entries.put(PathUtil.normalize(root.relativize(f)), ""));
+        }
+        return entries;
+    }
+
+    private static void writeManifest(Path manifest, Map<String, String> entries) throws IOException {
+        Files.createDirectories(manifest.toAbsolutePath().getParent());
+        StringBuilder content = new StringBuilder();
+        entries.forEach((name, checksum) -> content.append(checksum).append(' ').append(name).append('\n'));
+        DescriptorTransaction.writeIfChanged(manifest, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteFile(Path root, Path file) throws IOException {
+        if (!file.startsWith(root)) {
+            return;
+        }
+
+        Files.deleteIfExists(file);
+        Path parent = file.getParent();
+        try {
+            while (parent != null && !parent.equals(root) && parent.startsWith(root)) {
+                Files.deleteIfExists(parent);
+                parent = parent.getParent();
+            }
+        } catch (DirectoryNotEmptyException e) {
+            // parent directory still holds other files
+        }
+    }
+
+    /**
+     * Source of synchronized file
+     */
+    private static class Source {
+        private final String name;
+        private final String checksum;
+        private final long size;
+        private final Content content;
+
+        private Source(String name, String checksum, long size, Content content) {
+            this.name = name;
+            this.checksum = checksum;
+            this.size = size;
+            this.content = content;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Content {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Changes applied by synchronization
+     */
+    public static class Changes {
+        private final List<String> written;
+        private final List<String> deleted;
+
+        private Changes(List<String> written, List<String> deleted) {
+            this.written = Collections.unmodifiableList(written);
+            this.deleted = Collections.unmodifiableList(deleted);
+        }
+
+        /**
+         * Entries written into target directory
+         * @return  Entry names
+         */
+        public List<String> getWritten() {
+            return written;
+        }
+
+        /**
+         * Entries deleted from target directory
+         * @return  Entry names
+         */
+        public List<String> getDeleted() {
+            return deleted;
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.tasks;
+
+import com.palawan.gradle.internal.CliCache;
+import com.palawan.gradle.internal.CompileAngularProject;
+import com.palawan.gradle.internal.NodeBuildService;
+import com.palawan.gradle.internal.NodeCommandLine;
+import com.palawan.gradle.internal.NodeModulesFingerprint;
+import org.gradle.api.GradleException;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Compiles angular source set by {@code build} script of package.json,
+ * i.e. {@code <packager> run build --project=<project>}. Opt-in build
+ * workers and batch builds of {@link NodeBuildService} execute angular
+ * CLI directly instead, so the script is not used. Resolved node libraries
+ * are extracted into node_modules directory by {@link ExtractNodeLibraries}
+ * task the compilation depends on. The build runs as asynchronous work
+ * item, so other tasks of the same project, such as compilation of
+ * independent angular library, may run meanwhile. Tasks depending on the compilation still
+ * wait for the build to finish. The task works only with values captured
+ * during configuration, so it is not bound to the project model
+ * at execution time.
+ * <p>
+ * The task output is cacheable. All inputs are tracked relatively to
+ * the workspace, so the output can be restored from build cache
+ * populated by a build in different location.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+@CacheableTask
+public abstract class AngularCompile extends DefaultTask {
+
+    /**
+     * Gets name of compiled source set
+     * @return  Source set name
+     */
+    @Internal
+    public abstract Property<String> getSourceSetName();
+
+    /**
+     * Gets name of compiled angular project
+     * @return  Angular project name
+     */
+    @Input
+    public abstract Property<String> getAngularProject();
+
+    /**
+     * Gets angular workspace directory, where the build is executed
+     * @return  Workspace directory
+     */
+    @Internal
+    public abstract DirectoryProperty getWorkingDir();
+
+    /**
+     * Gets node_modules directory with installed angular CLI
+     * @return  Node modules directory
+     */
+    @Internal
+    public abstract DirectoryProperty getNodeModules();
+
+    /**
+     * Gets directory of downloaded NodeJS
+     * @return  NodeJS directory, absent if system NodeJS is used
+     */
+    @Internal
+    public abstract DirectoryProperty getNodeDirectory();
+
+    /**
+     * Gets packager running build script of package.json
+     * @return  Packager executable name, e.g. npm
+     */
+    @Internal
+    public abstract Property<String> getPackager();
+
+    /**
+     * Gets directory of downloaded packager executable
+     * @return  Packager directory, absent if packager is on system path
+     */
+    @Internal
+    public abstract DirectoryProperty getPackagerDirectory();
+
+    /**
+     * Gets compilation output directory
+     * @return  Output directory
+     */
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    /**
+     * Gets source directories of compiled project
+     * @return  Project sources
+     */
+    @InputFiles
+    @IgnoreEmptyDirectories
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSources();
+
+    /**
+     * Gets project block of angular.json file
+     * @return  Project block content
+     */
+    @Input
+    public abstract Property<String> getProjectDescriptor();
+
+    /**
+     * Gets descriptor files affecting the compilation, such as tsconfig
+     * chain, package descriptors and lock files.
+     * @return  Descriptor files
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getDescriptorFiles();
+
+    /**
+     * Gets node library archives extracted into node_modules before
+     * the compilation
+     * @return  Node library archives
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract ConfigurableFileCollection getLibraries();
+
+    /**
+     * Gets compile outputs of workspace libraries the project depends on
+     * @return  Workspace library outputs
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getWorkspaceLibraries();
+
+    /**
+     * Gets NodeJS version used for the compilation
+     * @return  NodeJS version, absent if not managed by the plugin
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getNodeVersion();
+
+    /**
+     * Gets angular CLI version used for the compilation
+     * @return  Angular CLI version, absent if not known
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getAngularVersion();
+
+    /**
+     * Gets service limiting parallel NodeJS builds
+     * @return  Node build service
+     */
+    @Internal
+    public abstract Property<NodeBuildService> getNodeBuildService();
+
+    /**
+     * Gets angular CLI cache directory of compiled project. Cache is not
+     * managed by the plugin, when the directory is not defined.
+     * @return  Cache directory
+     */
+    @Internal
+    public abstract DirectoryProperty getCliCacheDirectory();
+
+    /**
+     * Gets directory of angular CLI cache used by the compilation, which
+     * is referenced by angular.json of the workspace
+     * @return  Current cache directory
+     */
+    @Internal
+    public abstract DirectoryProperty getCliCacheCurrentDirectory();
+
+    /**
+     * Gets size limit of angular CLI caches of compiled project
+     * @return  Size limit in MB
+     */
+    @Internal
+    public abstract Property<Integer> getCliCacheMaxSize();
+
+    /**
+     * Gets seed directory angular CLI cache is restored from, when
+     * there is no cache of the current key
+     * @return  Seed directory of compiled project
+     */
+    @Internal
+    public abstract DirectoryProperty getCliCacheSeed();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Submits the build of angular project
+     */
+    @TaskAction
+    public void compile() {
+        NodeCommandLine commandLine = getCommandLine();
+        getLogger().info("Compiling angular project {}: {}", getAngularProject().get(), commandLine);
+        CliCache cliCache = restoreCliCache();
+
+        getWorkerExecutor().noIsolation().submit(CompileAngularProject.class, p -> {
+            p.getCommandLine().set(commandLine);
+            p.getWorkingDir().set(getWorkingDir());
+            p.getSourceSetName().set(getSourceSetName());
+            p.getOutputDirectory().set(getOutputDirectory());
+            p.getCliCache().set(cliCache);
+            p.getBatch().set(getNodeBuildService().map(NodeBuildService::getBatch));
+            p.getBuildWorker().set(getNodeBuildService().map(NodeBuildService::isBuildWorker).orElse(false));
+            p.getWorkerIdleTimeout().set(getNodeBuildService().map(NodeBuildService::getWorkerIdleTimeout).orElse(0));
+            p.getWorkerMaxMemory().set(getNodeBuildService().map(NodeBuildService::getWorkerMaxMemory).orElse(0));
+            p.getNodeBuildService().set(getNodeBuildService());
+        });
+    }
+
+    /**
+     * Creates command line running build script of package.json, or
+     * angular CLI directly if the build is executed by build worker
+     */
+    private NodeCommandLine getCommandLine() {
+        Path nodeDirectory = getNodeDirectory().map(d -> d.getAsFile().toPath()).getOrNull();
+        Path nodeModules = getNodeModules().get().getAsFile().toPath();
+        int maxOldSpaceSize = getNodeBuildService().map(NodeBuildService::getMaxOldSpaceSize).getOrElse(0);
+        boolean buildWorker = getNodeBuildService().map(s -> s.isBuildWorker() || s.getBatch() != null).getOrElse(false);
+
+        if (buildWorker) {
+            return NodeCommandLine.of(nodeDirectory, getNodeVersion().getOrNull(), nodeModules,
+                    List.of("build", getAngularProject().get()), maxOldSpaceSize);
+        }
+        return NodeCommandLine.ofPackager(nodeDirectory, getNodeVersion().getOrNull(), getPackager().get(),
+                getPackagerDirectory().map(d -> d.getAsFile().toPath()).getOrNull(), nodeModules,
+                List.of("run", "build", "--project=" + getAngularProject().get()), maxOldSpaceSize);
+    }
+
+    /**
+     * Restores angular CLI cache of the current lock files and angular
+     * version, if the cache is managed by the plugin
+     */
+    @Nullable
+    private CliCache restoreCliCache() {
+        if (!getCliCacheDirectory().isPresent()) {
+            return null;
+        }
+
+        String lockFileDigest;
+        try {
+            lockFileDigest = NodeModulesFingerprint.getLockFileDigest(getNodeModules().get().getAsFile().toPath());
+        } catch (IOException e) {
+            throw new GradleException("Unable to read lock files of " + getWorkingDir().get(), e);
+        }
+
+        File directory = getCliCacheDirectory().get().getAsFile();
+        CliCache cliCache = new CliCache(
+                directory,
+                getCliCacheCurrentDirectory().map(d -> d.getAsFile()).getOrElse(new File(directory, CliCache.CURRENT)),
+                CliCache.key(lockFileDigest, getAngularVersion().getOrElse("")),
+                getCliCacheMaxSize().getOrElse(CliCache.DEFAULT_MAX_SIZE),
+                getCliCacheSeed().map(d -> d.getAsFile()).getOrNull());
+        cliCache.restore();
+        return cliCache;
+    }
+
+}
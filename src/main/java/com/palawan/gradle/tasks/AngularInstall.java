@@ -25,39 +25,171 @@
 
 package com.palawan.gradle.tasks;
 
-import com.palawan.gradle.dsl.AngularExtension;
+import com.palawan.gradle.dsl.PackageJson;
 import com.palawan.gradle.internal.ExecutableData;
-import com.palawan.gradle.util.ProjectUtil;
-import org.gradle.api.tasks.OutputDirectory;
+import com.palawan.gradle.internal.NodeModulesFingerprint;
+import com.palawan.gradle.internal.VersionSpec;
+import com.palawan.gradle.util.AngularJsonHelper;
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.Task;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.provider.Property;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
 
+import javax.inject.Inject;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 /**
- * Installs angular dependency
+ * Installs angular dependency. Installation is tracked by lightweight
+ * fingerprint of lock files, see {@link NodeModulesFingerprint}, so
+ * Gradle does not walk installed packages for up-to-date checks.
+ * The packager is not invoked at all, if installed angular CLI
+ * already satisfies requested version specification. Dist-tag
+ * {@code latest} is never satisfied, so the packager resolves it
+ * whenever the task is out of date. All values are wired by the
+ * plugin, so the task does not access the project model.
  *
  * @author Langr, Petr
  * @since 1.0.0
  */
-public class AngularInstall extends PackagerTask {
+public abstract class AngularInstall extends PackagerTask {
 
     /** Angular CLI package name */
     public static final String ANGULAR_PACKAGE_NAME = "@angular/cli";
 
+    /**
+     * Constructor defines fingerprint handling of node_modules
+     */
+    public AngularInstall() {
+        getAngularVersion().convention(VersionSpec.LATEST);
+
+        // Gradle does not support lambda actions as it can't track the class changes
+        //noinspection Convert2Lambda
+        onlyIf(new Spec<>() {
+            @Override
+            public boolean isSatisfiedBy(Task task) {
+                Optional<String> installed = getInstalledVersion();
+                String requested = getAngularVersion().get();
+                if (installed.isPresent() && VersionSpec.parse(requested).isSatisfiedBy(installed.get())) {
+                    getLogger().info("Installed {} {} satisfies '{}'", ANGULAR_PACKAGE_NAME, installed.get(), requested);
+                    return false;
+                }
+                return true;
+            }
+        });
+        //noinspection Convert2Lambda
+        getOutputs().upToDateWhen(new Spec<>() {
+            @Override
+            public boolean isSatisfiedBy(Task task) {
+                return NodeModulesFingerprint.isUpToDate(getNodeModulesPath());
+            }
+        });
+        //noinspection Convert2Lambda
+        doLast(new Action<>() {
+            @Override
+            public void execute(Task task) {
+                try {
+                    NodeModulesFingerprint.write(getNodeModulesPath());
+                    File versionFile = getInstalledVersionFile();
+                    Files.createDirectories(versionFile.getParentFile().toPath());
+                    Files.writeString(versionFile.toPath(), getInstalledVersion().orElse(""));
+                } catch (IOException e) {
+                    throw new GradleException("Unable to write node_modules fingerprint", e);
+                }
+            }
+        });
+    }
+
     /**
      * Task execution method
      */
     @Override
     protected ExecutableData executableData(List<String> arguments) {
-        AngularExtension extension = AngularExtension.get(getProject());
-        setWorkingDir(getProject().getProjectDir());
-        String version = extension.getVersion() == null ? "latest" : extension.getVersion();
+        setWorkingDir(getLayout().getProjectDirectory().getAsFile());
+
+        return super.executableData(List.of(packager.get().getAddCommand(), ANGULAR_PACKAGE_NAME + "@" + getAngularVersion().get()));
+    }
+
+    /**
+     * Gets installed angular CLI version
+     * @return  Version specification defined by extension, {@code latest}
+     *          by default
+     */
+    @Input
+    public abstract Property<String> getAngularVersion();
+
+    /**
+     * Gets node_modules directory angular CLI is installed into
+     * @return  Node modules directory
+     */
+    @Internal
+    public abstract DirectoryProperty getNodeModules();
+
+    /**
+     * Gets digest of workspace lock files
+     * @return  Hex encoded lock files digest
+     */
+    @Input
+    public String getLockFileDigest() {
+        try {
+            return NodeModulesFingerprint.getLockFileDigest(getNodeModulesPath());
+        } catch (IOException e) {
+            throw new GradleException("Unable to read lock files", e);
+        }
+    }
+
+    /**
+     * Gets version of installed angular CLI
+     * @return  Installed version if angular CLI is installed
+     */
+    @Internal
+    public Optional<String> getInstalledVersion() {
+        return AngularJsonHelper.getInstance()
+                .getPackageJson(getAngularPackageFile().toPath())
+                .map(PackageJson::getVersion);
+    }
 
-        return super.executableData(List.of(packager.get().getAddCommand(), ANGULAR_PACKAGE_NAME + "@" + version));
+    /**
+     * Gets file recording angular CLI version installed by last execution
+     * @return  Installed version record
+     */
+    @OutputFile
+    public File getInstalledVersionFile() {
+        return getLayout().getBuildDirectory().get().dir(getName()).file("installed-version").getAsFile();
     }
 
-    @OutputDirectory
+    /**
+     * Gets installed angular CLI package directory
+     * @return  Angular CLI package directory
+     */
+    @Internal
     public File getAngularPackageFile() {
-        return ProjectUtil.getNodeModules(getProject()).resolve(ANGULAR_PACKAGE_NAME).toFile();
+        return getNodeModulesPath().resolve(ANGULAR_PACKAGE_NAME).toFile();
+    }
+
+    /**
+     * Gets node_modules fingerprint written after the installation
+     * @return  Fingerprint manifest file
+     */
+    @OutputFile
+    public File getNodeModulesFingerprint() {
+        return NodeModulesFingerprint.getMarker(getNodeModulesPath());
+    }
+
+    @Inject
+    protected abstract ProjectLayout getLayout();
+
+    private Path getNodeModulesPath() {
+        return getNodeModules().get().getAsFile().toPath();
     }
 }
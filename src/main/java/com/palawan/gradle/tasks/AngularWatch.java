@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.tasks;
+
+import com.palawan.gradle.internal.NodeBuildService;
+import com.palawan.gradle.internal.NodeCommandLine;
+import com.palawan.gradle.internal.WatchOutputSync;
+import com.palawan.gradle.internal.ZipSync;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.UntrackedTask;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles angular source set continuously by {@code ng build --watch}.
+ * The angular CLI runs as long-running process owned by the task, which
+ * finishes once the process is stopped. Application is built into staging
+ * directory, whose output is synchronized into the source set output
+ * directory once angular CLI reports finished rebuild, replacing changed
+ * files atomically. Backend serving the output directory, e.g. spring
+ * application with output redirected into its resources, therefore never
+ * serves partially written build. Library is built by ng-packagr directly
+ * into the output directory.
+ * <p>
+ * The process is stopped when the task thread is interrupted or Gradle
+ * daemon exits.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+@UntrackedTask(because = "Watch mode runs until stopped")
+public abstract class AngularWatch extends DefaultTask {
+
+    /** Seconds angular CLI is given to stop before it is killed */
+    private static final long STOP_TIMEOUT = 10;
+
+    /**
+     * Gets name of watched angular project
+     * @return  Angular project name
+     */
+    @Internal
+    public abstract Property<String> getAngularProject();
+
+    /**
+     * Gets angular workspace directory, where the build is executed
+     * @return  Workspace directory
+     */
+    @Internal
+    public abstract DirectoryProperty getWorkingDir();
+
+    /**
+     * Gets node_modules directory with installed angular CLI
+     * @return  Node modules directory
+     */
+    @Internal
+    public abstract DirectoryProperty getNodeModules();
+
+    /**
+     * Gets directory of downloaded NodeJS
+     * @return  NodeJS directory, absent if system NodeJS is used
+     */
+    @Internal
+    public abstract DirectoryProperty getNodeDirectory();
+
+    /**
+     * Gets version of downloaded NodeJS
+     * @return  NodeJS version, absent if not managed by the plugin
+     */
+    @Internal
+    public abstract Property<String> getNodeVersion();
+
+    /**
+     * Gets source set output directory synchronized after each rebuild
+     * @return  Output directory
+     */
+    @Internal
+    public abstract DirectoryProperty getOutputDirectory();
+
+    /**
+     * Gets directory angular CLI writes its output into
+     * @return  Staging directory, absent if angular CLI writes into
+     *          the output directory directly
+     */
+    @Internal
+    public abstract DirectoryProperty getStagingDirectory();
+
+    /**
+     * Gets service defining memory of NodeJS builds
+     * @return  Node build service
+     */
+    @Internal
+    public abstract Property<NodeBuildService> getNodeBuildService();
+
+    /**
+     * Starts angular CLI in watch mode and synchronizes its output until
+     * the process is stopped
+     */
+    @TaskAction
+    public void watch() {
+        List<String> arguments = new ArrayList<>(List.of("build", getAngularProject().get(), "--watch"));
+        if (getStagingDirectory().isPresent()) {
+            arguments.add("--output-path=" + getStagingDirectory().get().getAsFile());
+        }
+        NodeCommandLine commandLine = NodeCommandLine.of(
+                getNodeDirectory().map(d -> d.getAsFile().toPath()).getOrNull(),
+                getNodeVersion().getOrNull(),
+                getNodeModules().get().getAsFile().toPath(),
+                arguments,
+                getNodeBuildService().map(NodeBuildService::getMaxOldSpaceSize).getOrElse(0));
+        getLogger().lifecycle("Watching angular project {}, cancel the build to stop", getAngularProject().get());
+        getLogger().info("Watching angular project {}: {}", getAngularProject().get(), commandLine);
+
+        WatchOutputSync sync = getStagingDirectory().isPresent()
+                ? new WatchOutputSync(
+                        getStagingDirectory().get().getAsFile().toPath(),
+                        getOutputDirectory().get().getAsFile().toPath(),
+                        new File(getTemporaryDir(), ZipSync.FILE_NAME).toPath())
+                : null;
+        Process process = start(commandLine);
+        Thread output = readOutput(process, sync);
+        Thread shutdownHook = new Thread(() -> stop(process), "angular-watch-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            int exitCode = process.waitFor();
+            output.join(TimeUnit.SECONDS.toMillis(STOP_TIMEOUT));
+            if (exitCode != 0) {
+                throw new GradleException("Angular watch '" + commandLine + "' finished with non-zero exit value " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stop(process);
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM is already shutting down
+            }
+        }
+    }
+
+    private Process start(NodeCommandLine commandLine) {
+        List<String> command = new ArrayList<>();
+        command.add(commandLine.getExecutable());
+        command.addAll(commandLine.getArguments());
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(getWorkingDir().get().getAsFile())
+                .redirectErrorStream(true);
+        builder.environment().putAll(commandLine.getEnvironment());
+
+        try {
+            return builder.start();
+        } catch (IOException e) {
+            throw new GradleException("Unable to start angular watch: " + commandLine, e);
+        }
+    }
+
+    /**
+     * Logs output of angular CLI and synchronizes output directory
+     * whenever angular CLI reports finished rebuild
+     */
+    private Thread readOutput(Process process, @Nullable WatchOutputSync sync) {
+        Logger logger = getLogger();
+        Path target = getOutputDirectory().get().getAsFile().toPath();
+        Thread output = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.lifecycle(line);
+                    if (sync != null && WatchOutputSync.isBuildComplete(line)) {
+                        sync(sync, target, logger);
+                    }
+                }
+            } catch (IOException e) {
+                // process output closed
+            }
+        }, "angular-watch-output");
+        output.setDaemon(true);
+        output.start();
+        return output;
+    }
+
+    private static void sync(WatchOutputSync sync, Path target, Logger logger) {
+        try {
+            ZipSync.Changes changes = sync.sync();
+            if (changes != null) {
+                logger.lifecycle("Synchronized {} written and {} deleted files into {}",
+                        changes.getWritten().size(), changes.getDeleted().size(), target);
+            }
+        } catch (IOException e) {
+            // e.g. file locked by the backend, synchronized after next rebuild
+            logger.warn("Unable to synchronize angular output into {}: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops angular CLI together with processes it started
+     */
+    private static void stop(Process process) {
+        if (!process.isAlive()) {
+            return;
+        }
+
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+        try {
+            if (!process.waitFor(STOP_TIMEOUT, TimeUnit.SECONDS)) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
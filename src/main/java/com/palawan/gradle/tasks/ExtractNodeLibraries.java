@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.tasks;
+
+import com.palawan.gradle.internal.ExtractNodeDependencies;
+import com.palawan.gradle.internal.NodeDependency;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectories;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts resolved node libraries of angular source set into their
+ * node_modules locations. Library locations are outputs of the task,
+ * so the libraries are extracted again whenever node_modules content
+ * was changed, e.g. by npm install, even if compilation of the source
+ * set is restored from build cache.
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+@DisableCachingByDefault(because = "Extraction is faster than restoring node_modules from build cache")
+public abstract class ExtractNodeLibraries extends DefaultTask {
+
+    /**
+     * Constructor declaring node_modules locations of the libraries
+     * as task outputs
+     */
+    public ExtractNodeLibraries() {
+        getTargets().from(getNodeDependencies().map(dependencies -> dependencies.stream()
+                .map(NodeDependency::getTarget)
+                .distinct()
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Gets node library archives to be extracted
+     * @return  Node library archives
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract ConfigurableFileCollection getLibraries();
+
+    /**
+     * Gets resolved node libraries together with their node_modules
+     * locations
+     * @return  Node library dependencies
+     */
+    @Internal
+    public abstract ListProperty<NodeDependency> getNodeDependencies();
+
+    /**
+     * Gets node_modules locations of extracted libraries
+     * @return  Library locations
+     */
+    @OutputDirectories
+    public abstract ConfigurableFileCollection getTargets();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Extracts every updated node library into node_modules
+     */
+    @TaskAction
+    public void extract() {
+        ExtractNodeDependencies.extractAll(getWorkerExecutor(), getNodeDependencies().get(), getTemporaryDir());
+    }
+
+}
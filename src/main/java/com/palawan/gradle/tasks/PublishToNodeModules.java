@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.tasks;
+
+import com.palawan.gradle.dsl.PublishMode;
+import com.palawan.gradle.internal.DescriptorTransaction;
+import com.palawan.gradle.util.AngularJsonHelper;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.DuplicatesStrategy;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Publishes compiled angular library into node_modules directory, so
+ * other angular projects of the workspace can use it. Previously
+ * published library is removed first if its content has changed.
+ * Library with the same content fingerprint is not published again.
+ *
+ * <p>In {@link PublishMode#LINK} mode the library is not copied,
+ * node_modules location is a symbolic link to the compiled library
+ * instead. If the file system does not support symbolic links, files
+ * are hard linked and copied as the last resort. The link is not
+ * declared as output directory, Gradle would snapshot the library
+ * through it, marker file {@link #getLinkMarker()} recording the link
+ * is the task output instead.</p>
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+public abstract class PublishToNodeModules extends DefaultTask {
+
+    /** Marker content of symbolic link */
+    private static final String SYMBOLIC_LINK = "symlink";
+    /** Marker content of hard linked files */
+    private static final String HARD_LINK = "hardlink";
+
+    /**
+     * Constructor verifies the link still exists in link mode
+     */
+    public PublishToNodeModules() {
+        getLinkMarker().convention(getLayout().getBuildDirectory().file("tmp/" + getName() + "/link.gradle"));
+
+        // Gradle does not support lambda actions as it can't track the class changes
+        //noinspection Convert2Lambda
+        getOutputs().upToDateWhen(new Spec<>() {
+            @Override
+            public boolean isSatisfiedBy(Task task) {
+                return getMode().get() != PublishMode.LINK || Files.exists(getDestination().get().getAsFile().toPath());
+            }
+        });
+    }
+
+    /**
+     * Gets compiled library directory
+     * @return  Library directory
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getLibrary();
+
+    /**
+     * Gets library location inside node_modules
+     * @return  Library location
+     */
+    @Internal
+    public abstract DirectoryProperty getDestination();
+
+    /**
+     * Gets publishing mode, {@link PublishMode#COPY} by default
+     * @return  Publishing mode
+     */
+    @Input
+    public abstract Property<PublishMode> getMode();
+
+    /**
+     * Gets marker file recording the link in {@link PublishMode#LINK}
+     * mode
+     * @return  Link marker file
+     */
+    @Internal
+    public abstract RegularFileProperty getLinkMarker();
+
+    /**
+     * Gets library copy in node_modules, output of {@link PublishMode#COPY}
+     * mode only
+     * @return  Library location or no value in link mode
+     */
+    @Optional
+    @OutputDirectory
+    public Provider<Directory> getCopiedLibrary() {
+        return getMode().flatMap(m -> m == PublishMode.COPY ? getDestination() : getLayout().dir(none()));
+    }
+
+    /**
+     * Gets link marker, output of {@link PublishMode#LINK} mode only
+     * @return  Link marker file or no value in copy mode
+     */
+    @Optional
+    @OutputFile
+    public Provider<RegularFile> getLinkedLibrary() {
+        return getMode().flatMap(m -> m == PublishMode.LINK ? getLinkMarker() : getLayout().file(none()));
+    }
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @Inject
+    protected abstract ProjectLayout getLayout();
+
+    @Inject
+    protected abstract ProviderFactory getProviders();
+
+    /**
+     * Task execution method
+     */
+    @TaskAction
+    public void publish() {
+        File library = getLibrary().getSingleFile();
+        File destination = getDestination().get().getAsFile();
+
+        try {
+            if (getMode().get() == PublishMode.LINK) {
+                link(library.toPath().toAbsolutePath(), destination.toPath());
+            } else {
+                copy(library, destination);
+            }
+
+        } catch (IOException e) {
+            throw new GradleException("Unable to publish " + library + " into " + destination, e);
+        }
+    }
+
+    private <T> Provider<T> none() {
+        return getProviders().provider(() -> null);
+    }
+
+    private void copy(File library, File destination) throws IOException {
+        if (Files.isSymbolicLink(destination.toPath())) {
+            Files.delete(destination.toPath());
+
+        } else if (!AngularJsonHelper.getInstance().artifactUpdated(destination, library)) {
+            setDidWork(false);
+            return;
+        }
+
+        getFileSystemOperations().delete(spec -> spec.delete(destination));
+        getFileSystemOperations().copy(spec -> {
+            spec.from(library);
+            spec.into(destination);
+            spec.setDuplicatesStrategy(DuplicatesStrategy.EXCLUDE);
+        });
+    }
+
+    private void link(Path library, Path destination) throws IOException {
+        Path marker = getLinkMarker().get().getAsFile().toPath();
+        String hardLinked = HARD_LINK + " " + library;
+
+        if (Files.isSymbolicLink(destination)) {
+            if (Files.readSymbolicLink(destination).equals(library)) {
+                writeMarker(marker, SYMBOLIC_LINK + " " + library);
+                setDidWork(false);
+                return;
+            }
+            Files.delete(destination);
+
+        } else if (Files.isDirectory(destination) && hardLinked.equals(readMarker(marker))) {
+            // symbolic links are not supported, relink changed files only
+            hardLink(library, destination);
+            return;
+
+        } else {
+            getFileSystemOperations().delete(spec -> spec.delete(destination));
+        }
+
+        Files.createDirectories(destination.getParent());
+        try {
+            Files.createSymbolicLink(destination, library);
+            writeMarker(marker, SYMBOLIC_LINK + " " + library);
+
+        } catch (UnsupportedOperationException | IOException e) {
+            // e.g. windows without privilege to create symbolic links
+            hardLink(library, destination);
+            writeMarker(marker, hardLinked);
+        }
+    }
+
+    /**
+     * Links files of the library into destination. Files already linked
+     * to the same library file are kept, files no longer present in
+     * the library are deleted.
+     */
+    private void hardLink(Path library, Path destination) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(library)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        Set<Path> linked = new HashSet<>();
+        boolean changed = false;
+        for (Path file : files) {
+            Path target = destination.resolve(library.relativize(file));
+            linked.add(target);
+            if (isLinked(file, target)) {
+                continue;
+            }
+
+            changed = true;
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, file);
+
+            } catch (UnsupportedOperationException | IOException e) {
+                // e.g. node_modules on different file system
+                Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+
+        List<Path> stale;
+        try (Stream<Path> walk = Files.walk(destination)) {
+            stale = walk.filter(Files::isRegularFile).filter(f -> !linked.contains(f)).collect(Collectors.toList());
+        }
+        for (Path file : stale) {
+            Files.delete(file);
+            changed = true;
+        }
+        setDidWork(changed);
+    }
+
+    /**
+     * Is target the same file as library file, or its copy if the file
+     * could not be linked?
+     */
+    private static boolean isLinked(Path file, Path target) throws IOException {
+        if (!Files.isRegularFile(target)) {
+            return false;
+        }
+        return Files.isSameFile(target, file)
+                || Files.size(target) == Files.size(file)
+                && Files.getLastModifiedTime(target).equals(Files.getLastModifiedTime(file));
+    }
+
+    @Nullable
+    private static String readMarker(Path marker) throws IOException {
+        return Files.isRegularFile(marker) ? Files.readString(marker) : null;
+    }
+
+    private static void writeMarker(Path marker, String content) throws IOException {
+        Files.createDirectories(marker.getParent());
+        DescriptorTransaction.writeIfChanged(marker, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -23,18 +23,21 @@
 package com.palawan.gradle.util;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.palawan.gradle.dsl.AngularJson;
 import com.palawan.gradle.dsl.NgPackage;
 import com.palawan.gradle.dsl.PackageJson;
+import com.palawan.gradle.internal.AngularJsonReader;
+import com.palawan.gradle.internal.ContentFingerprint;
+import com.palawan.gradle.internal.DescriptorTransaction;
 import com.palawan.gradle.internal.JacksonAngularJson;
 import com.palawan.gradle.internal.JacksonNgPackage;
 import com.palawan.gradle.internal.JacksonPackageJson;
+import com.palawan.gradle.internal.NodeDependency;
+import com.palawan.gradle.internal.ZipInspector;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
-import org.gradle.api.artifacts.ResolvedArtifact;
 import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
 
 import java.io.File;
@@ -45,11 +48,9 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.Instant;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.zip.ZipEntry;
 
 /**
  * @author Langr, Petr
@@ -62,8 +63,6 @@ public class AngularJsonHelper {
     public static final String ANGULAR_JSON_FILE_NAME = "angular.json";
     /** NodeJS library package descriptor file name */
     public static final String NODE_LIBRARY_DESCRIPTOR = "package.json";
-    /** Gradle build timestamp file */
-    public static final String TIMESTAMP_FILE = "timestamp.gradle";
 
     /**
      * Singleton instance of helper for angular descriptor operations
@@ -74,9 +73,13 @@ public class AngularJsonHelper {
     }
 
     private final ObjectMapper mapper;
+    private final AngularJsonReader angularJsonReader;
 
     private AngularJsonHelper() {
-        this.mapper = new ObjectMapper().configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+        this.mapper = new ObjectMapper()
+                .configure(JsonParser.Feature.ALLOW_COMMENTS, true)
+                .configure(JsonParser.Feature.ALLOW_TRAILING_COMMA, true);
+        this.angularJsonReader = new AngularJsonReader(mapper);
     }
 
     /**
@@ -93,25 +96,69 @@ public class AngularJsonHelper {
                 return Optional.empty();
             }
 
-            return Optional.of(new JacksonAngularJson(file, (ObjectNode) mapper.readTree(file)));
+            return Optional.of(new JacksonAngularJson(file, readAngularJson(Files.readAllBytes(file.toPath()))));
 
         } catch (IOException e) {
             throw new GradleException("Unable to read "+ANGULAR_JSON_FILE_NAME+" file");
         }
     }
 
+    /**
+     * Reads angular descriptor content. Only fields used by the plugin
+     * are read, see {@link AngularJsonReader}.
+     * @param content   Content of angular.json file
+     * @return          Parsed angular descriptor fields
+     * @throws IOException  If content is not valid json object
+     */
+    public ObjectNode readAngularJson(byte[] content) throws IOException {
+        return angularJsonReader.read(content);
+    }
+
+    /**
+     * Reads complete block of single angular project, see
+     * {@link AngularJsonReader#readProject(byte[], String)}.
+     * @param content   Content of angular.json file
+     * @param project   Name of angular project
+     * @return          Project block, empty if project is not defined
+     * @throws IOException  If content is not valid json object
+     */
+    public Optional<ObjectNode> readAngularJsonProject(byte[] content, String project) throws IOException {
+        return angularJsonReader.readProject(content, project);
+    }
+
+    /**
+     * Reads workspace descriptor fields referencing other projects, see
+     * {@link AngularJsonReader#readReferences(byte[])}.
+     * @param content   Content of package.json, ng-package.json or tsconfig
+     * @return          Parsed reference fields
+     * @throws IOException  If content is not valid json object
+     */
+    public ObjectNode readReferences(byte[] content) throws IOException {
+        return angularJsonReader.readReferences(content);
+    }
+
     /**
      * Locates and returns library descriptor for angular sub-project.
      * @param ngPackage Build script of required library
      * @return          Parsed descriptor
      */
     public NgPackage getNgPackageJson(File ngPackage) {
+        return getNgPackageJson(ngPackage, DescriptorTransaction.immediate());
+    }
+
+    /**
+     * Locates and returns library descriptor for angular sub-project.
+     * @param ngPackage     Build script of required library
+     * @param transaction   Transaction collecting descriptor updates
+     * @return          Parsed descriptor
+     */
+    public NgPackage getNgPackageJson(File ngPackage, DescriptorTransaction transaction) {
         try {
             if (!ngPackage.exists()) {
                 throw new GradleException("Angular library '" + ngPackage.getName() + "' does not exist.");
             }
 
-            return new JacksonNgPackage(ngPackage, (ObjectNode) mapper.readTree(ngPackage));
+            return new JacksonNgPackage(ngPackage, (ObjectNode) mapper.readTree(ngPackage), transaction);
 
         } catch (IOException e) {
             throw new GradleException("Unable to read angular.json file");
@@ -124,12 +171,22 @@ public class AngularJsonHelper {
      * @return  Optional implementation of package json interface
      */
     public Optional<PackageJson> getPackageJson(Path directory) {
+        return getPackageJson(directory, DescriptorTransaction.immediate());
+    }
+
+    /**
+     * Tries to locate package json file under given directory.
+     * @param directory     Directory to locate package json file
+     * @param transaction   Transaction collecting descriptor updates
+     * @return  Optional implementation of package json interface
+     */
+    public Optional<PackageJson> getPackageJson(Path directory, DescriptorTransaction transaction) {
         Path packagePath = directory.resolve(NODE_LIBRARY_DESCRIPTOR);
 
         try {
             if (Files.exists(packagePath)) {
                 File file = packagePath.toFile();
-                return Optional.of(new JacksonPackageJson((ObjectNode) mapper.readTree(file), file));
+                return Optional.of(new JacksonPackageJson((ObjectNode) mapper.readTree(file), file, transaction));
             }
 
             return Optional.empty();
@@ -138,56 +195,69 @@ public class AngularJsonHelper {
         }
     }
 
+    /**
+     * Reads complete content of json file. Comments and trailing commas
+     * are accepted, as typically used in tsconfig files.
+     * @param jsonFile  Json file to read
+     * @return  Parsed json object, empty if the file does not exist or
+     *          is not a json object
+     */
+    public Optional<ObjectNode> readJson(Path jsonFile) {
+        if (!Files.isRegularFile(jsonFile)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.ofNullable(mapper.readTree(jsonFile.toFile()))
+                    .filter(ObjectNode.class::isInstance)
+                    .map(ObjectNode.class::cast);
+        } catch (IOException e) {
+            throw new GradleException(String.format("Unable to read '%s' file", jsonFile), e);
+        }
+    }
+
     /**
      * Updates angular project descriptor file with given parsed object.
+     * Parsed object contains only fields used by the plugin, therefore
+     * it is merged into complete descriptor content. The file is written
+     * within descriptor transaction and only if its content changes.
      * @param angularJson   Parsed and updated descriptor data
      */
     public void updateAngularJson(AngularJson angularJson) {
         JacksonAngularJson angular = (JacksonAngularJson) angularJson;
 
-        try {
-            mapper.writerWithDefaultPrettyPrinter()
-                .writeValue(angular.getFile(), angular.getRoot());
-
-        } catch (IOException e) {
-            throw new GradleException("Unable to modify angular.json");
-        }
+        angular.getTransaction().update(angular.getFile(), () -> {
+            ObjectNode root = (ObjectNode) mapper.readTree(angular.getFile());
+            if (AngularJsonReader.merge(root, angular.getRoot())) {
+                return Optional.of(writeJson(root));
+            }
+            return Optional.empty();
+        });
     }
 
     /**
-     * Updates angular sub-project descriptor
+     * Updates angular sub-project descriptor. The file is written within
+     * descriptor transaction and only if its content changes.
      * @param ngPackage Parsed and update descriptor data
      */
     public void updateNgPackageJson(NgPackage ngPackage) {
         JacksonNgPackage json = (JacksonNgPackage) ngPackage;
-
-        try {
-            mapper.writerWithDefaultPrettyPrinter()
-                .writeValue(json.getFile(), json.getRoot());
-
-        } catch (IOException e) {
-            throw new GradleException("Unable to modify " + ngPackage.getFile());
-        }
+        json.getTransaction().update(json.getFile(), () -> writeJsonIfChanged(json.getFile(), json.getRoot()));
     }
 
     /**
-     * Updates package json file descriptor
+     * Updates package json file descriptor. The file is written within
+     * descriptor transaction and only if its content changes.
      * @param packageJson   Package json to be updated
      */
     public void updatePackageJson(PackageJson packageJson) {
         JacksonPackageJson json = (JacksonPackageJson) packageJson;
-
-        try {
-            mapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(json.getFile(), json.getRoot());
-
-        } catch (IOException e) {
-            throw new GradleException("Unable to modify " + json.getFile());
-        }
+        json.getTransaction().update(json.getFile(), () -> writeJsonIfChanged(json.getFile(), json.getRoot()));
     }
 
     /**
-     * Reads, process and updates json based file.
+     * Reads, process and updates json based file. The file is not
+     * written if its content does not change.
      * @param jsonFile  Json file to be updated
      * @param updater   Function which accepts parsed Json and returns
      *                  {@code true} if file needs to be updated.
@@ -198,8 +268,7 @@ public class AngularJsonHelper {
         try {
             ObjectNode root = (ObjectNode) mapper.readTree(file);
             if (updater.apply(root)) {
-                mapper.writerWithDefaultPrettyPrinter()
-                        .writeValue(file, root);
+                DescriptorTransaction.writeIfChanged(jsonFile, writeJson(root));
             }
 
         } catch (IOException e) {
@@ -221,81 +290,69 @@ public class AngularJsonHelper {
 
     /**
      * Verify whether artifact in given location {@code artifactFolder}
-     * was changed against to node_modules artifact at {@code libraryLocation}
+     * was changed against to node_modules artifact at {@code libraryLocation}.
+     * Artifacts are compared by their content fingerprint, artifact without
+     * fingerprint is always considered as changed.
      * @param libraryLocation   Library node module location
      * @param artifactFolder    New artifact location
-     * @return                  Returns {@code true} if module version/timestamp
+     * @return                  Returns {@code true} if module content
      *                          differs
+     * @see ContentFingerprint
      */
     public boolean artifactUpdated(Path libraryLocation, Path artifactFolder) {
-        Path libraryPackagePath = libraryLocation.resolve(NODE_LIBRARY_DESCRIPTOR);
-        Path artifactPackagePath = artifactFolder.resolve(NODE_LIBRARY_DESCRIPTOR);
-        Path libraryTimestampPath = libraryLocation.resolve(TIMESTAMP_FILE);
-        Path artifactTimestampPath = artifactFolder.resolve(TIMESTAMP_FILE);
-
-        if (!Files.exists(libraryPackagePath) || !Files.exists(artifactPackagePath)) {
-            return true;
-        }
-
         try {
-            String libraryVersion = getPackageVersion(libraryPackagePath.toFile()).orElse(null);
-            String artifactVersion = getPackageVersion(artifactPackagePath.toFile()).orElse(null);
-
-            if (Objects.equals(libraryVersion, artifactVersion)) {
-                String libStamp = Files.readString(libraryTimestampPath);
-                String artStamp = Files.readString(artifactTimestampPath);
-                return Files.exists(libraryTimestampPath) && Files.exists(artifactTimestampPath) &&
-                        ! Objects.equals(libStamp, artStamp);
-            }
+            Optional<String> libraryDigest = ContentFingerprint.readDigest(libraryLocation);
+            return !libraryDigest.isPresent() || !libraryDigest.equals(ContentFingerprint.readDigest(artifactFolder));
 
         } catch (IOException e) {
             throw new GradleException("Unable to read NodeJS library from " + libraryLocation, e);
         }
-
-        return true;
-
     }
 
     /**
-     * Verify whether given resolved artifact {@code artifact} differs with
-     * node module stored in node_modules for the artifact.
-     * @param project   Project instance to help process compressed files
-     * @param artifact  Updated artifact
-     * @return Returns {@code true} if module version/timestamp differs
+     * Verify whether given resolved node dependency differs with
+     * node module stored in node_modules for the dependency. Zip
+     * archive is not extracted, only its fingerprint manifest is read.
+     * @param dependency    Updated node dependency
+     * @return Returns {@code true} if module content differs
      */
-    public boolean artifactUpdated(Project project, ResolvedArtifact artifact) {
-        Path libraryLocation = ProjectUtil.getNodeModulesTarget(
-                project,
-                artifact.getModuleVersion().getId().getGroup(),
-                artifact.getName());
-        if (ArtifactTypeDefinition.ZIP_TYPE.equals(artifact.getType())) {
-            Optional<Path> artifactFile = project.zipTree(artifact.getFile()).getFiles().stream()
-                    .filter(f -> NODE_LIBRARY_DESCRIPTOR.equals(f.getName()))
-                    .map(File::getParentFile)
-                    .map(File::toPath)
-                    .reduce((f1, f2) -> f1.getNameCount() < f2.getNameCount() ? f1 : f2);
-            return artifactFile.map(file -> artifactUpdated(libraryLocation, file)).orElse(true);
-
-        } else if (ArtifactTypeDefinition.DIRECTORY_TYPE.equals(artifact.getType())) {
-            return artifactUpdated(libraryLocation, artifact.getFile().toPath());
+    public boolean artifactUpdated(NodeDependency dependency) {
+        Path libraryLocation = dependency.getTarget().toPath();
+        if (ArtifactTypeDefinition.ZIP_TYPE.equals(dependency.getType())) {
+            try (ZipInspector zip = new ZipInspector(dependency.getArtifact())) {
+                Optional<ZipEntry> manifest = zip.findShallowest(ContentFingerprint.FILE_NAME);
+                if (!manifest.isPresent()) {
+                    return true;
+                }
+
+                Optional<String> libraryDigest = ContentFingerprint.readDigest(libraryLocation);
+                return !libraryDigest.isPresent()
+                        || !libraryDigest.equals(ContentFingerprint.readDigest(zip.open(manifest.get())));
+
+            } catch (IOException e) {
+                throw new GradleException("Unable to read NodeJS library " + dependency.getArtifact(), e);
+            }
+
+        } else if (ArtifactTypeDefinition.DIRECTORY_TYPE.equals(dependency.getType())) {
+            return artifactUpdated(libraryLocation, dependency.getArtifact().toPath());
         }
         return true;
     }
 
     /**
-     * Generate build timestamp file to recognize changed
-     * version in snapshot builds.
+     * Generate content fingerprint manifest of build output to recognize
+     * changed content of the build. The manifest is not rewritten if the
+     * content has not changed.
      * @param project   Name of project
      * @param baseDir   Destination folder
+     * @see ContentFingerprint
      */
-    public void generateTimestamp(String project, File baseDir) {
+    public void generateFingerprint(String project, File baseDir) {
         try {
-            Files.write(
-                    Paths.get(baseDir.toString(), TIMESTAMP_FILE),
-                    Long.toString(Instant.now().getEpochSecond()).getBytes(StandardCharsets.UTF_8));
+            ContentFingerprint.of(baseDir.toPath()).write(baseDir.toPath());
 
         } catch (IOException e) {
-            throw new GradleException("Unable to write timestamp of '" + project + "' build.", e);
+            throw new GradleException("Unable to write fingerprint of '" + project + "' build.", e);
         }
     }
 
@@ -323,10 +380,15 @@ public class AngularJsonHelper {
         }
     }
 
-    private Optional<String> getPackageVersion(File file) throws IOException {
-        return Optional.ofNullable(mapper.readTree(file))
-                .map(r -> r.get("version"))
-                .map(JsonNode::asText);
+    private byte[] writeJson(ObjectNode root) throws IOException {
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(root);
+    }
+
+    private Optional<byte[]> writeJsonIfChanged(File file, ObjectNode root) throws IOException {
+        if (file.exists() && root.equals(mapper.readTree(file))) {
+            return Optional.empty();
+        }
+        return Optional.of(writeJson(root));
     }
 
 }
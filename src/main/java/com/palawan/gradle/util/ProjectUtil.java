@@ -22,12 +22,10 @@
 
 package com.palawan.gradle.util;
 
-import com.palawan.gradle.AngularBasePlugin;
-import com.palawan.gradle.dsl.AngularExtension;
+import com.palawan.gradle.internal.ProjectHierarchyIndex;
 import org.gradle.api.Project;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 
 /**
  * Project utility methods.
@@ -45,7 +43,7 @@ public class ProjectUtil {
      * @return node_modules path
      */
     public static Path getNodeModules(Project project) {
-        return getTopLevelProject(project).getProjectDir().toPath().resolve(AngularExtension.NODE_MODULES);
+        return ProjectHierarchyIndex.get(project).getNodeModules(project);
     }
 
     /**
@@ -59,35 +57,19 @@ public class ProjectUtil {
      * @return              Location of given artifact
      */
     public static Path getNodeModulesTarget(Project project, String artifactGroup, String artifactName) {
-        AngularExtension extension = AngularExtension.get(project);
-        Path nodeArtifactPath;
-        if (extension.getGroup() == null) {
-            nodeArtifactPath = Paths.get(getNodeModules(project).toString(), artifactGroup, artifactName);
-        } else {
-            nodeArtifactPath = Paths.get(getNodeModules(project).toString(), extension.getGroup(), artifactName);
-        }
-        return nodeArtifactPath;
+        return ProjectHierarchyIndex.get(project).getNodeModulesTarget(project, artifactGroup, artifactName);
     }
 
     /**
      * Get the most higher gradle project in its hierarchy. The method
      * returns highest parent of given project for multi-project
      * configuration. Otherwise it returns the same project.
+     * The result is kept by {@link ProjectHierarchyIndex} of the build.
      * @param project   Project to get highest parent from
      * @return  The highest level project
      */
     public static Project getTopLevelProject(Project project) {
-
-        Project root = project;
-
-        while (project != null) {
-            project = project.getParent();
-            if (project != null && project.getPlugins().hasPlugin(AngularBasePlugin.class)) {
-                root = project;
-            }
-        }
-
-        return root;
+        return ProjectHierarchyIndex.get(project).getTopLevelProject(project);
     }
 
     /**
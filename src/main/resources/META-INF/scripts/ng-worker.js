@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/*
+ * Long-lived angular build worker. Builds are requested by line
+ * delimited JSON on standard input:
+ *   {"id": 1, "cwd": "<workspace>", "cli": "<node_modules>/@angular/cli/bin/ng.js", "args": ["build", "app"]}
+ * All console output is wrapped into {"type": "out"|"err", "data": "..."}
+ * messages. Once the build finishes {"type": "done", "id": 1, "exitCode": 0, "rss": 123}
+ * is written. Angular CLI modules stay loaded between builds, while each
+ * build creates its own compilation. Angular CLI without function exported
+ * by lib/cli can't be executed by the worker, in such case
+ * {"type": "done", "id": 1, "unsupported": true} is written instead.
+ */
+'use strict';
+
+const path = require('path');
+const readline = require('readline');
+
+const stdout = process.stdout.write.bind(process.stdout);
+
+function send(message) {
+    stdout(JSON.stringify(message) + '\n');
+}
+
+function redirect(stream, type) {
+    stream.write = (chunk, encoding, callback) => {
+        send({ type: type, data: Buffer.isBuffer(chunk) ? chunk.toString(typeof encoding === 'string' ? encoding : 'utf8') : String(chunk) });
+        const done = typeof encoding === 'function' ? encoding : callback;
+        if (done) {
+            done();
+        }
+        return true;
+    };
+}
+
+function loadCli(request) {
+    let cli;
+    try {
+        cli = require(path.join(path.dirname(path.dirname(request.cli)), 'lib', 'cli'));
+    } catch (error) {
+        if (error && error.code === 'MODULE_NOT_FOUND') {
+            return null;
+        }
+        throw error;
+    }
+    const run = cli && (cli.default || cli);
+    return typeof run === 'function' ? run : null;
+}
+
+async function build(request) {
+    process.chdir(request.cwd);
+    process.exitCode = 0;
+    const cli = loadCli(request);
+    if (!cli) {
+        return { unsupported: true };
+    }
+    const exitCode = await cli({ cliArgs: request.args });
+    return { exitCode: typeof exitCode === 'number' ? exitCode : process.exitCode || 0 };
+}
+
+redirect(process.stdout, 'out');
+redirect(process.stderr, 'err');
+
+let queue = Promise.resolve();
+readline.createInterface({ input: process.stdin })
+    .on('line', line => {
+        const request = JSON.parse(line);
+        queue = queue
+            .then(() => build(request))
+            .catch(error => {
+                send({ type: 'err', data: (error && error.stack || String(error)) + '\n' });
+                return { exitCode: 1 };
+            })
+            .then(result => send(Object.assign({ type: 'done', id: request.id, rss: process.memoryUsage().rss }, result)));
+    })
+    .on('close', () => queue.then(() => process.exit(0)));
@@ -27,6 +27,7 @@ import org.gradle.api.GradleException
 import org.gradle.api.Project
 import org.gradle.api.model.ObjectFactory
 import org.gradle.api.plugins.ExtensionContainer
+import org.gradle.api.provider.Property
 import spock.lang.Specification
 
 /**
@@ -41,6 +42,8 @@ class AngularExtensionTests extends Specification {
 
 	private SourceSetContainer sourceSetContainer;
 
+	private Property<PublishMode> publishMode;
+
 	def setup() {
 		Project project = Mock()
 		project.file(_) >> new File("/tmp")
@@ -49,6 +52,8 @@ class AngularExtensionTests extends Specification {
 		def objFactory = Mock(ObjectFactory)
 		sourceSetContainer = Mock(SourceSetContainer)
 		objFactory.newInstance(AngularSourceSetContainer.class) >> sourceSetContainer
+		publishMode = Mock(Property)
+		objFactory.property(PublishMode.class) >> publishMode
 
 		NodeExtension node = new NodeExtension( project )
 		extension = new AngularExtension(node, null, objFactory)
@@ -146,6 +151,27 @@ class AngularExtensionTests extends Specification {
 
 	}
 
+	def "SetPublishMode"() {
+
+		when:
+		extension.setPublishMode("Link")
+
+		then:
+		1 * publishMode.set(PublishMode.LINK)
+		extension.getPublishMode().is(publishMode)
+
+	}
+
+	def "SetPublishMode_unknown"() {
+
+		when:
+		extension.setPublishMode("move")
+
+		then:
+		thrown(GradleException)
+
+	}
+
 	def "GetAngularJson"() {
 
 		when:
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class AffectedProjectsTests extends Specification {
+
+	private Path temp
+	private AffectedProjects affectedProjects
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		Files.createDirectories(temp.resolve("projects/components/src"))
+		Files.createDirectories(temp.resolve("projects/widgets/src"))
+		Files.createDirectories(temp.resolve("src"))
+		Files.writeString(temp.resolve("angular.json"), '''{
+			"version": 1,
+			"projects": {
+				"components": {
+					"projectType": "library",
+					"root": "projects/components",
+					"sourceRoot": "projects/components/src"
+				},
+				"widgets": {
+					"projectType": "library",
+					"root": "projects/widgets",
+					"sourceRoot": "projects/widgets/src"
+				},
+				"demo": {
+					"projectType": "application",
+					"root": "",
+					"sourceRoot": "src",
+					"architect": { "build": { "options": {
+						"tsConfig": "tsconfig.app.json"
+					} } }
+				}
+			},
+			"defaultProject": "demo"
+		}''')
+		Files.writeString(temp.resolve("projects/widgets/package.json"), '{"name":"widgets","peerDependencies":{"components":"^1.0.0"}}')
+		Files.writeString(temp.resolve("projects/components/package.json"), '{"name":"components"}')
+
+		def file = temp.resolve("angular.json").toFile()
+		def angularJson = new JacksonAngularJson(file, new ObjectMapper().readTree(file) as ObjectNode)
+		affectedProjects = new AffectedProjects(temp, angularJson.getProjects().values(), WorkspaceGraph.of(file))
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "GetAffected"() {
+
+		expect:
+		affectedProjects.getAffected(files) == affected as Set
+
+		where:
+		files                                              || affected
+		[]                                                 || []
+		["projects/components/src/public-api.ts"]          || ["components", "widgets"]
+		["projects/widgets/package.json"]                  || ["widgets"]
+		["src/main.ts"]                                    || ["demo"]
+		["tsconfig.app.json"]                              || ["demo"]
+		["docs/README.md", "README.md"]                    || []
+		["package-lock.json"]                              || ["components", "demo", "widgets"]
+		[" angular.json "]                                 || ["components", "demo", "widgets"]
+
+	}
+
+}
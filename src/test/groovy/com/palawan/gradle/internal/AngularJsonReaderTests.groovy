@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Paths
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class AngularJsonReaderTests extends Specification {
+
+	private AngularJsonReader testReader
+
+	private byte[] content
+
+	def setup() {
+		testReader = new AngularJsonReader(new ObjectMapper())
+		content = Files.readAllBytes(Paths.get(getClass().getResource("/angular.json").toURI()))
+	}
+
+	def "Read"() {
+
+		when:
+		def result = testReader.read(content)
+
+		then:
+		result.get("defaultProject").asText() == "ng-library"
+		result.get("projects").size() == 3
+		result.get("\$schema") == null
+		result.get("newProjectRoot") == null
+
+	}
+
+	def "Read_project"() {
+
+		when:
+		def result = testReader.read(content).get("projects").get("ng-library")
+
+		then:
+		result.get("root").asText() == ""
+		result.get("sourceRoot").asText() == "src"
+		result.get("projectType").asText() == "application"
+		result.get("schematics") == null
+		result.get("prefix") == null
+		result.get("architect").get("build").get("options").get("outputPath").asText() == "build/angular/main"
+		result.get("architect").get("build").get("builder") == null
+		result.get("architect").get("build").get("configurations").get("production").get("fileReplacements").size() == 1
+		result.get("architect").get("build").get("configurations").get("production").get("budgets") == null
+		result.get("architect").get("test").get("options").get("karmaConfig").asText() == "karma.conf.js"
+		result.get("architect").get("serve") == null
+
+	}
+
+	def "Read_comments"() {
+
+		given:
+		def reader = new AngularJsonReader(new ObjectMapper().configure(JsonParser.Feature.ALLOW_COMMENTS, true))
+
+		when:
+		def result = reader.read('{ /* comment */ "defaultProject": "app", "projects": {} }'.bytes)
+
+		then:
+		result.get("defaultProject").asText() == "app"
+
+	}
+
+	def "Read_invalid"() {
+
+		when:
+		testReader.read('[]'.bytes)
+
+		then:
+		thrown(IOException)
+
+	}
+
+	def "ReadProject"() {
+
+		when:
+		def result = testReader.readProject(content, "ng-library")
+
+		then:
+		result.isPresent()
+		result.get().get("root").asText() == ""
+		result.get().get("schematics") != null
+		result.get().get("architect").get("build").get("builder") != null
+		result.get().get("architect").get("serve") != null
+
+	}
+
+	def "ReadProject_missing"() {
+
+		expect:
+		!testReader.readProject(content, "unknown").isPresent()
+
+	}
+
+	def "ReadReferences"() {
+
+		when:
+		def result = testReader.readReferences('''{
+			"name": "@sample/components",
+			"version": "1.0.0",
+			"peerDependencies": { "@angular/core": "^12.2.0" },
+			"extends": "../../tsconfig.json",
+			"compilerOptions": { "outDir": "out", "paths": { "widgets/*": ["projects/widgets/src/*"] } }
+		}'''.bytes)
+
+		then:
+		result.get("name").asText() == "@sample/components"
+		result.get("version") == null
+		result.get("peerDependencies").has("@angular/core")
+		result.get("extends").asText() == "../../tsconfig.json"
+		result.get("compilerOptions").get("outDir") == null
+		result.get("compilerOptions").get("paths").has("widgets/*")
+
+	}
+
+	def "Merge"() {
+
+		given:
+		def mapper = new ObjectMapper()
+		def target = mapper.readTree(content) as ObjectNode
+		def source = testReader.read(content)
+		(source.get("projects").get("example").get("architect").get("build").get("options") as ObjectNode)
+				.put("outputPath", "build/angular/example")
+
+		when:
+		def result = AngularJsonReader.merge(target, source)
+
+		then:
+		result
+		target.get("projects").get("example").get("architect").get("build").get("options").get("outputPath").asText() == "build/angular/example"
+		target.get("projects").get("ng-library").get("architect").get("serve") != null
+		target.get("\$schema") != null
+
+	}
+
+	def "Merge_unchanged"() {
+
+		given:
+		def mapper = new ObjectMapper()
+		def target = mapper.readTree(content) as ObjectNode
+
+		when:
+		def result = AngularJsonReader.merge(target, testReader.read(content))
+
+		then:
+		!result
+		target == mapper.readTree(content)
+
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import com.palawan.gradle.dsl.AngularJsonProject
+import com.palawan.gradle.util.AngularJsonHelper
+import org.gradle.api.GradleException
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class AngularJsonSnapshotTests extends Specification {
+
+	private AngularJsonSnapshot testSnapshot
+
+	private File angularFile
+
+	private static Path temp;
+
+	def setupSpec() {
+		temp = Files.createTempDirectory("junit")
+	}
+
+	def cleanupSpec() {
+		if (temp != null) {
+			temp.toFile().deleteDir()
+		}
+	}
+
+	def setup() {
+		Files.createDirectories(temp.resolve("projects/components"))
+		["angular.json", "package.json", "projects/components/ng-package.json", "projects/components/package.json"].each {
+			Files.copy(Paths.get(getClass().getResource("/" + it).toURI()), temp.resolve(it), StandardCopyOption.REPLACE_EXISTING)
+		}
+		angularFile = temp.resolve("angular.json").toFile()
+		// transaction of the build is committed once configured
+		def transaction = DescriptorTransaction.open()
+		transaction.commit()
+		testSnapshot = AngularJsonSnapshot.of(new JacksonAngularJson(angularFile, DescriptorCache.getInstance().read(angularFile.toPath()), transaction))
+	}
+
+	def "GetProjects"() {
+
+		when:
+		def result = testSnapshot.getProjects()
+
+		then:
+		result.size() == 3
+		result.keySet() == ["ng-library", "components", "example"] as Set
+		result.is(testSnapshot.getProjects())
+
+	}
+
+	def "GetDefaultProject"() {
+
+		when:
+		def result = testSnapshot.getDefaultProject()
+
+		then:
+		result.isPresent()
+		result.get().getName() == "ng-library"
+		result.get().isDefault()
+
+	}
+
+	def "GetProject"() {
+
+		when:
+		def result = testSnapshot.getProject("components").get()
+
+		then:
+		result.getProjectType() == AngularJsonProject.Type.LIBRARY
+		result.getRoot() == temp.resolve("projects/components")
+		result.getVersion() == "1.0.0"
+		result.getNgPackageFile().get().getFile() == temp.resolve("projects/components/ng-package.json").toFile()
+		result.getProjectFiles().count() > 0
+
+	}
+
+	def "GetProject_unknown"() {
+
+		expect:
+		!testSnapshot.getProject("unknown").isPresent()
+
+	}
+
+	def "GetNgPackageFile_missing"() {
+
+		when:
+		testSnapshot.getProject("example").get().getNgPackageFile()
+
+		then:
+		thrown(GradleException)
+
+	}
+
+	def "Serialize"() {
+
+		given:
+		def bytes = new ByteArrayOutputStream()
+		new ObjectOutputStream(bytes).writeObject(testSnapshot)
+
+		when:
+		def result = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject() as AngularJsonSnapshot
+
+		then:
+		result.getProjects().keySet() == testSnapshot.getProjects().keySet()
+		result.getDefaultProject().get().getName() == "ng-library"
+		result.getProject("components").get().getVersion() == "1.0.0"
+
+	}
+
+	def "SetVersion"() {
+
+		given:
+		def project = testSnapshot.getProject("components").get()
+
+		when:
+		project.setVersion("2.0.0")
+
+		then: "Change is written into descriptor"
+		AngularJsonHelper.getInstance().getPackageJson(temp.resolve("projects/components")).get().getVersion() == "2.0.0"
+
+		and: "Snapshot is not changed"
+		project.getVersion() == "1.0.0"
+
+		when: "Previous version is restored"
+		project.setVersion("1.0.0")
+
+		then:
+		AngularJsonHelper.getInstance().getPackageJson(temp.resolve("projects/components")).get().getVersion() == "1.0.0"
+
+	}
+
+	def "SetOutputPath"() {
+
+		given:
+		def project = testSnapshot.getProject("components").get()
+		def ngPackage = temp.resolve("projects/components/ng-package.json")
+
+		when:
+		project.setOutputPath(temp.resolve("out/components"))
+
+		then:
+		AngularJsonHelper.getInstance().getNgPackageJson(ngPackage.toFile()).getDestination().get() == temp.resolve("out/components")
+
+	}
+
+	def "SetOutputPath_written"() {
+
+		given: "Output path already written through the snapshot"
+		def project = testSnapshot.getProject("components").get()
+		def ngPackage = temp.resolve("projects/components/ng-package.json")
+		project.setOutputPath(temp.resolve("out/components"))
+		def written = ngPackage.text
+
+		and: "Descriptor is changed outside of the build"
+		ngPackage.text = written.replace("out/components", "dist/components")
+
+		when:
+		project.setOutputPath(temp.resolve("out/components"))
+
+		then: "Descriptor is not read nor written again"
+		ngPackage.text == written.replace("out/components", "dist/components")
+
+	}
+
+}
@@ -174,6 +174,58 @@ class AngularProjectSourceSetTests extends Specification {
 
 	}
 
+	def "GetWatchTaskName_main"() {
+
+		given:
+		testSourceSet = new AngularProjectSourceSet("main", objectFactory)
+
+		when:
+		def result = testSourceSet.getWatchTaskName()
+
+		then:
+		result == "watchAngular"
+
+	}
+
+	def "GetWatchTaskName"() {
+
+		given:
+		testSourceSet = new AngularProjectSourceSet("sample-app", objectFactory)
+
+		when:
+		def result = testSourceSet.getWatchTaskName()
+
+		then:
+		result == "watchSampleAppAngular"
+
+	}
+
+	def "GetExtractTaskName_main"() {
+
+		given:
+		testSourceSet = new AngularProjectSourceSet("main", objectFactory)
+
+		when:
+		def result = testSourceSet.getExtractTaskName()
+
+		then:
+		result == "extractNodeLibraries"
+
+	}
+
+	def "GetExtractTaskName"() {
+
+		given:
+		testSourceSet = new AngularProjectSourceSet("sample-app", objectFactory)
+
+		when:
+		def result = testSourceSet.getExtractTaskName()
+
+		then:
+		result == "extractSampleAppNodeLibraries"
+
+	}
+
 	def "GetDistributionTaskName_main"() {
 
 		given:
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class CliCacheTests extends Specification {
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Key"() {
+
+		expect:
+		CliCache.key("lock", "12.2.17") == CliCache.key("lock", "12.2.17")
+		CliCache.key("lock", "12.2.17") != CliCache.key("lock", "13.0.0")
+		CliCache.key("lock", "12.2.17") != CliCache.key("changed", "12.2.17")
+		CliCache.key("lock", "12.2.17").length() == 16
+
+	}
+
+	def "WorkspaceKey"() {
+
+		expect:
+		CliCache.workspaceKey(temp.resolve("workspace").toFile()) == CliCache.workspaceKey(temp.resolve("workspace").toFile())
+		CliCache.workspaceKey(temp.resolve("workspace").toFile()) != CliCache.workspaceKey(temp.resolve("other").toFile())
+		CliCache.workspaceKey(temp.resolve("workspace").toFile()).length() == 16
+
+	}
+
+	def "Restore"() {
+
+		given:
+		def directory = temp.resolve("cache/components")
+		def first = new CliCache(directory.toFile(), "first", 1024, null)
+		def second = new CliCache(directory.toFile(), "second", 1024, null)
+
+		when:
+		first.restore()
+		Files.writeString(directory.resolve("current/first.txt"), "first")
+		second.restore()
+
+		then:
+		Files.readString(directory.resolve("current/cache.key")) == "second"
+		!Files.exists(directory.resolve("current/first.txt"))
+		Files.readString(directory.resolve("first/first.txt")) == "first"
+
+		when:
+		first.restore()
+
+		then:
+		Files.readString(directory.resolve("current/cache.key")) == "first"
+		Files.readString(directory.resolve("current/first.txt")) == "first"
+		Files.isDirectory(directory.resolve("second"))
+		!Files.exists(directory.resolve("first"))
+
+	}
+
+	def "Restore_currentDirectory"() {
+
+		given: "Caches stored outside of the workspace"
+		def directory = temp.resolve("cache/components")
+		def current = temp.resolve("workspace/.angular/cache/gradle/components")
+
+		when:
+		new CliCache(directory.toFile(), current.toFile(), "first", 1024, null).restore()
+		Files.writeString(current.resolve("first.txt"), "first")
+		new CliCache(directory.toFile(), current.toFile(), "second", 1024, null).restore()
+
+		then:
+		Files.readString(current.resolve("cache.key")) == "second"
+		Files.readString(directory.resolve("first/first.txt")) == "first"
+		!Files.exists(directory.resolve(CliCache.CURRENT))
+
+		when:
+		new CliCache(directory.toFile(), current.toFile(), "first", 1024, null).restore()
+
+		then:
+		Files.readString(current.resolve("first.txt")) == "first"
+		Files.isDirectory(directory.resolve("second"))
+
+	}
+
+	def "Restore_seed"() {
+
+		given:
+		def seed = temp.resolve("seed/components")
+		Files.createDirectories(seed.resolve("current"))
+		Files.writeString(seed.resolve("current/cache.key"), "first")
+		Files.writeString(seed.resolve("current/seed.txt"), "seed")
+		def directory = temp.resolve("cache/components")
+
+		when:
+		new CliCache(directory.toFile(), "first", 1024, seed.toFile()).restore()
+
+		then:
+		Files.readString(directory.resolve("current/seed.txt")) == "seed"
+		// seed is left untouched
+		Files.exists(seed.resolve("current/seed.txt"))
+
+		when:
+		new CliCache(directory.toFile(), "second", 1024, seed.toFile()).restore()
+
+		then:
+		!Files.exists(directory.resolve("current/seed.txt"))
+
+	}
+
+	def "Trim"() {
+
+		given:
+		def directory = temp.resolve("cache/components")
+		["oldest", "older"].eachWithIndex { key, i ->
+			Files.createDirectories(directory.resolve(key))
+			Files.write(directory.resolve(key).resolve("data"), new byte[700 * 1024])
+			Files.setLastModifiedTime(directory.resolve(key), FileTime.fromMillis(1000L * (i + 1)))
+		}
+		def cache = new CliCache(directory.toFile(), "latest", 1, null)
+		cache.restore()
+		Files.write(directory.resolve("current/data"), new byte[100 * 1024])
+
+		when:
+		cache.trim()
+
+		then:
+		!Files.exists(directory.resolve("oldest"))
+		Files.exists(directory.resolve("older"))
+		Files.exists(directory.resolve("current/data"))
+
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class CompileInputsTests extends Specification {
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		Files.createDirectories(temp.resolve("projects/components/src"))
+		Files.writeString(temp.resolve("angular.json"), '''{
+			"version": 1,
+			"projects": {
+				"components": {
+					"projectType": "library",
+					"root": "projects/components",
+					"sourceRoot": "projects/components/src",
+					"architect": {
+						"build": {
+							"options": {
+								"project": "projects/components/ng-package.json",
+								"tsConfig": "projects/components/tsconfig.lib.json"
+							},
+							"configurations": {
+								"production": { "tsConfig": "projects/components/tsconfig.lib.prod.json" }
+							}
+						}
+					}
+				}
+			}
+		}''')
+		Files.writeString(temp.resolve("package.json"), '{"name":"sample","devDependencies":{"@angular/cli":"~12.2.0"}}')
+		Files.writeString(temp.resolve("package-lock.json"), '{}')
+		Files.writeString(temp.resolve("tsconfig.json"), '''{
+			// workspace configuration
+			"extends": "@tsconfig/strictest/tsconfig.json",
+			"compilerOptions": { "strict": true, },
+		}''')
+		Files.writeString(temp.resolve("projects/components/package.json"), '{"name":"components"}')
+		Files.writeString(temp.resolve("projects/components/ng-package.json"), '{"dest":"../../dist/components"}')
+		Files.writeString(temp.resolve("projects/components/tsconfig.lib.json"), '{"extends":"../../tsconfig"}')
+		Files.writeString(temp.resolve("projects/components/tsconfig.lib.prod.json"), '{"extends":["./tsconfig.lib.json"]}')
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "GetProjectDescriptor"() {
+
+		when:
+		def result = new CompileInputs(temp.resolve("angular.json").toFile(), "components").getProjectDescriptor()
+
+		then:
+		result.startsWith('{"architect":{"build":{"configurations"')
+		result.endsWith('"projectType":"library","root":"projects/components","sourceRoot":"projects/components/src"}')
+		result.contains('"tsConfig":"projects/components/tsconfig.lib.prod.json"')
+		new CompileInputs(temp.resolve("angular.json").toFile(), "unknown").getProjectDescriptor() == ""
+
+	}
+
+	def "GetProjectDescriptor_relocated"() {
+
+		given:
+		def other = Files.createDirectories(temp.resolve("other"))
+		Files.copy(temp.resolve("angular.json"), other.resolve("angular.json"))
+
+		expect:
+		new CompileInputs(temp.resolve("angular.json").toFile(), "components").getProjectDescriptor() ==
+				new CompileInputs(other.resolve("angular.json").toFile(), "components").getProjectDescriptor()
+
+	}
+
+	def "GetProjectDescriptor_otherProjectChanged"() {
+
+		given:
+		def inputs = new CompileInputs(temp.resolve("angular.json").toFile(), "components")
+		def descriptor = inputs.getProjectDescriptor()
+
+		when: "Other project is added and fields are reordered"
+		Files.writeString(temp.resolve("angular.json"), '{"version":1,"projects":{"sample-app":{"root":""},"components":' +
+				'{"sourceRoot":"projects/components/src","root":"projects/components","projectType":"library",' +
+				'"architect":{"build":{"configurations":{"production":{"tsConfig":"projects/components/tsconfig.lib.prod.json"}},' +
+				'"options":{"tsConfig":"projects/components/tsconfig.lib.json","project":"projects/components/ng-package.json"}}}}}}')
+
+		then:
+		new CompileInputs(temp.resolve("angular.json").toFile(), "components").getProjectDescriptor() == descriptor
+
+	}
+
+	def "GetProjectDescriptor_cliCache"() {
+
+		given:
+		def inputs = new CompileInputs(temp.resolve("angular.json").toFile(), "components")
+		def descriptor = inputs.getProjectDescriptor()
+
+		when: "Project defines machine specific cache location"
+		def angularJson = temp.resolve("angular.json")
+		Files.writeString(angularJson, angularJson.text.replace('"projectType": "library",',
+				'"projectType": "library", "cli": { "cache": { "enabled": true, "path": "/home/ci/angular-cache" } },'))
+
+		then:
+		new CompileInputs(temp.resolve("angular.json").toFile(), "components").getProjectDescriptor() == descriptor
+
+	}
+
+	def "GetProjectDescriptor_readOnce"() {
+
+		given:
+		def inputs = new CompileInputs(temp.resolve("angular.json").toFile(), "components")
+		def descriptor = inputs.getProjectDescriptor()
+
+		when: "Descriptor changes after the project block was read"
+		Files.writeString(temp.resolve("angular.json"), '{"version":1,"projects":{"components":{"root":"other"}}}')
+
+		then:
+		inputs.getProjectDescriptor() == descriptor
+		inputs.getDescriptorFiles().collect { temp.relativize(it.toPath()).toString().replace('\\', '/') }
+				.contains("projects/components/ng-package.json")
+
+	}
+
+	def "GetDescriptorFiles_references"() {
+
+		given:
+		Files.createDirectories(temp.resolve("src/assets"))
+		["src/main.ts", "src/favicon.ico", "src/styles.css", "src/env.prod.ts", "tsconfig.app.json"].each {
+			Files.writeString(temp.resolve(it), it.endsWith(".json") ? '{"extends":"./tsconfig.json"}' : "")
+		}
+		Files.writeString(temp.resolve("angular.json"), '''{
+			"projects": {
+				"sample-app": {
+					"root": "",
+					"sourceRoot": "src",
+					"architect": {
+						"build": {
+							"options": {
+								"main": "src/main.ts",
+								"tsConfig": "tsconfig.app.json",
+								"assets": [ "src/favicon.ico", { "glob": "**/*", "input": "src/assets", "output": "/assets" } ],
+								"styles": [ { "input": "src/styles.css", "bundleName": "styles" } ]
+							},
+							"configurations": {
+								"production": {
+									"fileReplacements": [ { "replace": "src/env.ts", "with": "src/env.prod.ts" } ]
+								}
+							}
+						}
+					}
+				}
+			}
+		}''')
+
+		when:
+		def result = new CompileInputs(temp.resolve("angular.json").toFile(), "sample-app").getDescriptorFiles()
+
+		then:
+		result.collect { temp.relativize(it.toPath()).toString().replace('\\', '/') } == [
+				"package.json",
+				"package-lock.json",
+				"src/main.ts",
+				"tsconfig.app.json",
+				"tsconfig.json",
+				"src/favicon.ico",
+				"src/assets",
+				"src/styles.css",
+				"src/env.prod.ts"
+		]
+
+	}
+
+	def "GetDescriptorFiles"() {
+
+		when:
+		def result = new CompileInputs(temp.resolve("angular.json").toFile(), "components").getDescriptorFiles()
+
+		then:
+		result.collect { temp.relativize(it.toPath()).toString().replace('\\', '/') } == [
+				"package.json",
+				"package-lock.json",
+				"projects/components/package.json",
+				"projects/components/ng-package.json",
+				"projects/components/tsconfig.lib.json",
+				"tsconfig.json",
+				"projects/components/tsconfig.lib.prod.json"
+		]
+
+	}
+
+	def "GetAngularVersion"() {
+
+		given:
+		def inputs = new CompileInputs(temp.resolve("angular.json").toFile(), "components")
+
+		expect: "Declared version"
+		inputs.getAngularVersion().get() == "~12.2.0"
+
+		when: "Angular CLI is installed"
+		def cli = Files.createDirectories(temp.resolve("node_modules/@angular/cli"))
+		Files.writeString(cli.resolve("package.json"), '{"name":"@angular/cli","version":"12.2.17"}')
+
+		then:
+		inputs.getAngularVersion().get() == "12.2.17"
+
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class ContentFingerprintTests extends Specification {
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		Files.createDirectories(temp.resolve("lib/esm"))
+		Files.writeString(temp.resolve("lib/package.json"), '{"name":"lib","version":"1.0.0"}')
+		Files.writeString(temp.resolve("lib/esm/lib.js"), 'export const lib = 1;')
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Of"() {
+
+		when:
+		def result = ContentFingerprint.of(temp.resolve("lib"))
+
+		then:
+		result.getFiles().keySet() as List == ["esm/lib.js", "package.json"]
+		result.getDigest().length() == 64
+
+	}
+
+	def "Of_deterministic"() {
+
+		given: "The same content in other directory"
+		def copy = temp.resolve("copy/esm")
+		Files.createDirectories(copy)
+		Files.copy(temp.resolve("lib/esm/lib.js"), copy.resolve("lib.js"))
+		Files.copy(temp.resolve("lib/package.json"), copy.parent.resolve("package.json"))
+
+		expect:
+		ContentFingerprint.of(temp.resolve("lib")).getDigest() == ContentFingerprint.of(copy.parent).getDigest()
+
+	}
+
+	def "Of_changed"() {
+
+		given:
+		def digest = ContentFingerprint.of(temp.resolve("lib")).getDigest()
+
+		when:
+		Files.writeString(temp.resolve("lib/esm/lib.js"), 'export const lib = 2;')
+
+		then:
+		ContentFingerprint.of(temp.resolve("lib")).getDigest() != digest
+
+	}
+
+	def "Of_paths"() {
+
+		when:
+		def result = ContentFingerprint.of(temp.resolve("lib"), ["package.json", "missing.json"])
+
+		then:
+		result.getFiles().keySet() as List == ["package.json"]
+
+	}
+
+	def "Write"() {
+
+		given:
+		def fingerprint = ContentFingerprint.of(temp.resolve("lib"))
+
+		when:
+		fingerprint.write(temp.resolve("lib"))
+
+		then: "Manifest is not part of fingerprint"
+		ContentFingerprint.readDigest(temp.resolve("lib")).get() == fingerprint.getDigest()
+		ContentFingerprint.of(temp.resolve("lib")).getDigest() == fingerprint.getDigest()
+
+	}
+
+	def "ReadDigest_missing"() {
+
+		expect:
+		!ContentFingerprint.readDigest(temp.resolve("lib")).isPresent()
+
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.nio.file.attribute.FileTime
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class DescriptorCacheTests extends Specification {
+
+	private DescriptorCache testCache
+
+	private Path jsonPath
+
+	private static Path temp;
+
+	def setupSpec() {
+		temp = Files.createTempDirectory("junit")
+	}
+
+	def cleanupSpec() {
+		if (temp != null) {
+			temp.toFile().deleteDir()
+		}
+	}
+
+	def setup() {
+		testCache = new DescriptorCache({ content -> new ObjectMapper().readTree(content) as ObjectNode })
+		jsonPath = Files.copy(Paths.get(getClass().getResource("/package.json").toURI()),
+				temp.resolve("package.json"), StandardCopyOption.REPLACE_EXISTING)
+	}
+
+	def "Read"() {
+
+		when:
+		def result = testCache.read(jsonPath)
+
+		then:
+		result.get("version").asText() == "1.0.0"
+		testCache.isCached(jsonPath)
+
+	}
+
+	def "Read_copy"() {
+
+		given:
+		testCache.read(jsonPath).put("version", "2.0.0")
+
+		when:
+		def result = testCache.read(jsonPath)
+
+		then:
+		result.get("version").asText() == "1.0.0"
+
+	}
+
+	def "Read_modified"() {
+
+		given:
+		testCache.read(jsonPath)
+
+		and:
+		jsonPath.text = jsonPath.text.replace("1.0.0", "1.0.1")
+		Files.setLastModifiedTime(jsonPath, FileTime.fromMillis(System.currentTimeMillis() + 2000L))
+
+		when:
+		def result = testCache.read(jsonPath)
+
+		then:
+		result.get("version").asText() == "1.0.1"
+
+	}
+
+	def "Read_touched"() {
+
+		given:
+		testCache.read(jsonPath)
+
+		and:
+		Files.setLastModifiedTime(jsonPath, FileTime.fromMillis(System.currentTimeMillis() + 4000L))
+
+		expect:
+		!testCache.isCached(jsonPath)
+		testCache.read(jsonPath).get("version").asText() == "1.0.0"
+		testCache.isCached(jsonPath)
+
+	}
+
+	def "IsCached_unknown"() {
+
+		expect:
+		!testCache.isCached(temp.resolve("unknown.json"))
+
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import com.palawan.gradle.util.AngularJsonHelper
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.nio.file.attribute.FileTime
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class DescriptorTransactionTests extends Specification {
+
+	private Path jsonPath
+
+	private static Path temp;
+
+	def setupSpec() {
+		temp = Files.createTempDirectory("junit")
+	}
+
+	def cleanupSpec() {
+		if (temp != null) {
+			temp.toFile().deleteDir()
+		}
+	}
+
+	def setup() {
+		jsonPath = Files.copy(Paths.get(getClass().getResource("/package.json").toURI()),
+				temp.resolve("package.json"), StandardCopyOption.REPLACE_EXISTING)
+		Files.setLastModifiedTime(jsonPath, FileTime.fromMillis(1000L))
+	}
+
+	def "Update"() {
+
+		given: "Open transaction"
+		def transaction = DescriptorTransaction.open()
+		def packageJson = AngularJsonHelper.getInstance().getPackageJson(temp, transaction).get()
+
+		when: "Version updated twice"
+		packageJson.setVersion("2.0.0")
+		packageJson.setVersion("3.0.0")
+
+		then: "File is not written yet"
+		transaction.isPending(jsonPath.toFile())
+		Files.getLastModifiedTime(jsonPath) == FileTime.fromMillis(1000L)
+
+		when: "Transaction committed"
+		transaction.commit()
+
+		then: "Latest version is written"
+		!transaction.isPending(jsonPath.toFile())
+		AngularJsonHelper.getInstance().getPackageJson(temp).get().getVersion() == "3.0.0"
+
+	}
+
+	def "Update_committed"() {
+
+		given: "Committed transaction"
+		def transaction = DescriptorTransaction.open()
+		transaction.commit()
+		def packageJson = AngularJsonHelper.getInstance().getPackageJson(temp, transaction).get()
+
+		when:
+		packageJson.setVersion("2.0.0")
+
+		then: "File is written immediately"
+		!transaction.isPending(jsonPath.toFile())
+		AngularJsonHelper.getInstance().getPackageJson(temp).get().getVersion() == "2.0.0"
+
+	}
+
+	def "Update_unchanged"() {
+
+		given:
+		def transaction = DescriptorTransaction.open()
+		def packageJson = AngularJsonHelper.getInstance().getPackageJson(temp, transaction).get()
+
+		when: "Scripts are updated to same values"
+		packageJson.updateScripts({ name, script -> script })
+		transaction.commit()
+
+		then: "File is not rewritten"
+		Files.getLastModifiedTime(jsonPath) == FileTime.fromMillis(1000L)
+
+	}
+
+	def "WriteIfChanged"() {
+
+		given:
+		def content = Files.readAllBytes(jsonPath)
+
+		when: "Same content written"
+		def written = DescriptorTransaction.writeIfChanged(jsonPath, content)
+
+		then:
+		!written
+		Files.getLastModifiedTime(jsonPath) == FileTime.fromMillis(1000L)
+
+		when: "Different content written"
+		written = DescriptorTransaction.writeIfChanged(jsonPath, "{}".getBytes(StandardCharsets.UTF_8))
+
+		then:
+		written
+		new String(Files.readAllBytes(jsonPath), StandardCharsets.UTF_8) == "{}"
+
+	}
+
+	def "Change"() {
+
+		given:
+		def transaction = DescriptorTransaction.open()
+		def file = jsonPath.toFile()
+
+		expect: "Change of current value is ignored"
+		!transaction.change(file, "app.version", "1.0.0", "1.0.0")
+
+		and: "Each value is changed once"
+		transaction.change(file, "app.version", "1.0.0", "2.0.0")
+		!transaction.change(file, "app.version", "1.0.0", "2.0.0")
+
+		and: "Previous value is compared with recorded change"
+		transaction.change(file, "app.version", "1.0.0", "1.0.0")
+
+		and: "Immediate transaction does not record changes"
+		DescriptorTransaction.immediate().change(file, "app.version", "1.0.0", "2.0.0")
+		DescriptorTransaction.immediate().change(file, "app.version", "1.0.0", "2.0.0")
+
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import org.gradle.api.Action
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition
+import org.gradle.api.file.Directory
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+import org.gradle.workers.WorkQueue
+import org.gradle.workers.WorkerExecutionException
+import org.gradle.workers.WorkerExecutor
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class ExtractNodeDependenciesTests extends Specification {
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Execute"() {
+
+		given: "Zipped library"
+		def archive = temp.resolve("library.zip").toFile()
+		new ZipOutputStream(new FileOutputStream(archive)).withCloseable { zip ->
+			zip.putNextEntry(new ZipEntry("package.json"))
+			zip.write('{"name":"library"}'.getBytes(StandardCharsets.UTF_8))
+		}
+		def target = temp.resolve("node_modules/library").toFile()
+
+		and:
+		def action = createAction([new NodeDependency(archive, ArtifactTypeDefinition.ZIP_TYPE, target)])
+
+		when:
+		action.execute()
+
+		then:
+		new File(target, "package.json").text == '{"name":"library"}'
+
+		and: "Manifest is kept outside of node_modules"
+		!new File(target, ZipSync.FILE_NAME).exists()
+		Files.exists(ExtractNodeDependencies.getManifest(temp.resolve("manifests"), target))
+
+	}
+
+	def "Execute_directory"() {
+
+		given: "Library extracted by transform"
+		def directory = Files.createDirectories(temp.resolve("transformed/library/esm"))
+		Files.writeString(directory.resolve("library.js"), "export {};")
+		def target = temp.resolve("node_modules/library").toFile()
+
+		and:
+		def action = createAction([new NodeDependency(directory.parent.toFile(), ArtifactTypeDefinition.DIRECTORY_TYPE, target)])
+
+		when:
+		action.execute()
+
+		then:
+		new File(target, "esm/library.js").text == "export {};"
+
+	}
+
+	def "ExtractAll"() {
+
+		given: "Libraries of three node_modules locations, one of them corrupted"
+		def first = new NodeDependency(zip("first.zip", "first"), ArtifactTypeDefinition.ZIP_TYPE, temp.resolve("node_modules/a").toFile())
+		def second = new NodeDependency(zip("second.zip", "second"), ArtifactTypeDefinition.ZIP_TYPE, temp.resolve("node_modules/a").toFile())
+		def corrupted = temp.resolve("corrupted.zip").toFile()
+		corrupted.text = "not a zip archive"
+		def failing = new NodeDependency(corrupted, ArtifactTypeDefinition.ZIP_TYPE, temp.resolve("node_modules/b").toFile())
+		def third = new NodeDependency(zip("third.zip", "third"), ArtifactTypeDefinition.ZIP_TYPE, temp.resolve("node_modules/c").toFile())
+
+		and: "Work queue executing items in parallel"
+		def queue = new ParallelQueue(3)
+		WorkerExecutor executor = Mock()
+		executor.noIsolation() >> queue
+
+		when:
+		ExtractNodeDependencies.extractAll(executor, [third, failing, first, second], temp.resolve("manifests").toFile())
+
+		then: "Failure is reported once all items finished"
+		def e = thrown(WorkerExecutionException)
+		e.getCauses().size() == 1
+		e.getCauses()[0].message.contains(corrupted.toString())
+
+		and: "Each target is extracted by single item in order of targets"
+		queue.submitted == [[first, second], [failing], [third]]
+
+		and: "Items ran concurrently"
+		queue.threads.size() == 3
+
+		and: "Other targets are extracted"
+		temp.resolve("node_modules/a/package.json").text == '{"name":"second"}'
+		temp.resolve("node_modules/c/package.json").text == '{"name":"third"}'
+
+	}
+
+	private File zip(String name, String library) {
+		def archive = temp.resolve(name).toFile()
+		new ZipOutputStream(new FileOutputStream(archive)).withCloseable { zip ->
+			zip.putNextEntry(new ZipEntry("package.json"))
+			zip.write(('{"name":"' + library + '"}').getBytes(StandardCharsets.UTF_8))
+		}
+		return archive
+	}
+
+	private static Directory directory(Path path) {
+		return [getAsFile: { path.toFile() }] as Directory
+	}
+
+	private ExtractNodeDependencies createAction(List<NodeDependency> dependencies) {
+		ListProperty<NodeDependency> property = Mock()
+		property.get() >> dependencies
+		DirectoryProperty manifests = Mock()
+		manifests.get() >> directory(temp.resolve("manifests"))
+		ExtractNodeDependencies.Parameters parameters = Mock()
+		parameters.getDependencies() >> property
+		parameters.getManifests() >> manifests
+
+		return new ExtractNodeDependencies() {
+			@Override
+			ExtractNodeDependencies.Parameters getParameters() {
+				return parameters
+			}
+		}
+	}
+
+	/**
+	 * Work queue executing each item by its own thread. Items wait for
+	 * each other before they start, so they are known to run concurrently.
+	 * Failures are collected the same way as by Gradle work queue.
+	 */
+	private static class ParallelQueue implements WorkQueue {
+
+		final List<List<NodeDependency>> submitted = []
+		final Set<String> threads = ConcurrentHashMap.newKeySet()
+		private final ExecutorService executor
+		private final CountDownLatch started
+		private final List<Future<?>> items = []
+
+		ParallelQueue(int items) {
+			executor = Executors.newFixedThreadPool(items)
+			started = new CountDownLatch(items)
+		}
+
+		@Override
+		<T extends WorkParameters> void submit(Class<? extends WorkAction<T>> type, Action<? super T> configure) {
+			List<NodeDependency> dependencies = []
+			def property = [set: { Iterable value -> dependencies.addAll(value) }, get: { dependencies }] as ListProperty<NodeDependency>
+			File manifestDirectory
+			def manifests = [set: { File value -> manifestDirectory = value }, get: { directory(manifestDirectory.toPath()) }] as DirectoryProperty
+			def parameters = [getDependencies: { property }, getManifests: { manifests }] as ExtractNodeDependencies.Parameters
+			configure.execute((T) parameters)
+			submitted << dependencies
+
+			def action = new ExtractNodeDependencies() {
+				@Override
+				ExtractNodeDependencies.Parameters getParameters() {
+					return parameters
+				}
+			}
+			items << executor.submit({
+				threads << Thread.currentThread().getName()
+				started.countDown()
+				started.await(10, TimeUnit.SECONDS)
+				action.execute()
+			} as Runnable)
+		}
+
+		@Override
+		void await() throws WorkerExecutionException {
+			List<Throwable> failures = []
+			items.each {
+				try {
+					it.get()
+				} catch (ExecutionException e) {
+					failures << e.getCause()
+				}
+			}
+			executor.shutdown()
+			if (!failures.isEmpty()) {
+				throw new WorkerExecutionException("Extraction failed", failures)
+			}
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class FreezableAngularJsonTests extends Specification {
+
+	private FreezableAngularJson testJson
+
+	def setup() {
+		File file = new File(getClass().getResource("/angular.json").toURI())
+		testJson = new FreezableAngularJson(new JacksonAngularJson(file, DescriptorCache.getInstance().read(file.toPath())))
+	}
+
+	def "Freeze"() {
+
+		given:
+		def projects = testJson.getProjects().keySet()
+
+		when:
+		testJson.freeze()
+
+		then:
+		testJson.isFrozen()
+		testJson.getProjects().keySet() == projects
+		testJson.getDefaultProject().get().getName() == "ng-library"
+		testJson.getProject("components").get() instanceof AngularJsonProjectSnapshot
+
+	}
+
+	def "Freeze_twice"() {
+
+		given:
+		testJson.freeze()
+		def projects = testJson.getProjects()
+
+		when:
+		testJson.freeze()
+
+		then:
+		testJson.getProjects().is(projects)
+
+	}
+
+}
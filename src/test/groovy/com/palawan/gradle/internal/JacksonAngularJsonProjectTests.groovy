@@ -238,6 +238,43 @@ class JacksonAngularJsonProjectTests extends Specification {
 
 	}
 
+	def "SetCachePath"() {
+
+		given:
+		def file = temp.resolve("angular.json")
+		createProject(file.toFile(), "ng-library")
+
+		when:
+		testProject.setCachePath(file.getParent().resolve("build/angular-cache/ng-library/current"))
+		createProject(file.toFile(), "ng-library")
+
+		then:
+		testProject.getCachePath() == Optional.of(file.getParent().resolve("build/angular-cache/ng-library/current"))
+		new ObjectMapper().readTree(file.toFile()).at("/projects/ng-library/cli/cache/path").asText() == "build/angular-cache/ng-library/current"
+		// options of the user are kept
+		new ObjectMapper().readTree(file.toFile()).at("/projects/ng-library/cli/cache/enabled").isMissingNode()
+		new ObjectMapper().readTree(file.toFile()).at("/projects/ng-library/cli/cache/environment").isMissingNode()
+
+	}
+
+	def "SetCachePath_outsideWorkspace"() {
+
+		given:
+		def file = temp.resolve("workspace/angular.json")
+		Files.createDirectories(file.parent)
+		Files.copy(getResource("/angular.json"), file)
+		createProject(file.toFile(), "ng-library")
+
+		when:
+		testProject.setCachePath(temp.resolve("cache/ng-library/current"))
+		createProject(file.toFile(), "ng-library")
+
+		then: "Path is relative to workspace"
+		new ObjectMapper().readTree(file.toFile()).at("/projects/ng-library/cli/cache/path").asText() == "../cache/ng-library/current"
+		testProject.getCachePath() == Optional.of(temp.resolve("cache/ng-library/current"))
+
+	}
+
 	def "IsDefault"() {
 
 		when:
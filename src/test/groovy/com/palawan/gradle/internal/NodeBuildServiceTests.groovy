@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import org.gradle.api.GradleException
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class NodeBuildServiceTests extends Specification {
+
+	def "GetMaxParallelBuilds"() {
+
+		expect:
+		NodeBuildService.getMaxParallelBuilds(cores, memory, 2048) == builds
+
+		where:
+		cores | memory  || builds
+		8     | 13312   || 6    // 16 GB agent, memory bound
+		4     | 13312   || 4    // core bound
+		16    | 1024    || 1    // at least one build
+		4     | -1      || 4    // unknown memory
+
+	}
+
+	def "GetMaxOldSpaceSize"() {
+
+		expect:
+		NodeBuildService.getMaxOldSpaceSize(memory, builds) == heap
+
+		where:
+		memory  | builds  || heap
+		13312   | 6       || 2218
+		13312   | 1       || 8192 // upper limit
+		-1      | 4       || 0    // unknown memory
+		0       | 1       || 0
+
+	}
+
+	def "ParsePositive"() {
+
+		expect:
+		NodeBuildService.parsePositive(NodeBuildService.MAX_PARALLEL_BUILDS_PROPERTY, " 2") == 2
+
+	}
+
+	def "ParsePositive_invalid"() {
+
+		when:
+		NodeBuildService.parsePositive(NodeBuildService.MAX_PARALLEL_BUILDS_PROPERTY, value)
+
+		then:
+		def e = thrown(GradleException)
+		e.message.contains(NodeBuildService.MAX_PARALLEL_BUILDS_PROPERTY)
+
+		where:
+		value << ["0", "-1", "two"]
+
+	}
+
+	def "GetWorkerMaxMemory"() {
+
+		expect:
+		NodeBuildService.getWorkerMaxMemory(2218) == 2218
+		NodeBuildService.getWorkerMaxMemory(0) == NodeBuildService.DEFAULT_BUILD_MEMORY
+
+	}
+
+	def "GetAvailableMemory"() {
+
+		expect:
+		NodeBuildService.getAvailableMemory(free, growth) == memory
+
+		where:
+		free    | growth  || memory
+		16384   | 2048    || 13312
+		6144    | 0       || 5120  // other processes use most of the memory
+		2048    | 4096    || 0
+		4096    | -1      || 3072
+
+	}
+
+	def "GetMemAvailable"() {
+
+		given:
+		def temp = Files.createTempDirectory("junit")
+		def meminfo = temp.resolve("meminfo")
+		Files.writeString(meminfo, """MemTotal:       16303944 kB
+MemFree:          512000 kB
+MemAvailable:    6291456 kB
+Buffers:          204800 kB
+""")
+
+		expect:
+		NodeBuildService.getMemAvailable(meminfo) == 6144
+		NodeBuildService.getMemAvailable(temp.resolve("missing")) == -1
+
+	}
+
+}
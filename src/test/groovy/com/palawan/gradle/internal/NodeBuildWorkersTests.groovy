@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import org.gradle.api.logging.Logger
+import org.gradle.api.logging.Logging
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+@Requires({ NodeBuildWorkersTests.nodeAvailable() })
+class NodeBuildWorkersTests extends Specification {
+
+	private static final Logger LOGGER = Logging.getLogger(NodeBuildWorkersTests)
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		Path cli = temp.resolve("node_modules/@angular/cli")
+		Files.createDirectories(cli.resolve("bin"))
+		Files.createDirectories(cli.resolve("lib/cli"))
+		Files.writeString(cli.resolve("bin/ng.js"), 'process.exit(1);')
+		Files.writeString(cli.resolve("lib/cli/index.js"), '''
+			const fs = require('fs');
+			let builds = 0;
+			exports.default = async function ({ cliArgs }) {
+				builds++;
+				console.log('building ' + cliArgs.join(' '));
+				fs.writeFileSync(cliArgs[1] + '.txt', String(builds));
+				return cliArgs[1] === 'failing' ? 3 : 0;
+			};
+		''')
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Build"() {
+
+		given:
+		def workers = new NodeBuildWorkers()
+
+		when:
+		def first = workers.build(commandLine("app"), temp.toFile(), 1, 4096, LOGGER)
+		def second = workers.build(commandLine("components"), temp.toFile(), 1, 4096, LOGGER)
+		def failing = workers.build(commandLine("failing"), temp.toFile(), 1, 4096, LOGGER)
+
+		then:
+		first == OptionalInt.of(0)
+		second == OptionalInt.of(0)
+		failing == OptionalInt.of(3)
+		// angular CLI stays loaded between builds
+		Files.readString(temp.resolve("app.txt")) == "1"
+		Files.readString(temp.resolve("components.txt")) == "2"
+		Files.readString(temp.resolve("failing.txt")) == "3"
+
+	}
+
+	def "Build_memoryLimit"() {
+
+		given:
+		def workers = new NodeBuildWorkers()
+
+		when:
+		workers.build(commandLine("app"), temp.toFile(), 1, 1, LOGGER)
+		workers.build(commandLine("components"), temp.toFile(), 1, 1, LOGGER)
+
+		then:
+		// worker exceeding memory limit is replaced
+		Files.readString(temp.resolve("app.txt")) == "1"
+		Files.readString(temp.resolve("components.txt")) == "1"
+
+	}
+
+	def "Build_lockFilesChanged"() {
+
+		given:
+		def workers = new NodeBuildWorkers()
+
+		when:
+		workers.build(commandLine("app"), temp.toFile(), 1, 4096, LOGGER)
+		Files.writeString(temp.resolve("package-lock.json"), '{"lockfileVersion":2}')
+		workers.build(commandLine("components"), temp.toFile(), 1, 4096, LOGGER)
+
+		then: "Worker loaded with outdated node modules is replaced"
+		Files.readString(temp.resolve("app.txt")) == "1"
+		Files.readString(temp.resolve("components.txt")) == "1"
+
+	}
+
+	def "Build_unsupported"() {
+
+		given: "Angular CLI without lib/cli entry point"
+		temp.resolve("node_modules/@angular/cli/lib").toFile().deleteDir()
+		def workers = new NodeBuildWorkers()
+
+		expect:
+		!workers.build(commandLine("app"), temp.toFile(), 1, 4096, LOGGER).isPresent()
+		!workers.buildInBatch("first", commandLine("app"), temp.toFile(), 1, 4096, LOGGER).isPresent()
+
+		cleanup:
+		workers.closeBatch("first", false)
+
+	}
+
+	def "BuildInBatch"() {
+
+		given:
+		def workers = new NodeBuildWorkers()
+
+		when:
+		workers.buildInBatch("first", commandLine("components"), temp.toFile(), 1, 4096, LOGGER)
+		def failing = workers.buildInBatch("first", commandLine("failing"), temp.toFile(), 1, 4096, LOGGER)
+		workers.buildInBatch("first", commandLine("app"), temp.toFile(), 1, 4096, LOGGER)
+		workers.closeBatch("first", false)
+		workers.buildInBatch("second", commandLine("widgets"), temp.toFile(), 1, 4096, LOGGER)
+		workers.closeBatch("second", false)
+
+		then:
+		failing == OptionalInt.of(3)
+		Files.readString(temp.resolve("components.txt")) == "1"
+		Files.readString(temp.resolve("failing.txt")) == "2"
+		Files.readString(temp.resolve("app.txt")) == "3"
+		// closed batch worker is not reused
+		Files.readString(temp.resolve("widgets.txt")) == "1"
+
+	}
+
+	def "Close"() {
+
+		given:
+		def workers = new NodeBuildWorkers()
+
+		when:
+		workers.build(commandLine("app"), temp.toFile(), 1, 4096, LOGGER)
+		workers.close()
+		workers.build(commandLine("components"), temp.toFile(), 1, 4096, LOGGER)
+
+		then: "Closed pool does not keep workers"
+		Files.readString(temp.resolve("app.txt")) == "1"
+		Files.readString(temp.resolve("components.txt")) == "1"
+
+		cleanup:
+		workers.close()
+
+	}
+
+	private NodeCommandLine commandLine(String project) {
+		return NodeCommandLine.of(null, null, temp.resolve("node_modules"), ["build", project], 0)
+	}
+
+	static boolean nodeAvailable() {
+		try {
+			def process = ["node", "--version"].execute()
+			process.waitFor()
+			return process.exitValue() == 0
+		} catch (IOException ignored) {
+			return false
+		}
+	}
+
+}
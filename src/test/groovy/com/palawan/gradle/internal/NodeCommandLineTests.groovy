@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import org.gradle.api.GradleException
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class NodeCommandLineTests extends Specification {
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Of_downloaded"() {
+
+		given: "NodeJS layout of both Windows and unix"
+		def version = Files.createDirectories(temp.resolve("nodejs/node-v16.13.1/bin"))
+		Files.createFile(version.resolve("node"))
+		Files.createFile(version.parent.resolve("node.exe"))
+
+		when:
+		def result = NodeCommandLine.of(temp.resolve("nodejs"), "16.13.1", temp.resolve("node_modules"), ["build", "components"], 2048)
+
+		then:
+		Path.of(result.getExecutable()).parent.startsWith(temp.resolve("nodejs/node-v16.13.1"))
+		result.getArguments() == [
+				temp.resolve("node_modules/@angular/cli/bin/ng.js").toString(),
+				"build",
+				"components"
+		]
+		result.getEnvironment().find { it.key.equalsIgnoreCase("PATH") }.value
+				.startsWith(Path.of(result.getExecutable()).parent.toString())
+		result.getEnvironment()[NodeCommandLine.NODE_OPTIONS].endsWith("--max-old-space-size=2048")
+
+	}
+
+	def "Of_downloadedVersions"() {
+
+		given: "Several NodeJS versions installed"
+		["node-v14.18.3", "node-v16.13.1", "node-v16.13.10"].each {
+			def bin = Files.createDirectories(temp.resolve("nodejs/${it}/bin"))
+			Files.createFile(bin.resolve("node"))
+			Files.createFile(bin.parent.resolve("node.exe"))
+		}
+
+		when:
+		def result = NodeCommandLine.of(temp.resolve("nodejs"), "16.13.1", temp.resolve("node_modules"), ["build"], 0)
+
+		then:
+		Path.of(result.getExecutable()).parent.startsWith(temp.resolve("nodejs/node-v16.13.1"))
+
+		when: "Configured version is not known"
+		NodeCommandLine.of(temp.resolve("nodejs"), null, temp.resolve("node_modules"), ["build"], 0)
+
+		then:
+		thrown(GradleException)
+
+	}
+
+	def "OfPackager_downloaded"() {
+
+		given: "NodeJS and packager layout of both Windows and unix"
+		def version = Files.createDirectories(temp.resolve("nodejs/node-v16.13.1/bin"))
+		Files.createFile(version.resolve("node"))
+		Files.createFile(version.parent.resolve("node.exe"))
+		def packager = Files.createDirectories(temp.resolve("pnpm/bin"))
+		Files.createFile(packager.resolve("pnpm"))
+		Files.createFile(packager.resolve("pnpm.cmd"))
+
+		when:
+		def result = NodeCommandLine.ofPackager(temp.resolve("nodejs"), "16.13.1", "pnpm", packager,
+				temp.resolve("node_modules"), ["run", "build", "--project=components"], 2048)
+
+		then:
+		Path.of(result.getExecutable()).parent == packager
+		result.getArguments() == ["run", "build", "--project=components"]
+		def path = result.getEnvironment().find { it.key.equalsIgnoreCase("PATH") }.value
+		path.startsWith(temp.resolve("nodejs/node-v16.13.1").toString())
+		path.contains(packager.toString())
+		result.getEnvironment()[NodeCommandLine.NODE_OPTIONS].endsWith("--max-old-space-size=2048")
+
+	}
+
+	def "OfPackager_system"() {
+
+		when:
+		def result = NodeCommandLine.ofPackager(null, null, "npm", null, temp.resolve("node_modules"), ["run", "build"], 0)
+
+		then: "Environment is not changed"
+		Path.of(result.getExecutable()).fileName.toString().startsWith("npm")
+		result.getArguments() == ["run", "build"]
+		result.getEnvironment().isEmpty()
+
+	}
+
+	def "IsVersion"() {
+
+		expect:
+		NodeCommandLine.isVersion(directory, "16.13.1") == matches
+
+		where:
+		directory                   || matches
+		"16.13.1"                   || true
+		"v16.13.1"                  || true
+		"node-v16.13.1"             || true
+		"node-v16.13.1-linux-x64"   || true
+		"node-v16.13.10-linux-x64"  || false
+		"node-v16.13"               || false
+
+	}
+
+	def "Of_notDownloaded"() {
+
+		when:
+		NodeCommandLine.of(temp.resolve("nodejs"), "16.13.1", temp.resolve("node_modules"), ["build"], 0)
+
+		then:
+		thrown(GradleException)
+
+	}
+
+	def "Of_system"() {
+
+		when:
+		def result = NodeCommandLine.of(null, null, temp.resolve("node_modules"), ["build"], 0)
+
+		then: "Environment is not changed"
+		Path.of(result.getExecutable()).fileName.toString().startsWith("node")
+		result.getEnvironment().isEmpty()
+
+	}
+
+}
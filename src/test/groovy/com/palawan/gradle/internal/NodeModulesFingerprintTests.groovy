@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class NodeModulesFingerprintTests extends Specification {
+
+	private Path temp
+
+	private Path nodeModules
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		nodeModules = Files.createDirectories(temp.resolve("node_modules/@angular/cli"))
+				.parent.parent
+		Files.writeString(temp.resolve("package-lock.json"), '{"lockfileVersion":2}')
+		Files.writeString(nodeModules.resolve(".package-lock.json"), '{"lockfileVersion":2,"packages":{}}')
+		Files.writeString(nodeModules.resolve("@angular/cli/package.json"), '{"version":"12.2.17"}')
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Of"() {
+
+		when:
+		def result = NodeModulesFingerprint.of(nodeModules)
+
+		then: "Installed packages are not part of fingerprint"
+		result.getFiles().keySet() as List == ["node_modules/.package-lock.json", "package-lock.json"]
+
+	}
+
+	def "GetLockFiles"() {
+
+		expect:
+		NodeModulesFingerprint.getLockFiles(nodeModules) == [
+				temp.resolve("package-lock.json").toFile(),
+				nodeModules.resolve(".package-lock.json").toFile()
+		]
+
+	}
+
+	def "GetLockFileDigest"() {
+
+		given:
+		def digest = NodeModulesFingerprint.getLockFileDigest(nodeModules)
+
+		when: "Packages are installed again"
+		Files.writeString(nodeModules.resolve(".package-lock.json"), '{"lockfileVersion":2,"packages":{"x":{}}}')
+
+		then:
+		NodeModulesFingerprint.getLockFileDigest(nodeModules) == digest
+
+		when: "Workspace lock file changes"
+		Files.writeString(temp.resolve("package-lock.json"), '{"lockfileVersion":3}')
+
+		then:
+		NodeModulesFingerprint.getLockFileDigest(nodeModules) != digest
+
+	}
+
+	def "IsUpToDate"() {
+
+		expect: "No fingerprint stored"
+		!NodeModulesFingerprint.isUpToDate(nodeModules)
+
+		when:
+		NodeModulesFingerprint.write(nodeModules)
+
+		then:
+		NodeModulesFingerprint.getMarker(nodeModules).exists()
+		NodeModulesFingerprint.isUpToDate(nodeModules)
+
+		when: "Packages are installed again"
+		Files.writeString(nodeModules.resolve(".package-lock.json"), '{"lockfileVersion":2,"packages":{"x":{}}}')
+
+		then:
+		!NodeModulesFingerprint.isUpToDate(nodeModules)
+
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import com.palawan.gradle.AngularBasePlugin
+import com.palawan.gradle.dsl.AngularExtension
+import com.palawan.gradle.dsl.PublishMode
+import org.gradle.api.Project
+import org.gradle.api.model.ObjectFactory
+import org.gradle.api.plugins.ExtensionContainer
+import org.gradle.api.plugins.PluginContainer
+import org.gradle.api.provider.Property
+import org.gradle.api.ProjectState
+import org.gradle.api.services.BuildServiceParameters
+import spock.lang.Specification
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class ProjectHierarchyIndexTests extends Specification {
+
+	private ProjectHierarchyIndex testIndex
+
+	Project root
+
+	PluginContainer rootPlugins
+
+	Project ngRoot
+
+	PluginContainer ngPlugins
+
+	Project project
+
+	def setup() {
+		testIndex = new ProjectHierarchyIndex() {
+			@Override
+			BuildServiceParameters.None getParameters() {
+				return null
+			}
+		}
+
+		root = Mock(Project)
+		rootPlugins = Mock(PluginContainer)
+		root.getPath() >> ":"
+		root.getPlugins() >> rootPlugins
+		root.getProjectDir() >> new File("/work")
+
+		ngRoot = Mock(Project)
+		ngPlugins = Mock(PluginContainer)
+		ngRoot.getPath() >> ":web"
+		ngRoot.getParent() >> root
+		ngRoot.getPlugins() >> ngPlugins
+		ngRoot.getProjectDir() >> new File("/work/web")
+
+		project = Mock(Project)
+		project.getPath() >> ":web:library"
+		project.getParent() >> ngRoot
+		project.getProjectDir() >> new File("/work/web/library")
+		project.project(":web") >> ngRoot
+		project.project(":") >> root
+	}
+
+	def "GetTopLevelProject"() {
+
+		given:
+		rootPlugins.hasPlugin(AngularBasePlugin.class) >> false
+		ngPlugins.hasPlugin(AngularBasePlugin.class) >> true
+
+		expect:
+		testIndex.getTopLevelProject(project) == ngRoot
+		testIndex.getTopLevelProject(ngRoot) == ngRoot
+		testIndex.getTopLevelProject(root) == root
+
+	}
+
+	def "GetTopLevelProject_root"() {
+
+		given:
+		rootPlugins.hasPlugin(AngularBasePlugin.class) >> true
+		ngPlugins.hasPlugin(AngularBasePlugin.class) >> false
+
+		expect:
+		testIndex.getTopLevelProject(project) == root
+
+	}
+
+	def "GetTopLevelProject_cached"() {
+
+		when:
+		testIndex.getTopLevelProject(project)
+		testIndex.getTopLevelProject(project)
+		testIndex.getTopLevelProject(ngRoot)
+
+		then: "Each parent is tested once"
+		1 * rootPlugins.hasPlugin(AngularBasePlugin.class) >> false
+		1 * ngPlugins.hasPlugin(AngularBasePlugin.class) >> true
+
+	}
+
+	def "GetNodeModules"() {
+
+		given:
+		rootPlugins.hasPlugin(AngularBasePlugin.class) >> false
+		ngPlugins.hasPlugin(AngularBasePlugin.class) >> true
+
+		expect:
+		testIndex.getNodeModules(project) == new File("/work/web/node_modules").toPath()
+
+	}
+
+	def "GetNodeModulesTarget"() {
+
+		given:
+		rootPlugins.hasPlugin(AngularBasePlugin.class) >> false
+		ngPlugins.hasPlugin(AngularBasePlugin.class) >> true
+		def extension = extension(project, false)
+
+		expect: "Artifact group is used unless extension defines group"
+		testIndex.getNodeModulesTarget(project, "org.example", "lib") == new File("/work/web/node_modules/org.example/lib").toPath()
+
+		when:
+		extension.setGroup("@example")
+		def result = testIndex.getNodeModulesTarget(project, "org.example", "lib")
+
+		then:
+		result == new File("/work/web/node_modules/@example/lib").toPath()
+
+	}
+
+	def "GetNodeModulesTarget_evaluated"() {
+
+		given:
+		rootPlugins.hasPlugin(AngularBasePlugin.class) >> false
+		ngPlugins.hasPlugin(AngularBasePlugin.class) >> true
+		def extensions = Mock(ExtensionContainer)
+		def extension = new AngularExtension(null, null, objects())
+		extension.setGroup("@example")
+		project.getExtensions() >> extensions
+		def state = Mock(ProjectState)
+		state.getExecuted() >> true
+		project.getState() >> state
+
+		when:
+		testIndex.getNodeModulesTarget(project, "org.example", "lib")
+		def result = testIndex.getNodeModulesTarget(project, "org.example", "other")
+
+		then: "Group of evaluated project is resolved once"
+		1 * extensions.findByType(AngularExtension.class) >> extension
+		result == new File("/work/web/node_modules/@example/other").toPath()
+
+	}
+
+	def "PluginApplied"() {
+
+		given: "Index built before plugin is applied"
+		ngPlugins.hasPlugin(AngularBasePlugin.class) >>> [false, true]
+		rootPlugins.hasPlugin(AngularBasePlugin.class) >> false
+		testIndex.getTopLevelProject(project) == project
+
+		when:
+		testIndex.pluginApplied(ngRoot)
+
+		then:
+		testIndex.getTopLevelProject(project) == ngRoot
+
+	}
+
+	private AngularExtension extension(Project project, boolean executed) {
+		def extension = new AngularExtension(null, null, objects())
+		def extensions = Mock(ExtensionContainer)
+		extensions.findByType(AngularExtension.class) >> extension
+		project.getExtensions() >> extensions
+		def state = Mock(ProjectState)
+		state.getExecuted() >> executed
+		project.getState() >> state
+		return extension
+	}
+
+	private ObjectFactory objects() {
+		ObjectFactory objects = Mock()
+		objects.property(PublishMode.class) >> Mock(Property)
+		return objects
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import org.gradle.api.artifacts.transform.TransformOutputs
+import org.gradle.api.artifacts.transform.TransformParameters
+import org.gradle.api.file.FileSystemLocation
+import org.gradle.api.provider.Provider
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class UnzipNodeLibraryTests extends Specification {
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Transform"() {
+
+		given: "Zipped library"
+		def archive = temp.resolve("components-1.0.0.zip").toFile()
+		new ZipOutputStream(new FileOutputStream(archive)).withCloseable { zip ->
+			zip.putNextEntry(new ZipEntry("components-1.0.0/package.json"))
+			zip.write('{"name":"components"}'.getBytes(StandardCharsets.UTF_8))
+		}
+
+		and:
+		FileSystemLocation location = Mock()
+		location.getAsFile() >> archive
+		Provider<FileSystemLocation> input = Mock()
+		input.get() >> location
+		TransformOutputs outputs = Mock()
+		def transform = new UnzipNodeLibrary() {
+			@Override
+			Provider<FileSystemLocation> getInputArtifact() {
+				return input
+			}
+
+			@Override
+			TransformParameters.None getParameters() {
+				return null
+			}
+		}
+
+		when:
+		transform.transform(outputs)
+
+		then:
+		1 * outputs.dir("components-1.0.0") >> temp.resolve("out/components-1.0.0").toFile()
+		Files.readString(temp.resolve("out/components-1.0.0/components-1.0.0/package.json")) == '{"name":"components"}'
+
+	}
+
+	def "GetDirectoryName"() {
+
+		expect:
+		UnzipNodeLibrary.getDirectoryName(new File(name)) == result
+
+		where:
+		name            | result
+		"library.zip"   | "library"
+		"library"       | "library"
+
+	}
+
+}
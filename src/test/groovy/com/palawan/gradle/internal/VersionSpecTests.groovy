@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class VersionSpecTests extends Specification {
+
+	def "IsSatisfiedBy"() {
+
+		expect:
+		VersionSpec.parse(spec).isSatisfiedBy(version) == satisfied
+
+		where:
+		spec               | version        || satisfied
+		"12.2.17"          | "12.2.17"      || true
+		"12.2.17"          | "12.2.16"      || false
+		"v12.1.0"          | "12.1.0"       || true
+		"12"               | "12.9.1"       || true
+		"12"               | "13.0.0"       || false
+		"12.2"             | "12.2.5"       || true
+		"12.x"             | "12.0.0"       || true
+		"*"                | "1.0.0"        || true
+		""                 | "1.0.0"        || true
+		"latest"           | "15.0.0"       || false
+		"next"             | "15.0.0"       || false
+		"^12.2.0"          | "12.9.0"       || true
+		"^12.2.0"          | "13.0.0"       || false
+		"^12.2.0"          | "12.1.0"       || false
+		"^0.2.3"           | "0.2.9"        || true
+		"^0.2.3"           | "0.3.0"        || false
+		"^0.0.3"           | "0.0.4"        || false
+		"~12.2.0"          | "12.2.9"       || true
+		"~12.2.0"          | "12.3.0"       || false
+		"~12"              | "12.5.0"       || true
+		">=12.0.0 <13"     | "12.5.0"       || true
+		">=12.0.0 <13"     | "13.0.0"       || false
+		">= 12 < 13"       | "12.1.0"       || true
+		">1.2"             | "1.2.9"        || false
+		">1.2"             | "1.3.0"        || true
+		"<=1.2"            | "1.2.9"        || true
+		"12.0.0 - 12.2"    | "12.2.9"       || true
+		"12.0.0 - 12.2"    | "12.3.0"       || false
+		"^11 || ^12"       | "12.0.0"       || true
+		"^11 || ^12"       | "13.0.0"       || false
+		"12.0.0"           | "12.0.0-rc.1"  || false
+		">=12.0.0-rc.1"    | "12.0.0-rc.2"  || true
+		">=12.0.0-rc.10"   | "12.0.0-rc.2"  || false
+		"^12.0.0"          | "garbage"      || false
+		"^12.0.0"          | null           || false
+
+	}
+
+}
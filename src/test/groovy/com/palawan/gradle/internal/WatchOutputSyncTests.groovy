@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class WatchOutputSyncTests extends Specification {
+
+	private Path temp
+
+	private Path staging
+
+	private Path target
+
+	private Path manifest
+
+	private WatchOutputSync sync
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		staging = temp.resolve("build/angular-watch/main")
+		target = temp.resolve("build/resources/main/static")
+		manifest = temp.resolve("build/tmp/watchAngular/" + ZipSync.FILE_NAME)
+		sync = new WatchOutputSync(staging, target, manifest)
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Sync_missingStaging"() {
+
+		expect:
+		sync.sync() == null
+		!Files.exists(target)
+
+	}
+
+	def "Sync"() {
+
+		given:
+		write("index.html": "<html/>", "main.js": "main")
+
+		when:
+		def first = sync.sync()
+
+		then:
+		first.getWritten() as Set == ["index.html", "main.js"] as Set
+		Files.readString(target.resolve("main.js")) == "main"
+
+		and: "Manifest is kept outside of the served directory"
+		Files.exists(manifest)
+		!Files.exists(target.resolve(ZipSync.FILE_NAME))
+
+		when: "Unchanged output is reported again"
+		def second = sync.sync()
+
+		then:
+		second == null
+
+	}
+
+	def "Sync_rebuild"() {
+
+		given:
+		write("index.html": "<html/>", "main.js": "main", "chunk.js": "chunk")
+		sync.sync()
+
+		when: "Rebuild changes and removes files"
+		Files.delete(staging.resolve("chunk.js"))
+		write("main.js": "main changed")
+		def result = sync.sync()
+
+		then:
+		result.getWritten() == ["main.js"]
+		result.getDeleted() == ["chunk.js"]
+		Files.readString(target.resolve("main.js")) == "main changed"
+		!Files.exists(target.resolve("chunk.js"))
+		Files.readString(target.resolve("index.html")) == "<html/>"
+
+	}
+
+	def "Sync_cleanedStaging"() {
+
+		given:
+		write("main.js": "main")
+		sync.sync()
+
+		when: "Failed rebuild leaves the staging directory empty"
+		staging.toFile().deleteDir()
+		def result = sync.sync()
+
+		then: "Served output is kept"
+		result == null
+		Files.readString(target.resolve("main.js")) == "main"
+
+	}
+
+	def "Sync_existingTarget"() {
+
+		given: "Output of previous build is served"
+		Files.createDirectories(target)
+		Files.writeString(target.resolve("main.js"), "previous")
+		Files.writeString(target.resolve("stale.js"), "stale")
+		write("main.js": "main")
+
+		when:
+		def result = sync.sync()
+
+		then: "Served directory is updated, not emptied"
+		result.getWritten() == ["main.js"]
+		result.getDeleted() == ["stale.js"]
+		Files.readString(target.resolve("main.js")) == "main"
+		!Files.exists(target.resolve("stale.js"))
+
+	}
+
+	def "IsBuildComplete"() {
+
+		expect:
+		WatchOutputSync.isBuildComplete(line) == complete
+
+		where:
+		line                                                                         | complete
+		"Build at: 2022-03-01T10:00:00.000Z - Hash: 1a2b3c4d - Time: 1234ms"         | true
+		"Date: 2020-03-01T10:00:00.000Z - Hash: 1a2b3c4d - Time: 5230ms"            | true
+		"Application bundle generation complete. [1.254 seconds]"                    | true
+		"\u001B[1mBuild at: \u001B[22m2022-03-01T10:00:00.000Z - Hash: 1a2b3c4d"      | true
+		"Generating browser application bundles (phase: building)..."                | false
+		"main.js | main | 12.3 kB"                                                   | false
+
+	}
+
+	private void write(Map<String, String> files) {
+		files.each { name, content ->
+			Path file = staging.resolve(name)
+			Files.createDirectories(file.getParent())
+			Files.writeString(file, content)
+			// modification time differs from the previous build
+			file.toFile().setLastModified(System.currentTimeMillis() + 60_000 + content.length())
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class WorkspaceGraphTests extends Specification {
+
+	private Path temp
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		Files.createDirectories(temp.resolve("projects/components"))
+		Files.createDirectories(temp.resolve("projects/widgets"))
+		Files.createDirectories(temp.resolve("projects/demo"))
+		Files.writeString(temp.resolve("angular.json"), '''{
+			"version": 1,
+			"projects": {
+				"components": {
+					"projectType": "library",
+					"root": "projects/components",
+					"architect": { "build": { "options": {
+						"project": "projects/components/ng-package.json",
+						"tsConfig": "projects/components/tsconfig.lib.json"
+					} } }
+				},
+				"widgets": {
+					"projectType": "library",
+					"root": "projects/widgets",
+					"architect": { "build": { "options": {
+						"project": "projects/widgets/ng-package.json",
+						"tsConfig": "projects/widgets/tsconfig.lib.json"
+					} } }
+				},
+				"demo": {
+					"projectType": "application",
+					"root": "projects/demo",
+					"architect": { "build": { "options": {
+						"tsConfig": "projects/demo/tsconfig.app.json"
+					} } }
+				}
+			}
+		}''')
+		Files.writeString(temp.resolve("tsconfig.json"), '''{
+			"compilerOptions": { "paths": {
+				"@sample/components": ["dist/components"],
+				"widgets/*": ["projects/widgets/src/*"]
+			} }
+		}''')
+		Files.writeString(temp.resolve("projects/components/package.json"), '{"name":"@sample/components"}')
+		Files.writeString(temp.resolve("projects/components/ng-package.json"), '{"dest":"../../dist/components"}')
+		Files.writeString(temp.resolve("projects/components/tsconfig.lib.json"), '{"extends":"../../tsconfig.json"}')
+		Files.writeString(temp.resolve("projects/widgets/package.json"), '{"name":"widgets","peerDependencies":{"@sample/components":"^1.0.0"}}')
+		Files.writeString(temp.resolve("projects/widgets/ng-package.json"), '{"dest":"../../dist/widgets"}')
+		Files.writeString(temp.resolve("projects/widgets/tsconfig.lib.json"), '{"extends":"../../tsconfig.json"}')
+		Files.writeString(temp.resolve("projects/demo/tsconfig.app.json"), '{"extends":"../../tsconfig.json"}')
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "GetDependencies"() {
+
+		when:
+		def graph = WorkspaceGraph.of(temp.resolve("angular.json").toFile())
+
+		then:
+		graph.getProjects() == ["components", "demo", "widgets"] as Set
+		graph.getDependencies("components").isEmpty()
+		graph.getDependencies("widgets") == ["components"] as Set
+		graph.getDependencies("demo") == ["components", "widgets"] as Set
+		graph.getDependencies("unknown").isEmpty()
+		graph.getIgnoredDependencies().isEmpty()
+
+	}
+
+	def "GetDependencies_libraryPaths"() {
+
+		given:
+		Files.writeString(temp.resolve("projects/widgets/package.json"), '{"name":"widgets"}')
+		Files.writeString(temp.resolve("projects/widgets/tsconfig.lib.json"), '''{
+			"extends": "../../tsconfig.json",
+			"compilerOptions": { "paths": { "@sample/components/*": ["dist/components/*"] } }
+		}''')
+
+		when:
+		def graph = WorkspaceGraph.of(temp.resolve("angular.json").toFile())
+
+		then:
+		graph.getDependencies("widgets") == ["components"] as Set
+		graph.getDependencies("components").isEmpty()
+
+	}
+
+	def "GetDependencies_ngPackage"() {
+
+		given:
+		Files.writeString(temp.resolve("projects/widgets/package.json"), '{"name":"widgets"}')
+		Files.writeString(temp.resolve("projects/widgets/ng-package.json"), '{"allowedNonPeerDependencies":["@sample/components"]}')
+
+		when:
+		def graph = WorkspaceGraph.of(temp.resolve("angular.json").toFile())
+
+		then:
+		graph.getDependencies("widgets") == ["components"] as Set
+
+	}
+
+	def "GetDependencies_cycle"() {
+
+		given:
+		Files.writeString(temp.resolve("projects/components/package.json"), '{"name":"@sample/components","dependencies":{"widgets":"*"}}')
+
+		when:
+		def graph = WorkspaceGraph.of(temp.resolve("angular.json").toFile())
+
+		then:
+		graph.getDependencies("components") == ["widgets"] as Set
+		graph.getDependencies("widgets").isEmpty()
+		graph.getIgnoredDependencies() == ["widgets -> components"]
+
+	}
+
+	def "GetDependencies_cached"() {
+
+		when:
+		WorkspaceGraph.of(temp.resolve("angular.json").toFile())
+
+		then: "Descriptors are cached with referencing fields only"
+		DescriptorCache.getInstance().isCached(temp.resolve("angular.json"))
+		DescriptorCache.getReferences().isCached(temp.resolve("projects/widgets/package.json"))
+		DescriptorCache.getReferences().isCached(temp.resolve("tsconfig.json"))
+		DescriptorCache.getReferences().read(temp.resolve("projects/components/ng-package.json")).get("dest") == null
+
+	}
+
+	def "GetDependencies_missingDescriptor"() {
+
+		expect:
+		WorkspaceGraph.of(temp.resolve("unknown.json").toFile()).getProjects().isEmpty()
+
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class ZipInspectorTests extends Specification {
+
+	private Path temp
+
+	private File archive
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		archive = temp.resolve("library.zip").toFile()
+		new ZipOutputStream(new FileOutputStream(archive)).withCloseable { zip ->
+			zip.putNextEntry(new ZipEntry("library-1.0.0/"))
+			zip.putNextEntry(new ZipEntry("library-1.0.0/node_modules/dep/package.json"))
+			zip.write('{"name":"dep"}'.getBytes(StandardCharsets.UTF_8))
+			zip.putNextEntry(new ZipEntry("library-1.0.0/package.json"))
+			zip.write('{"name":"library"}'.getBytes(StandardCharsets.UTF_8))
+			zip.closeEntry()
+		}
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "FindShallowest"() {
+
+		given:
+		def inspector = new ZipInspector(archive)
+
+		when:
+		def result = inspector.findShallowest("package.json")
+
+		then:
+		result.isPresent()
+		result.get().getName() == "library-1.0.0/package.json"
+
+		cleanup:
+		inspector.close()
+
+	}
+
+	def "FindShallowest_missing"() {
+
+		given:
+		def inspector = new ZipInspector(archive)
+
+		expect:
+		!inspector.findShallowest(ContentFingerprint.FILE_NAME).isPresent()
+		!inspector.findShallowest("json").isPresent()
+
+		cleanup:
+		inspector.close()
+
+	}
+
+	def "Open"() {
+
+		given:
+		def inspector = new ZipInspector(archive)
+		def entry = inspector.findShallowest("package.json").get()
+
+		when:
+		def result = inspector.open(entry).withCloseable { new String(it.readAllBytes(), StandardCharsets.UTF_8) }
+
+		then:
+		result == '{"name":"library"}'
+
+		cleanup:
+		inspector.close()
+
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2022 Petr Langr
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.palawan.gradle.internal
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import java.util.stream.Collectors
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+/**
+ *
+ * @author Langr, Petr
+ * @since 1.0.0
+ */
+class ZipSyncTests extends Specification {
+
+	private Path temp
+
+	private File archive
+
+	private Path target
+
+	private Path manifest
+
+	def setup() {
+		temp = Files.createTempDirectory("junit")
+		archive = temp.resolve("library.zip").toFile()
+		target = temp.resolve("node_modules/library")
+		manifest = temp.resolve("build/tmp/compileAngular/" + ZipSync.FILE_NAME)
+	}
+
+	def cleanup() {
+		temp.toFile().deleteDir()
+	}
+
+	def "Sync"() {
+
+		given: "Target with file of unknown origin"
+		Files.createDirectories(target)
+		Files.writeString(target.resolve("unknown.js"), "")
+		zip("lib/package.json": "{}", "lib/esm/a.js": "a")
+
+		when:
+		def result = ZipSync.sync(archive, target, manifest)
+
+		then: "Archive is extracted completely"
+		result.getWritten() as Set == ["lib/package.json", "lib/esm/a.js"] as Set
+		result.getDeleted() == ["unknown.js"]
+		Files.readString(target.resolve("lib/esm/a.js")) == "a"
+		!Files.exists(target.resolve("unknown.js"))
+
+		and: "Manifest is kept outside of the target"
+		Files.exists(manifest)
+		!Files.exists(target.resolve(ZipSync.FILE_NAME))
+
+	}
+
+	def "Sync_unchanged"() {
+
+		given:
+		zip("lib/package.json": "{}", "lib/esm/a.js": "a")
+		ZipSync.sync(archive, target, manifest)
+		Files.setLastModifiedTime(target.resolve("lib/esm/a.js"), FileTime.fromMillis(1000L))
+
+		when:
+		def result = ZipSync.sync(archive, target, manifest)
+
+		then:
+		result.getWritten().isEmpty()
+		result.getDeleted().isEmpty()
+		Files.getLastModifiedTime(target.resolve("lib/esm/a.js")) == FileTime.fromMillis(1000L)
+
+	}
+
+	def "Sync_changed"() {
+
+		given:
+		zip("lib/package.json": "{}", "lib/esm/a.js": "a", "lib/esm/b.js": "b")
+		ZipSync.sync(archive, target, manifest)
+
+		and: "Library with changed, added and removed file"
+		zip("lib/package.json": "{}", "lib/esm/a.js": "a2", "lib/c.js": "c")
+
+		when:
+		def result = ZipSync.sync(archive, target, manifest)
+
+		then:
+		result.getWritten() as Set == ["lib/esm/a.js", "lib/c.js"] as Set
+		result.getDeleted() == ["lib/esm/b.js"]
+		Files.readString(target.resolve("lib/esm/a.js")) == "a2"
+		!Files.exists(target.resolve("lib/esm/b.js"))
+
+	}
+
+	def "Sync_modifiedTarget"() {
+
+		given:
+		zip("lib/package.json": "{}", "lib/esm/a.js": "a")
+		ZipSync.sync(archive, target, manifest)
+		Files.delete(target.resolve("lib/esm/a.js"))
+
+		when:
+		def result = ZipSync.sync(archive, target, manifest)
+
+		then: "Missing file is restored"
+		result.getWritten() == ["lib/esm/a.js"]
+		Files.readString(target.resolve("lib/esm/a.js")) == "a"
+
+	}
+
+	def "Sync_invalidEntry"() {
+
+		given:
+		zip("../outside.js": "x")
+
+		when:
+		ZipSync.sync(archive, target, manifest)
+
+		then:
+		thrown(IOException)
+		!Files.exists(temp.resolve("node_modules/outside.js"))
+
+	}
+
+	def "Sync_directory"() {
+
+		given: "Extracted library"
+		def directory = Files.createDirectories(temp.resolve("extracted/lib/esm"))
+		Files.writeString(directory.resolve("a.js"), "a")
+		Files.writeString(directory.resolve("b.js"), "b")
+		def source = directory.parent.parent
+		ZipSync.sync(source, target, manifest)
+
+		and: "Library with changed and removed file"
+		Files.writeString(directory.resolve("a.js"), "a2")
+		Files.setLastModifiedTime(directory.resolve("a.js"), FileTime.fromMillis(1000L))
+		Files.delete(directory.resolve("b.js"))
+
+		when:
+		def result = ZipSync.sync(source, target, manifest)
+
+		then:
+		result.getWritten() == ["lib/esm/a.js"]
+		result.getDeleted() == ["lib/esm/b.js"]
+		Files.readString(target.resolve("lib/esm/a.js")) == "a2"
+		!Files.readString(manifest).isEmpty()
+
+	}
+
+	def "Sync_externalManifest"() {
+
+		given: "Target directory with previous content"
+		def source = Files.createDirectories(temp.resolve("staging"))
+		Files.writeString(source.resolve("a.js"), "a")
+		Files.createDirectories(target)
+		Files.writeString(target.resolve("a.js"), "previous")
+		Files.writeString(target.resolve("b.js"), "b")
+
+		when:
+		def result = ZipSync.sync(source, target, manifest)
+
+		then: "Target is updated in place and manifest is written outside of it"
+		result.getWritten() == ["a.js"]
+		result.getDeleted() == ["b.js"]
+		Files.readString(target.resolve("a.js")) == "a"
+		Files.exists(manifest)
+		!Files.exists(target.resolve(ZipSync.FILE_NAME))
+
+	}
+
+	def "Sync_manifestInTarget"() {
+
+		given:
+		zip("lib/package.json": "{}")
+
+		when:
+		ZipSync.sync(archive, target, target.resolve(ZipSync.FILE_NAME))
+
+		then:
+		thrown(IOException)
+
+	}
+
+	def "Extract"() {
+
+		given:
+		zip("lib/package.json": "{}", "lib/esm/a.js": "a")
+
+		when:
+		ZipSync.extract(archive, target)
+
+		then: "No manifest is written"
+		Files.readString(target.resolve("lib/esm/a.js")) == "a"
+		Files.list(target).map({ it.getFileName().toString() }).collect(Collectors.toList()) == ["lib"]
+
+	}
+
+	private void zip(Map<String, String> entries) {
+		new ZipOutputStream(new FileOutputStream(archive)).withCloseable { zip ->
+			entries.each { name, content ->
+				zip.putNextEntry(new ZipEntry(name))
+				zip.write(content.getBytes(StandardCharsets.UTF_8))
+			}
+		}
+	}
+
+}
@@ -22,13 +22,23 @@
 
 package com.palawan.gradle.util
 
+import com.palawan.gradle.internal.ContentFingerprint
+import com.palawan.gradle.internal.NodeDependency
+import com.palawan.gradle.internal.ProjectHierarchyIndex
 import org.gradle.api.GradleException
 import org.gradle.api.Project
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition
+import org.gradle.api.invocation.Gradle
+import org.gradle.api.provider.Provider
+import org.gradle.api.services.BuildServiceParameters
+import org.gradle.api.services.BuildServiceRegistry
 import spock.lang.Specification
 import spock.lang.Stepwise
 
 import java.nio.file.Files
 import java.nio.file.Paths
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
 
 /**
  *
@@ -49,6 +59,9 @@ class AngularJsonHelperTests extends Specification {
 		given:
 		Project project = Mock(Project)
 		project.getRootProject() >> project
+		project.getGradle() >> gradle()
+		project.getPath() >> ":"
+		project.getProjectDir() >> new File("/work")
 		project.file("angular.json") >> new File(getClass().getResource("/angular.json").toURI())
 
 		when:
@@ -71,6 +84,9 @@ class AngularJsonHelperTests extends Specification {
 		given:
 		def project = Mock(Project)
 		project.getRootProject() >> project
+		project.getGradle() >> gradle()
+		project.getPath() >> ":"
+		project.getProjectDir() >> new File("/work")
 		project.file("angular.json") >> new File("/tmp/package.json")
 
 		when:
@@ -143,6 +159,9 @@ class AngularJsonHelperTests extends Specification {
 		and: "Project with angular.json"
 		Project project = Mock(Project)
 		project.getRootProject() >> project
+		project.getGradle() >> gradle()
+		project.getPath() >> ":"
+		project.getProjectDir() >> new File("/work")
 		project.file("angular.json") >> path.toFile()
 
 		and: "Parsed angular.json"
@@ -151,8 +170,8 @@ class AngularJsonHelperTests extends Specification {
 		when: "Updating angular.json"
 		tester.updateAngularJson(angular.get())
 
-		then: "File would be updated"
-		Files.getLastModifiedTime(path) > time
+		then: "Unchanged file would not be rewritten"
+		Files.getLastModifiedTime(path) == time
 
 	}
 
@@ -168,8 +187,8 @@ class AngularJsonHelperTests extends Specification {
 		when: "Updating ng-package.json"
 		tester.updateNgPackageJson(ngPackage)
 
-		then: "File would be modified"
-		Files.getLastModifiedTime(path) > time
+		then: "Unchanged file would not be rewritten"
+		Files.getLastModifiedTime(path) == time
 
 	}
 
@@ -185,18 +204,127 @@ class AngularJsonHelperTests extends Specification {
 		when: "Updating package.json"
 		tester.updatePackageJson(packageJson.get())
 
-		then: "File would be modified"
-		Files.getLastModifiedTime(path) > time
+		then: "Unchanged file would not be rewritten"
+		Files.getLastModifiedTime(path) == time
 
 	}
 
 	def "ArtifactUpdated"() {
+
+		given: "Library with fingerprint"
+		def temp = Files.createTempDirectory("junit")
+		def library = Files.createDirectories(temp.resolve("library"))
+		Files.writeString(library.resolve("package.json"), '{"version":"1.0.0"}')
+		tester.generateFingerprint("library", library.toFile())
+
+		and: "Published copy of the library"
+		def published = Files.createDirectories(temp.resolve("node_modules/library"))
+		Files.copy(library.resolve("package.json"), published.resolve("package.json"))
+		Files.copy(library.resolve(ContentFingerprint.FILE_NAME), published.resolve(ContentFingerprint.FILE_NAME))
+
+		when:
+		def result = tester.artifactUpdated(published.toFile(), library.toFile())
+
+		then: "Same content is not updated"
+		!result
+
+		when: "Library rebuilt with the same version"
+		Files.writeString(library.resolve("index.js"), 'export {};')
+		tester.generateFingerprint("library", library.toFile())
+		result = tester.artifactUpdated(published.toFile(), library.toFile())
+
+		then:
+		result
+
+		cleanup:
+		temp.toFile().deleteDir()
+
 	}
 
 	def "TestArtifactUpdated"() {
+
+		given: "Library without fingerprint"
+		def temp = Files.createTempDirectory("junit")
+
+		expect:
+		tester.artifactUpdated(temp.resolve("node_modules/library"), temp.resolve("library"))
+
+		cleanup:
+		temp.toFile().deleteDir()
+
+	}
+
+	def "ArtifactUpdated_zip"() {
+
+		given: "Zipped library with fingerprint"
+		def temp = Files.createTempDirectory("junit")
+		def library = Files.createDirectories(temp.resolve("library-1.0.0"))
+		Files.writeString(library.resolve("package.json"), '{"version":"1.0.0"}')
+		tester.generateFingerprint("library", library.toFile())
+		def archive = temp.resolve("library.zip").toFile()
+		new ZipOutputStream(new FileOutputStream(archive)).withCloseable { zip ->
+			[ "package.json", ContentFingerprint.FILE_NAME ].each {
+				zip.putNextEntry(new ZipEntry("library-1.0.0/" + it))
+				zip.write(Files.readAllBytes(library.resolve(it)))
+			}
+		}
+
+		and: "Extracted library"
+		def target = Files.createDirectories(temp.resolve("node_modules/library"))
+		def dependency = new NodeDependency(archive, ArtifactTypeDefinition.ZIP_TYPE, target.toFile())
+
+		when:
+		def result = tester.artifactUpdated(dependency)
+
+		then: "Library without fingerprint is updated"
+		result
+
+		when:
+		Files.copy(library.resolve(ContentFingerprint.FILE_NAME), target.resolve(ContentFingerprint.FILE_NAME))
+		result = tester.artifactUpdated(dependency)
+
+		then: "Library with the same fingerprint is not updated"
+		!result
+
+		cleanup:
+		temp.toFile().deleteDir()
+
+	}
+
+	def "GenerateFingerprint"() {
+
+		given:
+		def temp = Files.createTempDirectory("junit")
+		Files.writeString(temp.resolve("package.json"), '{"version":"1.0.0"}')
+
+		when:
+		tester.generateFingerprint("library", temp.toFile())
+		def time = Files.getLastModifiedTime(temp.resolve(ContentFingerprint.FILE_NAME))
+		tester.generateFingerprint("library", temp.toFile())
+
+		then: "Unchanged fingerprint is not rewritten"
+		ContentFingerprint.readDigest(temp).isPresent()
+		Files.getLastModifiedTime(temp.resolve(ContentFingerprint.FILE_NAME)) == time
+
+		cleanup:
+		temp.toFile().deleteDir()
+
 	}
 
-	def "GenerateTimestamp"() {
+	private Gradle gradle() {
+		def index = new ProjectHierarchyIndex() {
+			@Override
+			BuildServiceParameters.None getParameters() {
+				return null
+			}
+		}
+		BuildServiceRegistry services = Mock()
+		Provider<ProjectHierarchyIndex> provider = Mock()
+		provider.get() >> index
+		services.registerIfAbsent(ProjectHierarchyIndex.SERVICE_NAME, ProjectHierarchyIndex.class, _) >> provider
+		Gradle gradle = Mock()
+		gradle.getSharedServices() >> services
+		return gradle
 	}
 
 }
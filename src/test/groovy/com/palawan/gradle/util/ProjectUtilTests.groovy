@@ -23,8 +23,13 @@
 package com.palawan.gradle.util
 
 import com.palawan.gradle.AngularBasePlugin
+import com.palawan.gradle.internal.ProjectHierarchyIndex
 import org.gradle.api.Project
+import org.gradle.api.invocation.Gradle
 import org.gradle.api.plugins.PluginContainer
+import org.gradle.api.provider.Provider
+import org.gradle.api.services.BuildServiceParameters
+import org.gradle.api.services.BuildServiceRegistry
 import spock.lang.Specification
 
 /**
@@ -36,10 +41,30 @@ class ProjectUtilTests extends Specification {
 
 	Project project
 
+	Gradle gradle
+
+	def setup() {
+		def index = new ProjectHierarchyIndex() {
+			@Override
+			BuildServiceParameters.None getParameters() {
+				return null
+			}
+		}
+		BuildServiceRegistry services = Mock()
+		Provider<ProjectHierarchyIndex> provider = Mock()
+		provider.get() >> index
+		services.registerIfAbsent(ProjectHierarchyIndex.SERVICE_NAME, ProjectHierarchyIndex.class, _) >> provider
+		gradle = Mock(Gradle)
+		gradle.getSharedServices() >> services
+	}
+
 	def "GetTopLevelProject"() {
 		given:
 		project = Mock(Project)
 		project.getRootProject() >> project
+		project.getGradle() >> gradle
+		project.getPath() >> ":"
+		project.getProjectDir() >> new File("/work")
 
 		when:
 		def result = ProjectUtil.getTopLevelProject(project)
@@ -54,6 +79,9 @@ class ProjectUtilTests extends Specification {
 		Project root = Mock(Project)
 		PluginContainer plugins = Mock()
 		root.getRootProject() >> root
+		root.getGradle() >> gradle
+		root.getPath() >> ":"
+		root.getProjectDir() >> new File("/work")
 		root.getPlugins() >> plugins
 		plugins.hasPlugin(AngularBasePlugin.class) >> true
 
@@ -61,6 +89,10 @@ class ProjectUtilTests extends Specification {
 		project = Mock(Project)
 		project.getParent() >> root
 		project.getRootProject() >> root
+		project.getGradle() >> gradle
+		project.getPath() >> ":library"
+		project.getProjectDir() >> new File("/work/library")
+		project.project(":") >> root
 
 		when:
 		def result = ProjectUtil.getTopLevelProject(project)
@@ -75,6 +107,9 @@ class ProjectUtilTests extends Specification {
 		Project root = Mock(Project)
 		PluginContainer plugins = Mock()
 		root.getRootProject() >> root
+		root.getGradle() >> gradle
+		root.getPath() >> ":"
+		root.getProjectDir() >> new File("/work")
 		root.getPlugins() >> plugins
 		plugins.hasPlugin(AngularBasePlugin.class) >> false
 
@@ -83,6 +118,9 @@ class ProjectUtilTests extends Specification {
 		PluginContainer ngPlugins = Mock()
 		ngRoot.getRootProject() >> root
 		ngRoot.getParent() >> root
+		ngRoot.getGradle() >> gradle
+		ngRoot.getPath() >> ":web"
+		ngRoot.getProjectDir() >> new File("/work/web")
 		ngRoot.getPlugins() >> ngPlugins
 		ngPlugins.hasPlugin(AngularBasePlugin.class) >> true
 
@@ -90,6 +128,10 @@ class ProjectUtilTests extends Specification {
 		project = Mock(Project)
 		project.getRootProject() >> root
 		project.getParent() >> ngRoot
+		project.getGradle() >> gradle
+		project.getPath() >> ":web:library"
+		project.getProjectDir() >> new File("/work/web/library")
+		project.project(":web") >> ngRoot
 
 		when:
 		def result = ProjectUtil.getTopLevelProject(project)